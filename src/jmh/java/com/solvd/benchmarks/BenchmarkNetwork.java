@@ -0,0 +1,121 @@
+package com.solvd.benchmarks;
+
+import com.solvd.algoritms.RouteCache;
+import com.solvd.dao.implementation.InMemoryGraphChangeDAO;
+import com.solvd.dao.implementation.InMemoryRoadDAO;
+import com.solvd.dao.implementation.InMemoryStationDAO;
+import com.solvd.models.Road;
+import com.solvd.models.Station;
+import com.solvd.service.RoadServiceImpl;
+import com.solvd.service.StationServiceImpl;
+import com.solvd.utils.DatabaseGraphSource;
+import com.solvd.utils.GraphManager;
+import com.solvd.utils.GraphSource;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Random network held by the in-memory DAOs, so benchmarks measure the routing code and not the database.
+ * <p>
+ * Stations are scattered over a 1000 x 1000 square. CAR roads form a chain through every station, so all of
+ * them are reachable, plus two-way roads between distinct random pairs until {@code density} of all station
+ * pairs are connected. The chain alone connects {@code 2 / size} of them, so {@code density} is a lower bound:
+ * below that the CAR network is just the chain. BUS roads form lines of {@link #LINE_LENGTH} stations, one line per
+ * {@link #STATIONS_PER_LINE} stations, each with its own color.
+ */
+final class BenchmarkNetwork {
+    static final int LINE_LENGTH = 20;
+    static final int STATIONS_PER_LINE = 10;
+
+    final int size;
+    final GraphSource source;
+
+    private BenchmarkNetwork(int size, GraphSource source) {
+        this.size = size;
+        this.source = source;
+    }
+
+    static BenchmarkNetwork generate(int size, double density, long seed) {
+        Random random = new Random(seed);
+        InMemoryGraphChangeDAO changes = new InMemoryGraphChangeDAO();
+        InMemoryStationDAO stationDAO = new InMemoryStationDAO(changes);
+        InMemoryRoadDAO roadDAO = new InMemoryRoadDAO(stationDAO, changes);
+
+        List<Station> stations = new ArrayList<>(size);
+        for (int id = 1; id <= size; id++) {
+            Station station = new Station();
+            station.setStationId(id);
+            station.setName("Station " + id);
+            station.setXCoord(random.nextDouble() * 1000);
+            station.setYCoord(random.nextDouble() * 1000);
+            stations.add(station);
+        }
+        stationDAO.putAll(stations);
+
+        List<Road> roads = new ArrayList<>();
+        for (int id = 1; id < size; id++) {
+            roads.add(road(roads.size() + 1, id, id + 1, "CAR", null));
+        }
+        // Pairs are keyed smaller ID first, so a road and its reverse count once
+        Set<Long> connected = new HashSet<>();
+        for (int id = 1; id < size; id++) {
+            connected.add(pair(id, id + 1));
+        }
+        long pairs = (long) size * (size - 1) / 2;
+        long target = Math.min(pairs, (long) (density * pairs));
+        while (connected.size() < target) {
+            int from = 1 + random.nextInt(size);
+            int to = 1 + random.nextInt(size);
+            if (from != to && connected.add(pair(from, to))) {
+                roads.add(road(roads.size() + 1, from, to, "CAR", null));
+            }
+        }
+        int lines = Math.max(1, size / STATIONS_PER_LINE);
+        for (int line = 0; line < lines; line++) {
+            int from = 1 + random.nextInt(size);
+            for (int stop = 1; stop < LINE_LENGTH; stop++) {
+                int to = 1 + random.nextInt(size);
+                roads.add(road(roads.size() + 1, from, to, "BUS", "Line" + line));
+                from = to;
+            }
+        }
+        roadDAO.putAll(roads);
+
+        GraphSource source = new DatabaseGraphSource(new StationServiceImpl(stationDAO), new RoadServiceImpl(roadDAO));
+        // The routing layer builds its own GraphManagers, so point it at this network
+        GraphManager.setDefaultSource(source);
+        RouteCache.setChangeLog(changes);
+        return new BenchmarkNetwork(size, source);
+    }
+
+    /**
+     * Station ID pairs to query, drawn with a fixed seed so every run asks the same questions.
+     */
+    int[][] queries(int count, long seed) {
+        Random random = new Random(seed);
+        int[][] queries = new int[count][];
+        for (int i = 0; i < count; i++) {
+            queries[i] = new int[]{1 + random.nextInt(size), 1 + random.nextInt(size)};
+        }
+        return queries;
+    }
+
+    private static long pair(int from, int to) {
+        return (long) Math.min(from, to) << 32 | Math.max(from, to);
+    }
+
+    private static Road road(int id, int from, int to, String mode, String busColor) {
+        Road road = new Road();
+        road.setRoadId(id);
+        road.setFromStationId(from);
+        road.setToStationId(to);
+        road.setMode(mode);
+        road.setOneWay(false);
+        road.setBusColor(busColor);
+        return road;
+    }
+}
@@ -0,0 +1,50 @@
+package com.solvd.benchmarks;
+
+import com.solvd.algoritms.FloydWarshall;
+import com.solvd.utils.GraphManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The classic all-pairs kernel on the CAR matrix; every operation solves a fresh copy of it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FloydWarshallBenchmark {
+
+    @Param({"100", "400"})
+    int size;
+
+    @Param({"0.01", "0.1"})
+    double density;
+
+    private double[][] adjacency;
+    private double[][] distances;
+    private int[][] next;
+
+    @Setup(Level.Trial)
+    public void buildMatrix() {
+        BenchmarkNetwork network = BenchmarkNetwork.generate(size, density, 42);
+        adjacency = new GraphManager(network.source).buildAdjacencyMatrix("CAR");
+        distances = new double[size][size];
+        next = new int[size][size];
+    }
+
+    @Setup(Level.Invocation)
+    public void resetDistances() {
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(adjacency[i], 0, distances[i], 0, size);
+        }
+    }
+
+    @Benchmark
+    public int[][] floydWarshall() {
+        FloydWarshall.floydWarshall(distances, next);
+        return next;
+    }
+}
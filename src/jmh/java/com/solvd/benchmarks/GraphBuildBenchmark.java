@@ -0,0 +1,42 @@
+package com.solvd.benchmarks;
+
+import com.solvd.utils.BusGraph;
+import com.solvd.utils.GraphManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the CAR matrix and the BUS graph from the in-memory DAOs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GraphBuildBenchmark {
+
+    @Param({"100", "1000"})
+    int size;
+
+    @Param({"0.01", "0.1"})
+    double density;
+
+    private GraphManager graphManager;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        graphManager = new GraphManager(BenchmarkNetwork.generate(size, density, 42).source);
+    }
+
+    @Benchmark
+    public double[][] buildAdjacencyMatrix() {
+        return graphManager.buildAdjacencyMatrix("CAR");
+    }
+
+    @Benchmark
+    public BusGraph buildBusGraph() {
+        return graphManager.buildBusGraph();
+    }
+}
@@ -0,0 +1,63 @@
+package com.solvd.benchmarks;
+
+import com.solvd.algoritms.FloydWarshall;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Route queries between random stations with warm caches, i.e. what a user waits for once the network is loaded.
+ * The engines are the configured ones ({@code navigation.engine}, {@code navigation.bus.engine}); pass e.g.
+ * {@code -jvmArgsAppend -Dnavigation.engine=astar} to compare them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NavigationBenchmark {
+    private static final int QUERIES = 1024;
+
+    @Param({"100", "1000"})
+    int size;
+
+    @Param({"0.01", "0.1"})
+    double density;
+
+    private int[][] queries;
+    private int query;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        BenchmarkNetwork network = BenchmarkNetwork.generate(size, density, 42);
+        queries = network.queries(QUERIES, 7);
+        // Build the cached graphs outside the measurement
+        FloydWarshall.computeNavigation(queries[0][0], queries[0][1], "CAR");
+        FloydWarshall.computeNavigation(queries[0][0], queries[0][1], "BUS");
+        FloydWarshall.getAlternativePath(queries[0][0], queries[0][1], "CAR");
+    }
+
+    private int[] nextQuery() {
+        query = (query + 1) & (QUERIES - 1);
+        return queries[query];
+    }
+
+    @Benchmark
+    public FloydWarshall.Route computeNavigationCar() {
+        int[] q = nextQuery();
+        return FloydWarshall.computeNavigation(q[0], q[1], "CAR");
+    }
+
+    @Benchmark
+    public FloydWarshall.Route computeNavigationBus() {
+        int[] q = nextQuery();
+        return FloydWarshall.computeNavigation(q[0], q[1], "BUS");
+    }
+
+    @Benchmark
+    public FloydWarshall.Route getAlternativePath() {
+        int[] q = nextQuery();
+        return FloydWarshall.getAlternativePath(q[0], q[1], "CAR");
+    }
+}
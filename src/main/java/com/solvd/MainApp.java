@@ -1,12 +1,25 @@
 package com.solvd;
 
+import com.solvd.config.NavigationConfig;
 import com.solvd.controller.NavigatorController;
+import com.solvd.controller.RouteApiController;
+import com.solvd.metrics.RoutingMetrics;
 
 public class MainApp {
 
     public static void main(String[] args) {
+        RoutingMetrics.register();
+        RouteApiController api = null;
+        int port = NavigationConfig.getInt("navigation.http.port", 0);
+        if (port > 0) {
+            api = new RouteApiController();
+            System.out.println("Route API listening on port " + api.start(port));
+        }
         NavigatorController controller = new NavigatorController();
         controller.start();
+        if (api != null) {
+            api.stop();
+        }
 
     }
 }
@@ -0,0 +1,107 @@
+package com.solvd.algoritms;
+
+import com.solvd.config.NavigationConfig;
+import com.solvd.utils.CsrGraph;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Runs the all-pairs shortest path kernel selected by {@code navigation.kernel}.
+ */
+public final class AllPairsSolver {
+
+    private static ForkJoinPool pool;
+    private static ParallelFloydWarshall parallel;
+    private static JohnsonAllPairs johnson;
+
+    private AllPairsSolver() {
+    }
+
+    /**
+     * Solves the graph in place, with the same contract as {@link FloydWarshall#floydWarshall(double[][], int[][])}.
+     * The "auto" kernel runs Johnson's algorithm when at most {@code navigation.kernel.johnsonDensity}
+     * of all possible edges exist, and the parallel blocked Floyd-Warshall otherwise.
+     *
+     * @param graph The adjacency matrix, replaced by the shortest distances.
+     * @param next  The matrix to store the next vertex in the shortest path.
+     */
+    public static void solve(double[][] graph, int[][] next) {
+        solve(graph, next, () -> CsrGraph.fromMatrix(graph));
+    }
+
+    /**
+     * Solves the graph in place like {@link #solve(double[][], int[][])}, taking the sparse form Johnson's
+     * algorithm runs on from the caller, e.g. built from the roads, instead of scanning the n x n matrix for it.
+     *
+     * @param graph The adjacency matrix, replaced by the shortest distances.
+     * @param next  The matrix to store the next vertex in the shortest path.
+     * @param edges Supplies the edges of the matrix; only called by the "auto" and "johnson" kernels.
+     */
+    public static void solve(double[][] graph, int[][] next, Supplier<CsrGraph> edges) {
+        String kernel = NavigationConfig.get("navigation.kernel", "auto").toLowerCase();
+        CsrGraph sparse = null;
+        if (kernel.equals("auto") || kernel.equals("johnson")) {
+            sparse = edges.get();
+        }
+        if (kernel.equals("auto")) {
+            int n = graph.length;
+            double density = n > 1 ? (double) sparse.edgeCount() / ((double) n * (n - 1)) : 1.0;
+            double threshold = NavigationConfig.getDouble("navigation.kernel.johnsonDensity", 0.05);
+            kernel = density <= threshold ? "johnson" : "parallel-blocked";
+        }
+
+        switch (kernel) {
+            case "blocked":
+                BlockedFloydWarshall.floydWarshall(graph, next, tileSize());
+                break;
+            case "parallel":
+                parallel().floydWarshall(graph, next);
+                break;
+            case "parallel-blocked":
+                parallel().floydWarshall(graph, next, tileSize());
+                break;
+            case "johnson":
+                johnson().solve(sparse, graph, next);
+                break;
+            case "classic":
+                FloydWarshall.floydWarshall(graph, next);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown navigation.kernel: " + kernel);
+        }
+    }
+
+    private static int tileSize() {
+        return NavigationConfig.getInt("navigation.kernel.tileSize", BlockedFloydWarshall.DEFAULT_TILE_SIZE);
+    }
+
+    /**
+     * Returns the pool shared by the parallel kernels, creating it on first use.
+     * A {@code navigation.kernel.parallelism} of 0 uses every available core.
+     */
+    static synchronized ForkJoinPool pool() {
+        if (pool == null) {
+            int parallelism = NavigationConfig.getInt("navigation.kernel.parallelism", 0);
+            if (parallelism <= 0) {
+                parallelism = Runtime.getRuntime().availableProcessors();
+            }
+            pool = new ForkJoinPool(parallelism);
+        }
+        return pool;
+    }
+
+    static synchronized ParallelFloydWarshall parallel() {
+        if (parallel == null) {
+            parallel = new ParallelFloydWarshall(pool());
+        }
+        return parallel;
+    }
+
+    static synchronized JohnsonAllPairs johnson() {
+        if (johnson == null) {
+            johnson = new JohnsonAllPairs(pool());
+        }
+        return johnson;
+    }
+}
@@ -0,0 +1,128 @@
+package com.solvd.algoritms;
+
+/**
+ * Cache-blocked Floyd-Warshall kernel working on flat row-major arrays.
+ * The matrix is split into square tiles and every round runs the usual three phases:
+ * the diagonal tile, then the tiles in its row and column, then all remaining tiles.
+ * A round only touches a handful of tiles at a time, so they stay in cache.
+ * <p>
+ * The shortest distances are the same as the classic kernel's, except for rounding where
+ * a distance is summed in a different order; ties between equally long paths may pick a different next hop.
+ */
+public final class BlockedFloydWarshall {
+    private static final double INF = Double.MAX_VALUE;
+
+    public static final int DEFAULT_TILE_SIZE = 64;
+
+    private BlockedFloydWarshall() {
+    }
+
+    /**
+     * Drop-in replacement for {@link FloydWarshall#floydWarshall(double[][], int[][])}.
+     * Copies the matrices into flat arrays, runs the blocked kernel and copies the results back.
+     *
+     * @param graph    The adjacency matrix representing the graph.
+     * @param next     The matrix to store the next vertex in the shortest path.
+     * @param tileSize The edge length of a tile.
+     */
+    public static void floydWarshall(double[][] graph, int[][] next, int tileSize) {
+        int n = graph.length;
+        double[] dist = flatten(graph);
+        int[] flatNext = new int[n * n];
+
+        floydWarshall(dist, flatNext, n, tileSize);
+
+        unflatten(dist, flatNext, graph, next);
+    }
+
+    /**
+     * Runs the blocked kernel on flat row-major matrices, where element (i, j) is stored at {@code i * n + j}.
+     *
+     * @param dist     The adjacency matrix, replaced by the shortest distances.
+     * @param next     The array to store the next vertex in the shortest path.
+     * @param n        The number of vertices.
+     * @param tileSize The edge length of a tile.
+     */
+    public static void floydWarshall(double[] dist, int[] next, int n, int tileSize) {
+        if (tileSize <= 0) {
+            throw new IllegalArgumentException("Tile size must be positive: " + tileSize);
+        }
+        for (int i = 0; i < n; i++) {
+            int row = i * n;
+            for (int j = 0; j < n; j++) {
+                next[row + j] = (dist[row + j] != INF && i != j) ? j : -1;
+            }
+        }
+
+        int blocks = (n + tileSize - 1) / tileSize;
+        for (int b = 0; b < blocks; b++) {
+            int kStart = b * tileSize;
+            int kEnd = Math.min(n, kStart + tileSize);
+
+            // Phase 1: the diagonal tile depends only on itself
+            relax(dist, next, n, kStart, kEnd, kStart, kEnd, kStart, kEnd);
+
+            // Phase 2: tiles sharing a row or a column with the diagonal tile
+            for (int c = 0; c < blocks; c++) {
+                if (c == b) continue;
+                int cStart = c * tileSize;
+                int cEnd = Math.min(n, cStart + tileSize);
+                relax(dist, next, n, kStart, kEnd, kStart, kEnd, cStart, cEnd);
+                relax(dist, next, n, kStart, kEnd, cStart, cEnd, kStart, kEnd);
+            }
+
+            // Phase 3: every other tile, using the row and column tiles finished in phase 2
+            for (int r = 0; r < blocks; r++) {
+                if (r == b) continue;
+                int rStart = r * tileSize;
+                int rEnd = Math.min(n, rStart + tileSize);
+                for (int c = 0; c < blocks; c++) {
+                    if (c == b) continue;
+                    int cStart = c * tileSize;
+                    int cEnd = Math.min(n, cStart + tileSize);
+                    relax(dist, next, n, kStart, kEnd, rStart, rEnd, cStart, cEnd);
+                }
+            }
+        }
+    }
+
+    static double[] flatten(double[][] graph) {
+        int n = graph.length;
+        double[] dist = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(graph[i], 0, dist, i * n, n);
+        }
+        return dist;
+    }
+
+    static void unflatten(double[] dist, int[] flatNext, double[][] graph, int[][] next) {
+        int n = graph.length;
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(dist, i * n, graph[i], 0, n);
+            System.arraycopy(flatNext, i * n, next[i], 0, n);
+        }
+    }
+
+    /**
+     * Relaxes the tile [iStart, iEnd) x [jStart, jEnd) through every intermediate vertex in [kStart, kEnd).
+     */
+    static void relax(double[] dist, int[] next, int n,
+                              int kStart, int kEnd, int iStart, int iEnd, int jStart, int jEnd) {
+        for (int k = kStart; k < kEnd; k++) {
+            int rowK = k * n;
+            for (int i = iStart; i < iEnd; i++) {
+                int rowI = i * n;
+                double dik = dist[rowI + k];
+                if (dik == INF) continue;
+                int nextIK = next[rowI + k];
+                for (int j = jStart; j < jEnd; j++) {
+                    double dkj = dist[rowK + j];
+                    if (dkj != INF && dik + dkj < dist[rowI + j]) {
+                        dist[rowI + j] = dik + dkj;
+                        next[rowI + j] = nextIK;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.solvd.algoritms;
+
+import com.solvd.utils.BusGraph;
+import com.solvd.utils.BusVertex;
+import com.solvd.utils.CsrGraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Bus route search whose cost is the tuple (transfers, stations, distance), compared lexicographically.
+ * A single Dijkstra run starts from every color vertex of the start station at once (a virtual super-source)
+ * and stops at the first color vertex of the end station it settles (a virtual super-sink),
+ * so the route with the fewest transfers is found even when a shorter one needs more of them.
+ */
+public final class BusRouteSearch {
+    private static final double INF = Double.MAX_VALUE;
+    private static final String TRANSFER = "TRANSFER";
+
+    private BusRouteSearch() {
+    }
+
+    private static class Label implements Comparable<Label> {
+        final int vertex;
+        final int transfers;
+        final int stations;
+        final double distance;
+
+        Label(int vertex, int transfers, int stations, double distance) {
+            this.vertex = vertex;
+            this.transfers = transfers;
+            this.stations = stations;
+            this.distance = distance;
+        }
+
+        @Override
+        public int compareTo(Label other) {
+            if (transfers != other.transfers) return Integer.compare(transfers, other.transfers);
+            if (stations != other.stations) return Integer.compare(stations, other.stations);
+            return Double.compare(distance, other.distance);
+        }
+    }
+
+    /**
+     * Finds the best bus route between two stations.
+     * Riding to another station adds one station, changing color at a station adds one transfer.
+     *
+     * @param network        The BUS network to search.
+     * @param startStationId The starting station ID.
+     * @param endStationId   The ending station ID.
+     * @return The bus graph vertices along the route, with the station's TRANSFER vertex at every color change,
+     *         and the distance ridden. An empty vertex list means no route exists.
+     */
+    public static PointToPointSearch.Path search(RoadNetwork network, int startStationId, int endStationId) {
+        return search(network, startStationId, new int[]{endStationId})[0];
+    }
+
+    /**
+     * Finds the best bus routes from one station to several with a single search, which runs until
+     * every end station is settled. Up to the moment an end station is settled the search makes the same
+     * steps as {@link #search(RoadNetwork, int, int)} for that pair, so it returns the same route.
+     *
+     * @param network        The BUS network to search.
+     * @param startStationId The starting station ID.
+     * @param endStationIds  The ending station IDs, duplicates allowed.
+     * @return The route to every end station, in the order given, as described for the single-pair search.
+     */
+    public static PointToPointSearch.Path[] search(RoadNetwork network, int startStationId, int[] endStationIds) {
+        BusGraph bg = network.getBusGraph();
+        PointToPointSearch.Path[] paths = new PointToPointSearch.Path[endStationIds.length];
+        List<Integer> startVertices = bg.getStationToVertices().get(startStationId);
+
+        List<BusVertex> vertices = bg.getVertices();
+        CsrGraph graph = network.getForward();
+        int n = graph.size();
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        double[] weights = graph.getWeights();
+        boolean[] isTransfer = new boolean[n];
+        // The first position of the vertex's station in endStationIds, or -1
+        int[] endOf = new int[n];
+        int remaining = 0;
+        Arrays.fill(endOf, -1);
+        for (int v = 0; v < n; v++) {
+            isTransfer[v] = TRANSFER.equals(vertices.get(v).getLabel());
+        }
+        for (int i = 0; i < endStationIds.length; i++) {
+            List<Integer> endVertices = bg.getStationToVertices().get(endStationIds[i]);
+            if (startVertices == null || endVertices == null || endVertices.isEmpty()) {
+                paths[i] = new PointToPointSearch.Path(new ArrayList<>(), INF);
+            } else if (endOf[endVertices.get(0)] == -1) {
+                for (int v : endVertices) {
+                    endOf[v] = i;
+                }
+                remaining++;
+            }
+        }
+
+        Label[] best = new Label[n];
+        int[] parent = new int[n];
+        boolean[] settled = new boolean[n];
+        int[] reached = new int[endStationIds.length];
+        Arrays.fill(parent, -1);
+        Arrays.fill(reached, -1);
+        PriorityQueue<Label> queue = new PriorityQueue<>();
+        if (remaining > 0) {
+            for (int v : startVertices) {
+                best[v] = new Label(v, 0, 1, 0.0);
+                queue.add(best[v]);
+            }
+        }
+
+        while (remaining > 0 && !queue.isEmpty()) {
+            Label label = queue.poll();
+            int u = label.vertex;
+            if (settled[u] || label != best[u]) continue;
+            settled[u] = true;
+            if (endOf[u] != -1) {
+                if (reached[endOf[u]] == -1) {
+                    reached[endOf[u]] = u;
+                    remaining--;
+                }
+                // A single-pair search stops here, so going on from an end station must not change the others
+                if (remaining == 0) {
+                    break;
+                }
+            }
+
+            int stationId = vertices.get(u).getStationId();
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = targets[e];
+                if (isTransfer[v] || v == u) continue;
+                int stations = label.stations + (vertices.get(v).getStationId() != stationId ? 1 : 0);
+                relax(queue, best, parent, settled, new Label(v, label.transfers, stations, label.distance + weights[e]), u);
+            }
+            // Changing color goes through the station's TRANSFER vertex, which is free apart from the transfer itself
+            for (int v : bg.getStationToVertices().get(stationId)) {
+                if (v != u) {
+                    relax(queue, best, parent, settled, new Label(v, label.transfers + 1, label.stations, label.distance), u);
+                }
+            }
+        }
+
+        for (int i = 0; i < endStationIds.length; i++) {
+            if (paths[i] != null) {
+                continue;
+            }
+            int first = endOf[bg.getStationToVertices().get(endStationIds[i]).get(0)];
+            paths[i] = first != i ? paths[first] : path(bg, best, parent, reached[i]);
+        }
+        return paths;
+    }
+
+    /**
+     * Walks the parents back from a settled end vertex, which never change once a vertex is settled.
+     */
+    private static PointToPointSearch.Path path(BusGraph bg, Label[] best, int[] parent, int reached) {
+        if (reached == -1) {
+            return new PointToPointSearch.Path(new ArrayList<>(), INF);
+        }
+        List<BusVertex> vertices = bg.getVertices();
+        List<Integer> path = new ArrayList<>();
+        for (int v = reached; v != -1; v = parent[v]) {
+            path.add(v);
+            int p = parent[v];
+            if (p != -1 && vertices.get(p).getStationId() == vertices.get(v).getStationId()) {
+                path.add(bg.getVertexToIndex().get(vertices.get(v).getStationId() + "_" + TRANSFER));
+            }
+        }
+        Collections.reverse(path);
+        return new PointToPointSearch.Path(path, best[reached].distance);
+    }
+
+    private static void relax(PriorityQueue<Label> queue, Label[] best, int[] parent, boolean[] settled,
+                              Label candidate, int from) {
+        int v = candidate.vertex;
+        if (!settled[v] && (best[v] == null || candidate.compareTo(best[v]) < 0)) {
+            best[v] = candidate;
+            parent[v] = from;
+            queue.add(candidate);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.solvd.algoritms;
+
+import java.util.Arrays;
+
+/**
+ * Updates an already solved distance/next pair after a change to a single edge,
+ * without rerunning the full O(n³) kernel.
+ */
+public final class DynamicFloydWarshall {
+    private static final double INF = Double.MAX_VALUE;
+
+    private DynamicFloydWarshall() {
+    }
+
+    /**
+     * Applies the insertion of edge (u, v), or the lowering of its weight, in O(n²).
+     * A pair (i, j) can only improve by going i -> u -> v -> j, and neither dist[i][u] nor dist[v][j]
+     * can change through the new edge itself, so every pair is relaxed once in place.
+     *
+     * @param dist   The solved shortest distances, updated in place.
+     * @param next   The solved next matrix, updated in place.
+     * @param u      The tail of the edge.
+     * @param v      The head of the edge.
+     * @param weight The new weight of the edge.
+     * @return {@code true} if any shortest path changed.
+     */
+    public static boolean decreaseEdge(double[][] dist, int[][] next, int u, int v, double weight) {
+        if (u == v || weight >= dist[u][v]) {
+            return false;
+        }
+        int n = dist.length;
+        double[] rowV = dist[v];
+        boolean changed = false;
+        for (int i = 0; i < n; i++) {
+            double diu = dist[i][u];
+            if (diu == INF) continue;
+            double viaEdge = diu + weight;
+            double[] rowI = dist[i];
+            int[] nextI = next[i];
+            int firstHop = (i == u) ? v : nextI[u];
+            for (int j = 0; j < n; j++) {
+                double dvj = rowV[j];
+                if (dvj != INF && viaEdge + dvj < rowI[j]) {
+                    rowI[j] = viaEdge + dvj;
+                    nextI[j] = firstHop;
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Repairs the solution after edge (u, v) was removed or made more expensive.
+     * Distances can only grow, so a pair is affected only if its stored path used the edge.
+     * For every target j those pairs are exactly the sources whose next-hop chain towards j passes u
+     * while next[u][j] == v. Only they are recomputed, by a Dijkstra over the affected sources seeded
+     * with the untouched distances of their neighbours.
+     *
+     * @param adjacency        The direct edge weights, already holding the new weight of (u, v).
+     * @param dist             The solved shortest distances, updated in place.
+     * @param next             The solved next matrix, updated in place.
+     * @param u                The tail of the edge.
+     * @param v                The head of the edge.
+     * @param maxAffectedPairs The largest number of affected pairs worth repairing.
+     * @return {@code false} if more pairs are affected than allowed; the matrices are then left untouched
+     *         and the caller should solve the graph from scratch.
+     */
+    public static boolean increaseEdge(double[][] adjacency, double[][] dist, int[][] next,
+                                       int u, int v, long maxAffectedPairs) {
+        int n = dist.length;
+        if (u == v) {
+            return true;
+        }
+
+        // state[i]: 0 = not visited yet, 1 = path to j goes through (u, v), 2 = path is unaffected
+        byte[] state = new byte[n];
+        int[] chain = new int[n];
+        int[] members = new int[n];
+        int[][] affected = new int[n][];
+        long affectedPairs = 0;
+        for (int j = 0; j < n; j++) {
+            if (next[u][j] != v) continue;
+            Arrays.fill(state, (byte) 0);
+            state[j] = 2;
+            state[u] = 1;
+            int count = 0;
+            for (int i = 0; i < n; i++) {
+                int length = 0;
+                int x = i;
+                while (state[x] == 0) {
+                    if (next[x][j] == -1) {
+                        state[x] = 2;
+                        break;
+                    }
+                    chain[length++] = x;
+                    x = next[x][j];
+                }
+                byte result = state[x];
+                for (int c = 0; c < length; c++) {
+                    state[chain[c]] = result;
+                }
+                if (state[i] == 1) {
+                    members[count++] = i;
+                }
+            }
+            affected[j] = Arrays.copyOf(members, count);
+            affectedPairs += count;
+            if (affectedPairs > maxAffectedPairs) {
+                return false;
+            }
+        }
+
+        boolean[] inSet = new boolean[n];
+        for (int j = 0; j < n; j++) {
+            if (affected[j] != null) {
+                repairTarget(adjacency, dist, next, j, affected[j], inSet);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Recomputes dist[a][j] and next[a][j] for the affected sources a of target j.
+     */
+    private static void repairTarget(double[][] adjacency, double[][] dist, int[][] next,
+                                     int j, int[] members, boolean[] inSet) {
+        int n = dist.length;
+        int m = members.length;
+        for (int a : members) {
+            inSet[a] = true;
+        }
+
+        // Best path leaving the affected set right away: a -> x, then x's unchanged path to j
+        double[] best = new double[m];
+        int[] hop = new int[m];
+        for (int p = 0; p < m; p++) {
+            int a = members[p];
+            double[] rowA = adjacency[a];
+            best[p] = INF;
+            hop[p] = -1;
+            for (int x = 0; x < n; x++) {
+                if (inSet[x] || x == a) continue;
+                double w = rowA[x];
+                double dxj = dist[x][j];
+                if (w != INF && dxj != INF && w + dxj < best[p]) {
+                    best[p] = w + dxj;
+                    hop[p] = x;
+                }
+            }
+        }
+
+        // Dijkstra inside the affected set, settling the closest remaining source each round
+        boolean[] settled = new boolean[m];
+        for (int round = 0; round < m; round++) {
+            int p = -1;
+            for (int q = 0; q < m; q++) {
+                if (!settled[q] && (p == -1 || best[q] < best[p])) {
+                    p = q;
+                }
+            }
+            settled[p] = true;
+            int a = members[p];
+            dist[a][j] = best[p];
+            next[a][j] = hop[p];
+            if (best[p] == INF) continue;
+            for (int q = 0; q < m; q++) {
+                if (settled[q]) continue;
+                double w = adjacency[members[q]][a];
+                if (w != INF && w + best[p] < best[q]) {
+                    best[q] = w + best[p];
+                    hop[q] = a;
+                }
+            }
+        }
+
+        for (int a : members) {
+            inSet[a] = false;
+        }
+    }
+}
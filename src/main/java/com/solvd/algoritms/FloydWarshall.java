@@ -1,15 +1,24 @@
 package com.solvd.algoritms;
 
-import com.solvd.models.Station;
+import com.solvd.config.NavigationConfig;
+import com.solvd.metrics.RoutingMetrics;
 import com.solvd.utils.BusGraph;
 import com.solvd.utils.BusVertex;
+import com.solvd.utils.CsrGraph;
 import com.solvd.utils.GraphManager;
+import com.solvd.utils.StationRegistry;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
 
 public class FloydWarshall {
     private static final double INF = Double.MAX_VALUE;
+    private static final ThreadLocal<int[]> PATH_BUFFER = ThreadLocal.withInitial(() -> new int[64]);
 
     /**
      * Implements the Floyd-Warshall algorithm to find the shortest paths between all pairs of vertices.
@@ -42,52 +51,167 @@ public class FloydWarshall {
      *
      * @param startIdx The starting vertex index.
      * @param endIdx   The ending vertex index.
-     * @param next     The next matrix from Floyd-Warshall.
-     * @return A list of vertex indices representing the shortest path.
+     * @param table    The all-pairs solution holding the next hops.
+     * @param path     Receives the vertex indices of the path; at least {@code table.size()} long.
+     * @return The number of vertices written to path, 0 if there is no path.
      */
-    private static List<Integer> getPath(int startIdx, int endIdx, int[][] next) {
-        List<Integer> path = new ArrayList<>();
-        if (next[startIdx][endIdx] == -1) return path;
-        path.add(startIdx);
+    private static int getPath(int startIdx, int endIdx, ShortestPathTable table, int[] path) {
+        long start = System.nanoTime();
+        if (table.next(startIdx, endIdx) == -1) return 0;
+        int length = 0;
+        path[length++] = startIdx;
         while (startIdx != endIdx) {
-            startIdx = next[startIdx][endIdx];
-            path.add(startIdx);
+            if (length == path.length) {
+                throw new IllegalStateException("The next hops from " + path[0] + " to " + endIdx + " form a cycle");
+            }
+            startIdx = table.next(startIdx, endIdx);
+            path[length++] = startIdx;
         }
-        return path;
+        RoutingMetrics.record(RoutingMetrics.Stage.PATH_RECONSTRUCTION, start);
+        return length;
     }
 
     /**
-     * Represents a route with station IDs and details (e.g., bus color or "BY CAR").
+     * Returns the calling thread's path buffer, grown to at least the given size.
+     * Reusing it means reconstructing a path allocates nothing.
      */
-    public static class Route {
-        public List<Integer> stationIds;
-        public List<String> details;
-        public String startName;
-        public String endName;
-        public double totalDistance;
+    private static int[] pathBuffer(int size) {
+        int[] buffer = PATH_BUFFER.get();
+        if (buffer.length < size) {
+            buffer = new int[size];
+            PATH_BUFFER.set(buffer);
+        }
+        return buffer;
+    }
+
+    /**
+     * Length of the edge between two consecutive vertices of a path.
+     */
+    private interface HopLength {
+        double between(int from, int to);
+    }
 
+    /**
+     * Represents a route: the stations passed, the distance between each of them and, for BUS,
+     * where a bus color is boarded or left at a transfer.
+     * Everything is kept as primitive arrays; station names and the text of the details are only looked up
+     * when the route is printed or {@link #getDetails()} is called.
+     */
+    public static class Route {
+        private static final StationRegistry NO_STATIONS = StationRegistry.of(List.of());
+
+        private final StationRegistry stations;
+        private final int[] stationIds;
+        // Index of every station in the registry, for looking up its name
+        private final int[] stationIndices;
+        private final double[] segmentDistances;
+        private final double totalDistance;
+        // BUS only, one entry per boarding or transfer: the color, and the route position of the station
+        // where it is boarded, or -1 for leaving it at a transfer
+        private final String[] legColors;
+        private final int[] legStations;
+
+        /**
+         * An empty route, meaning that no path was found.
+         */
         public Route() {
-            this.stationIds = new ArrayList<>();
-            this.details = new ArrayList<>();
-            this.startName = "";
-            this.endName = "";
-            this.totalDistance = 0.0;
+            this(NO_STATIONS, new int[0], new int[0], new double[0], 0.0, null, null);
+        }
+
+        private Route(StationRegistry stations, int[] stationIds, int[] stationIndices, double[] segmentDistances,
+                      double totalDistance, String[] legColors, int[] legStations) {
+            this.stations = stations;
+            this.stationIds = stationIds;
+            this.stationIndices = stationIndices;
+            this.segmentDistances = segmentDistances;
+            this.totalDistance = totalDistance;
+            this.legColors = legColors;
+            this.legStations = legStations;
+        }
+
+        public boolean isEmpty() {
+            return stationIds.length == 0;
+        }
+
+        /**
+         * @return The IDs of the stations along the route, each station once per visit.
+         */
+        public int[] getStationIds() {
+            return stationIds.clone();
+        }
+
+        /**
+         * @return The distance from every station of the route to the next one.
+         */
+        public double[] getSegmentDistances() {
+            return segmentDistances.clone();
+        }
+
+        public double getTotalDistance() {
+            return totalDistance;
+        }
+
+        public String getStartName() {
+            return isEmpty() ? "" : name(0);
+        }
+
+        public String getEndName() {
+            return isEmpty() ? "" : name(stationIds.length - 1);
+        }
+
+        /**
+         * @return The steps of the route as text, e.g. "StationA (BY CAR)" or "Transfer from GREEN".
+         */
+        public List<String> getDetails() {
+            List<String> details = new ArrayList<>();
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < detailCount(); i++) {
+                sb.setLength(0);
+                appendDetail(sb, i);
+                details.add(sb.toString());
+            }
+            return details;
+        }
+
+        private int detailCount() {
+            if (isEmpty()) {
+                return 0;
+            }
+            // BUS routes end with "ride until" the last station
+            return legColors == null ? stationIds.length : legColors.length + 1;
+        }
+
+        private void appendDetail(StringBuilder sb, int i) {
+            if (legColors == null) {
+                sb.append(name(i)).append(" (BY CAR)");
+            } else if (i == legColors.length) {
+                sb.append("ride until ").append(getEndName());
+            } else if (legStations[i] == -1) {
+                sb.append("Transfer from ").append(legColors[i]);
+            } else {
+                sb.append("At station ").append(name(legStations[i])).append(" get into BUS COLOR: ").append(legColors[i]);
+            }
+        }
+
+        private String name(int position) {
+            return stations.name(stationIndices[position]);
         }
 
         @Override
         public String toString() {
-            if (stationIds.isEmpty()) {
+            if (isEmpty()) {
                 return "No path found.";
             }
             StringBuilder sb = new StringBuilder();
             sb.append("Shortest path from station ")
-                    .append(startName)
+                    .append(getStartName())
                     .append(" to station ")
-                    .append(endName)
+                    .append(getEndName())
                     .append(":\nRoute: ");
-            for (int i = 0; i < details.size(); i++) {
-                sb.append(details.get(i));
-                if (i < details.size() - 1) {
+            int details = detailCount();
+            for (int i = 0; i < details; i++) {
+                appendDetail(sb, i);
+                if (i < details - 1) {
                     sb.append(" -> ");
                 }
             }
@@ -97,8 +221,52 @@ public class FloydWarshall {
         }
     }
 
+    /**
+     * One route request of a batch.
+     */
+    public static class RouteQuery {
+        private final int startStationId;
+        private final int endStationId;
+        private final String mode;
+
+        /**
+         * @param startStationId The starting station ID.
+         * @param endStationId   The ending station ID.
+         * @param mode           The mode of transportation ("CAR" or "BUS").
+         */
+        public RouteQuery(int startStationId, int endStationId, String mode) {
+            this.startStationId = startStationId;
+            this.endStationId = endStationId;
+            this.mode = mode.toUpperCase();
+        }
+
+        public int getStartStationId() {
+            return startStationId;
+        }
+
+        public int getEndStationId() {
+            return endStationId;
+        }
+
+        public String getMode() {
+            return mode;
+        }
+
+        @Override
+        public String toString() {
+            return startStationId + " -> " + endStationId + " (" + mode + ")";
+        }
+    }
+
     /**
      * Computes the navigation route from startStationId to endStationId using the specified mode.
+     * CAR routes use the engine set by {@code navigation.engine}: the cached all-pairs solution
+     * ("floyd-warshall"), a single-pair search ("astar", "bidirectional"), or "auto", which uses the
+     * all-pairs solution when it is already up to date (or a matching snapshot exists) and A* otherwise.
+     * BUS routes minimize transfers, then stations, then distance. {@code navigation.bus.engine} selects
+     * a single lexicographic search ("lexicographic") or picking the best color pair of the cached
+     * all-pairs solution ("floyd-warshall"), which only minimizes distance between each pair.
+     * The call and its stages are timed in {@link RoutingMetrics}.
      *
      * @param startStationId The starting station ID.
      * @param endStationId   The ending station ID.
@@ -106,206 +274,539 @@ public class FloydWarshall {
      * @return A Route object containing the path and details.
      */
     public static Route computeNavigation(int startStationId, int endStationId, String mode) {
-        GraphManager gm = new GraphManager();
-        Route route = new Route();
+        long start = System.nanoTime();
+        try {
+            return navigate(startStationId, endStationId, mode);
+        } finally {
+            RoutingMetrics.record(RoutingMetrics.Stage.QUERY, start);
+        }
+    }
 
+    private static Route navigate(int startStationId, int endStationId, String mode) {
         if (mode.equalsIgnoreCase("BUS")) {
-            BusGraph bg = gm.buildBusGraph();
-            double[][] graph = bg.getMatrix();
-            int n = graph.length;
-            int[][] next = new int[n][n];
+            if (busEngine().equals("lexicographic")) {
+                return lexicographicRoute(RouteCache.network(mode), startStationId, endStationId);
+            }
+            SolvedGraph solved = RouteCache.get(mode);
+            return allPairsBusRoute(solved, solved.getBusGraph(), startStationId, endStationId);
+        }
+        String engine = carEngine();
+        if (engine.equals("auto")) {
+            engine = RouteCache.peek(mode) != null ? "floyd-warshall" : "astar";
+        }
+        if (!engine.equals("floyd-warshall")) {
+            return computePointToPoint(RouteCache.network(mode), startStationId, endStationId, engine);
+        }
+        return allPairsCarRoute(RouteCache.table(mode), startStationId, endStationId);
+    }
 
-            floydWarshall(graph, next);
+    /**
+     * Computes a route from an immutable snapshot instead of the route cache, so it never waits for a solve.
+     * The engines are picked as in {@link #computeNavigation(int, int, String)}, except that "auto"
+     * uses the snapshot's all-pairs solution whenever it has one. A snapshot without a solution is searched
+     * with the single-pair engines: the lexicographic search for BUS, A* (or the configured search) for CAR.
+     *
+     * @param snapshot       The solved graph of the mode to route in.
+     * @param startStationId The starting station ID.
+     * @param endStationId   The ending station ID.
+     * @return A Route object containing the path and details.
+     */
+    public static Route computeNavigation(RoutingSnapshot snapshot, int startStationId, int endStationId) {
+        long start = System.nanoTime();
+        try {
+            if (snapshot.getMode().equalsIgnoreCase("BUS")) {
+                if (busEngine().equals("lexicographic") || !snapshot.isSolved()) {
+                    return lexicographicRoute(snapshot.getNetwork(), startStationId, endStationId);
+                }
+                return allPairsBusRoute(snapshot, snapshot.getBusGraph(), startStationId, endStationId);
+            }
+            String engine = carEngine();
+            if ((engine.equals("floyd-warshall") || engine.equals("auto")) && snapshot.isSolved()) {
+                return allPairsCarRoute(snapshot, startStationId, endStationId);
+            }
+            return computePointToPoint(snapshot.getNetwork(), startStationId, endStationId, searchEngine(engine));
+        } finally {
+            RoutingMetrics.record(RoutingMetrics.Stage.QUERY, start);
+        }
+    }
 
-            List<Integer> startVertices = bg.getStationToVertices().get(startStationId);
-            List<Integer> endVertices = bg.getStationToVertices().get(endStationId);
+    /**
+     * Computes the routes of many queries, solving every mode once and sharing the solution between them.
+     *
+     * @param queries The queries, in any mix of modes.
+     * @return The route of every query, in the order of the queries.
+     * @see #computeNavigationBatch(List, ObjIntConsumer)
+     */
+    public static List<Route> computeNavigationBatch(List<RouteQuery> queries) {
+        Route[] routes = new Route[queries.size()];
+        computeNavigationBatch(queries, (route, index) -> routes[index] = route);
+        return Arrays.asList(routes);
+    }
 
-            if (startVertices == null || endVertices == null) {
-                return route;
-            }
+    /**
+     * Computes the routes of many queries and hands each to the consumer as soon as it is done.
+     * Every mode is solved once up front, then the paths are reconstructed in parallel on the kernels' pool,
+     * so the consumer is called from several threads at once. Queries for the same pair are answered once.
+     * BUS queries from the same station share one lexicographic search, which runs until all of their end
+     * stations are reached. The engines are picked as in {@link #computeNavigation(int, int, String)},
+     * except that "auto" always uses the all-pairs solution, which pays off for a batch. Modes solved
+     * all-pairs are copied into a {@link RoutingSnapshot}, so writes during the batch do not affect it.
+     * The first query that fails aborts the batch with its exception.
+     *
+     * @param queries The queries, in any mix of modes.
+     * @param onRoute Called with every route and the index of its query; must be thread-safe.
+     */
+    public static void computeNavigationBatch(List<RouteQuery> queries, ObjIntConsumer<Route> onRoute) {
+        batch(queries, RouteCache::solvedSnapshot, RouteCache::network, onRoute, FloydWarshall::rethrow);
+    }
 
-            double minDist = INF;
-            int bestStartIdx = -1;
-            int bestEndIdx = -1;
-            int minTransfers = Integer.MAX_VALUE;
-            int minStations = Integer.MAX_VALUE;
-
-//            System.out.println("Debugging BUS path options:");
-            for (int sIdx : startVertices) {
-                for (int eIdx : endVertices) {
-                    if (graph[sIdx][eIdx] < INF) {
-                        List<Integer> path = getPath(sIdx, eIdx, next);
-                        int stationCount = countUniqueStations(path, bg.getVertices());
-                        int transferCount = countTransfers(path, bg.getVertices());
-                        double dist = graph[sIdx][eIdx];
-//                        System.out.printf("Path from %s to %s: stations=%d, transfers=%d, dist=%.2f\n",
-//                                bg.getVertices().get(sIdx).getLabel(),
-//                                bg.getVertices().get(eIdx).getLabel(),
-//                                stationCount, transferCount, dist);
-
-                        if (transferCount < minTransfers
-                                || (transferCount == minTransfers && stationCount < minStations)
-                                || (transferCount == minTransfers && stationCount == minStations && dist < minDist)) {
-                            minDist      = dist;
-                            bestStartIdx = sIdx;
-                            bestEndIdx   = eIdx;
-                            minTransfers = transferCount;
-                            minStations  = stationCount;
-                        }
+    /**
+     * Computes the routes of many queries as {@link #computeNavigationBatch(List, ObjIntConsumer)} does,
+     * but from the given snapshots and networks instead of the route cache. Snapshots are only asked for
+     * by the all-pairs engines; "auto" searches the network of a snapshot that has no solution.
+     *
+     * @param snapshots Returns the snapshot of a mode ("CAR" or "BUS").
+     * @param networks  Returns the network of a mode, for the single-pair engines; must not solve it.
+     * @param queries   The queries, in any mix of modes.
+     * @param onRoute   Called with every route and the index of its query; must be thread-safe.
+     */
+    public static void computeNavigationBatch(Function<String, RoutingSnapshot> snapshots,
+                                              Function<String, RoadNetwork> networks, List<RouteQuery> queries,
+                                              ObjIntConsumer<Route> onRoute) {
+        computeNavigationBatch(snapshots, networks, queries, onRoute, FloydWarshall::rethrow);
+    }
+
+    /**
+     * Computes the routes of many queries from the given snapshots and networks, handing a query that fails to
+     * {@code onError} instead of aborting the batch. Every query gets exactly one call, to either consumer.
+     *
+     * @param snapshots Returns the snapshot of a mode ("CAR" or "BUS").
+     * @param networks  Returns the network of a mode, for the single-pair engines; must not solve it.
+     * @param queries   The queries, in any mix of modes.
+     * @param onRoute   Called with every route and the index of its query; must be thread-safe.
+     * @param onError   Called with the exception of every failed query and its index; must be thread-safe.
+     */
+    public static void computeNavigationBatch(Function<String, RoutingSnapshot> snapshots,
+                                              Function<String, RoadNetwork> networks, List<RouteQuery> queries,
+                                              ObjIntConsumer<Route> onRoute,
+                                              ObjIntConsumer<RuntimeException> onError) {
+        batch(queries, snapshots, networks, onRoute, onError);
+    }
+
+    private static void batch(List<RouteQuery> queries, Function<String, RoutingSnapshot> snapshots,
+                              Function<String, RoadNetwork> networks, ObjIntConsumer<Route> onRoute,
+                              ObjIntConsumer<RuntimeException> onError) {
+        // mode -> start station -> end station -> indices of the queries
+        Map<String, Map<Integer, Map<Integer, List<Integer>>>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < queries.size(); i++) {
+            RouteQuery query = queries.get(i);
+            groups.computeIfAbsent(query.getMode(), mode -> new LinkedHashMap<>())
+                    .computeIfAbsent(query.getStartStationId(), start -> new LinkedHashMap<>())
+                    .computeIfAbsent(query.getEndStationId(), end -> new ArrayList<>())
+                    .add(i);
+        }
+
+        List<Runnable> tasks = new ArrayList<>();
+        for (Map.Entry<String, Map<Integer, Map<Integer, List<Integer>>>> byMode : groups.entrySet()) {
+            String mode = byMode.getKey();
+            boolean bus = mode.equals("BUS");
+            RoutingSnapshot snapshot;
+            RoadNetwork network;
+            String engine;
+            try {
+                String configured = bus ? busEngine() : carEngine();
+                boolean allPairs = configured.equals("floyd-warshall") || configured.equals("auto");
+                // Solved here, once per mode, before any path is reconstructed
+                RoutingSnapshot solved = allPairs ? snapshots.apply(mode) : null;
+                // A snapshot without a solution is searched like the network of a single-pair engine
+                snapshot = solved != null && solved.isSolved() ? solved : null;
+                network = snapshot != null ? null : solved != null ? solved.getNetwork() : networks.apply(mode);
+                engine = searchEngine(configured);
+            } catch (RuntimeException e) {
+                for (Map<Integer, List<Integer>> byEnd : byMode.getValue().values()) {
+                    for (List<Integer> indices : byEnd.values()) {
+                        fail(e, indices, onError);
                     }
                 }
+                continue;
             }
 
-            if (minDist == INF) {
-                return route;
+            for (Map.Entry<Integer, Map<Integer, List<Integer>>> byStart : byMode.getValue().entrySet()) {
+                int startStationId = byStart.getKey();
+                Map<Integer, List<Integer>> byEnd = byStart.getValue();
+                if (bus && snapshot == null) {
+                    tasks.add(() -> {
+                        int[] endStationIds = byEnd.keySet().stream().mapToInt(Integer::intValue).toArray();
+                        Route[] routes = new Route[endStationIds.length];
+                        try {
+                            long start = System.nanoTime();
+                            PointToPointSearch.Path[] paths = BusRouteSearch.search(network, startStationId, endStationIds);
+                            RoutingMetrics.record(RoutingMetrics.Stage.SEARCH, start);
+                            for (int i = 0; i < paths.length; i++) {
+                                routes[i] = busRoute(network, paths[i]);
+                            }
+                        } catch (RuntimeException e) {
+                            for (List<Integer> indices : byEnd.values()) {
+                                fail(e, indices, onError);
+                            }
+                            return;
+                        }
+                        for (int i = 0; i < routes.length; i++) {
+                            deliver(routes[i], byEnd.get(endStationIds[i]), onRoute);
+                        }
+                    });
+                    continue;
+                }
+                for (Map.Entry<Integer, List<Integer>> byPair : byEnd.entrySet()) {
+                    int endStationId = byPair.getKey();
+                    tasks.add(() -> {
+                        Route route;
+                        try {
+                            if (snapshot == null) {
+                                route = computePointToPoint(network, startStationId, endStationId, engine);
+                            } else if (bus) {
+                                route = allPairsBusRoute(snapshot, snapshot.getBusGraph(), startStationId, endStationId);
+                            } else {
+                                route = allPairsCarRoute(snapshot, startStationId, endStationId);
+                            }
+                        } catch (RuntimeException e) {
+                            fail(e, byPair.getValue(), onError);
+                            return;
+                        }
+                        deliver(route, byPair.getValue(), onRoute);
+                    });
+                }
             }
+        }
+        RangeTask.forEach(AllPairsSolver.pool(), 0, tasks.size(), 1, i -> tasks.get(i).run());
+    }
 
-            // Reconstruct actual path
-            List<Integer> pathIndices = getPath(bestStartIdx, bestEndIdx, next);
+    private static void deliver(Route route, List<Integer> indices, ObjIntConsumer<Route> onRoute) {
+        for (int index : indices) {
+            onRoute.accept(route, index);
+        }
+    }
 
-            double totalDist = 0.0;
-            for (int i = 0; i < pathIndices.size() - 1; i++) {
-                totalDist += graph[pathIndices.get(i)][pathIndices.get(i + 1)];
-            }
-            route.totalDistance = totalDist;
+    private static void fail(RuntimeException e, List<Integer> indices, ObjIntConsumer<RuntimeException> onError) {
+        for (int index : indices) {
+            onError.accept(e, index);
+        }
+    }
+
+    private static void rethrow(RuntimeException e, int index) {
+        throw e;
+    }
 
-            String currentColor = bg.getVertices().get(bestStartIdx).getLabel();
-            route.stationIds.add(bg.getVertices().get(bestStartIdx).getStationId());
+    private static String busEngine() {
+        String engine = NavigationConfig.get("navigation.bus.engine", "lexicographic").toLowerCase();
+        if (!engine.equals("lexicographic") && !engine.equals("floyd-warshall")) {
+            throw new IllegalArgumentException("Unknown navigation.bus.engine: " + engine);
+        }
+        return engine;
+    }
 
-            // keep track of the first and last station IDs
-            int firstStId = bg.getVertices().get(bestStartIdx).getStationId();
-            int lastStId  = firstStId;
+    private static String carEngine() {
+        return NavigationConfig.get("navigation.engine", "auto").toLowerCase();
+    }
 
-            // get a name for the first station
-            String firstStationName = findStationNameById(firstStId, gm.getStations());
+    /**
+     * @return The configured engine of the mode: {@code navigation.bus.engine} for BUS, {@code navigation.engine} for CAR.
+     */
+    static String engine(String mode) {
+        return mode.equalsIgnoreCase("BUS") ? busEngine() : carEngine();
+    }
 
-            // minimal fix #1: store the station name in a variable so we can reference it
-            // if the color changes at the *previous* station
-            String lastStationName  = firstStationName;
+    /**
+     * The single-pair CAR engine answering instead of the given one when there is no all-pairs solution to read.
+     */
+    private static String searchEngine(String engine) {
+        return engine.equals("floyd-warshall") || engine.equals("auto") ? "astar" : engine;
+    }
 
-            // initial line: "At station StationD get into BUS COLOR: GREEN"
-            route.details.add("At station " + lastStationName + " get into BUS COLOR: " + currentColor);
+    /**
+     * Computes a BUS route with one search minimizing transfers, then stations, then distance.
+     */
+    private static Route lexicographicRoute(RoadNetwork network, int startStationId, int endStationId) {
+        long start = System.nanoTime();
+        PointToPointSearch.Path path = BusRouteSearch.search(network, startStationId, endStationId);
+        RoutingMetrics.record(RoutingMetrics.Stage.SEARCH, start);
+        return busRoute(network, path);
+    }
 
-            // Walk the path, skipping repeated color if label is the same
-            for (int i = 1; i < pathIndices.size(); i++) {
-                BusVertex vertex = bg.getVertices().get(pathIndices.get(i));
-                int stationId = vertex.getStationId();
-                String stationName = findStationNameById(stationId, gm.getStations());
-                lastStId = stationId;
-                String label = vertex.getLabel();
+    private static Route busRoute(RoadNetwork network, PointToPointSearch.Path path) {
+        if (path.vertices.isEmpty()) {
+            return new Route();
+        }
+        int[] vertices = toArray(path.vertices);
+        return busRoute(network.getBusGraph(), network.getGraphManager(), vertices, 0, vertices.length,
+                path.distance, network.getForward()::weight);
+    }
 
-                // if new station
-                if (route.stationIds.get(route.stationIds.size() - 1) != stationId) {
-                    route.stationIds.add(stationId);
-                }
+    /**
+     * Computes a BUS route from an all-pairs solution, picking the start and end colors whose path has
+     * the fewest transfers, then stations, then the shortest distance.
+     *
+     * @param table          The all-pairs solution of the bus graph.
+     * @param bg             The bus graph the solution's vertices belong to.
+     * @param startStationId The starting station ID.
+     * @param endStationId   The ending station ID.
+     * @return A Route object containing the path and details.
+     */
+    private static Route allPairsBusRoute(ShortestPathTable table, BusGraph bg, int startStationId, int endStationId) {
+        Route route = new Route();
+        GraphManager gm = table.getGraphManager();
+
+        List<Integer> startVertices = bg.getStationToVertices().get(startStationId);
+        List<Integer> endVertices = bg.getStationToVertices().get(endStationId);
+
+        if (startVertices == null || endVertices == null) {
+            return route;
+        }
 
-                if ("TRANSFER".equals(label)) {
-                    // "Transfer from GREEN"
-                    route.details.add("Transfer from " + currentColor);
-                } else {
-                    // minimal fix #2: if label != currentColor, we say
-                    // "At station <lastStationName> get into BUS COLOR: <label>"
-                    if (!label.equals(currentColor)) {
-                        currentColor = label;
-                        // we do the color switch at the station we just arrived at
-                        route.details.add("At station " + stationName + " get into BUS COLOR: " + currentColor);
-
-                        // or if you want the color switch to be labeled at the PREVIOUS station:
-                        // route.details.add("At station " + lastStationName + " get into BUS COLOR: " + currentColor);
-                        // But that depends on the exact route logic.
+        int[] path = pathBuffer(table.size());
+        double minDist = INF;
+        int bestStartIdx = -1;
+        int bestEndIdx = -1;
+        int minTransfers = Integer.MAX_VALUE;
+        int minStations = Integer.MAX_VALUE;
+
+        for (int sIdx : startVertices) {
+            for (int eIdx : endVertices) {
+                if (table.distance(sIdx, eIdx) < INF) {
+                    int length = sIdx == eIdx ? single(sIdx, path) : getPath(sIdx, eIdx, table, path);
+                    int stationCount = countUniqueStations(path, 0, length, bg.getVertices());
+                    int transferCount = countTransfers(path, 0, length, bg.getVertices());
+                    double dist = table.distance(sIdx, eIdx);
+
+                    if (transferCount < minTransfers
+                            || (transferCount == minTransfers && stationCount < minStations)
+                            || (transferCount == minTransfers && stationCount == minStations && dist < minDist)) {
+                        minDist      = dist;
+                        bestStartIdx = sIdx;
+                        bestEndIdx   = eIdx;
+                        minTransfers = transferCount;
+                        minStations  = stationCount;
                     }
                 }
-                // minimal fix #3: update lastStationName to the station we arrived at
-                lastStationName = stationName;
             }
+        }
 
-            // fill in startName, endName
-            route.startName = firstStationName;
-            route.endName   = findStationNameById(lastStId, gm.getStations());
+        if (minDist == INF) {
+            return route;
+        }
 
-            // final line: "ride until station B"
-            String lastStName = findStationNameById(lastStId, gm.getStations());
-            route.details.add("ride until " + lastStName);
+        // Reconstruct actual path
+        int length = bestStartIdx == bestEndIdx
+                ? single(bestStartIdx, path) : getPath(bestStartIdx, bestEndIdx, table, path);
 
-            return route;
+        double totalDist = 0.0;
+        for (int i = 0; i < length - 1; i++) {
+            totalDist += table.distance(path[i], path[i + 1]);
+        }
+        return busRoute(bg, gm, path, 0, length, totalDist, table::distance);
+    }
 
-        } else {
-            double[][] graph = gm.buildAdjacencyMatrix(mode);
-            int startIdx = gm.indexOfStation(startStationId);
-            int endIdx = gm.indexOfStation(endStationId);
-            int n = graph.length;
-            int[][] next = new int[n][n];
+    /**
+     * Computes a CAR route from an all-pairs solution.
+     *
+     * @param table          The all-pairs solution, indexed like its graph manager's stations.
+     * @param startStationId The starting station ID.
+     * @param endStationId   The ending station ID.
+     * @return A Route object containing the path and details.
+     */
+    private static Route allPairsCarRoute(ShortestPathTable table, int startStationId, int endStationId) {
+        GraphManager gm = table.getGraphManager();
+        int startIdx = gm.indexOfStation(startStationId);
+        int endIdx = gm.indexOfStation(endStationId);
 
-            floydWarshall(graph, next);
+        if (startIdx == -1 || endIdx == -1 || table.distance(startIdx, endIdx) == INF) {
+            return new Route();
+        }
 
-            if (graph[startIdx][endIdx] == INF) {
-                return route;
-            }
+        int[] path = pathBuffer(table.size());
+        int length = getPath(startIdx, endIdx, table, path);
 
-            List<Integer> pathIndices = getPath(startIdx, endIdx, next);
+        double totalDist = 0.0;
+        for (int i = 0; i < length - 1; i++) {
+            totalDist += table.distance(path[i], path[i + 1]);
+        }
+        return carRoute(gm, path, 0, length, totalDist, table::distance);
+    }
 
-            double totalDist = 0.0;
-            for (int i = 0; i < pathIndices.size() - 1; i++) {
-                totalDist += graph[pathIndices.get(i)][pathIndices.get(i + 1)];
-            }
-            route.totalDistance = totalDist;
+    /**
+     * Computes a CAR route with a single-pair search instead of the all-pairs solution.
+     *
+     * @param network        The network to search.
+     * @param startStationId The starting station ID.
+     * @param endStationId   The ending station ID.
+     * @param engine         The search to run ("astar" or "bidirectional").
+     * @return A Route object containing the path and details.
+     */
+    private static Route computePointToPoint(RoadNetwork network, int startStationId, int endStationId, String engine) {
+        GraphManager gm = network.getGraphManager();
+        int startIdx = gm.indexOfStation(startStationId);
+        int endIdx = gm.indexOfStation(endStationId);
+        // Like the all-pairs engine, a route to the start station itself is not found
+        if (startIdx == -1 || endIdx == -1 || startIdx == endIdx) {
+            return new Route();
+        }
 
-            for (int idx : pathIndices) {
-                route.stationIds.add(gm.getStations().get(idx).getStationId());
-                String stationName = gm.getStations().get(idx).getName();
-                route.details.add(stationName + " (BY CAR)");
-            }
-            if (!route.stationIds.isEmpty()) {
-                route.startName = gm.getStations().get(pathIndices.get(0)).getName();
-                route.endName = gm.getStations().get(pathIndices.get(pathIndices.size() - 1)).getName();
+        PointToPointSearch.Path path;
+        long start = System.nanoTime();
+        if (engine.equals("astar")) {
+            path = PointToPointSearch.aStar(network, startIdx, endIdx);
+        } else if (engine.equals("bidirectional")) {
+            path = PointToPointSearch.bidirectionalDijkstra(network, startIdx, endIdx);
+        } else {
+            throw new IllegalArgumentException("Unknown navigation.engine: " + engine);
+        }
+        RoutingMetrics.record(RoutingMetrics.Stage.SEARCH, start);
+        if (path.vertices.isEmpty()) {
+            return new Route();
+        }
+        int[] vertices = toArray(path.vertices);
+        return carRoute(gm, vertices, 0, vertices.length, path.distance, network.getForward()::weight);
+    }
+
+    /**
+     * Builds a CAR route from a path of station indices.
+     *
+     * @param gm        The graph manager the indices refer to.
+     * @param path      Holds the station indices along the path.
+     * @param from      Position of the first station in path.
+     * @param to        Position after the last station in path.
+     * @param totalDist The length of the path.
+     * @param hops      Length of the edge between two consecutive stations.
+     * @return A Route object containing the path and details.
+     */
+    private static Route carRoute(GraphManager gm, int[] path, int from, int to, double totalDist, HopLength hops) {
+        long start = System.nanoTime();
+        StationRegistry stations = gm.getStationRegistry();
+        int count = to - from;
+        int[] stationIds = new int[count];
+        int[] stationIndices = new int[count];
+        double[] segments = new double[Math.max(count - 1, 0)];
+        for (int i = 0; i < count; i++) {
+            int idx = path[from + i];
+            stationIds[i] = stations.id(idx);
+            stationIndices[i] = idx;
+            if (i > 0) {
+                segments[i - 1] = hops.between(path[from + i - 1], idx);
             }
-            return route;
         }
+        Route route = new Route(stations, stationIds, stationIndices, segments, totalDist, null, null);
+        RoutingMetrics.record(RoutingMetrics.Stage.ROUTE_FORMATTING, start);
+        return route;
     }
 
     /**
-     * Minimal helper to map stationId -> stationName by looping gm.getStations().
-     * Comment: We do not have a gm.findStationNameById method, so let's do it here.
+     * Builds a BUS route from a path of bus graph vertices.
+     * A new leg starts at every color change (boarding that color at the station reached)
+     * and at every TRANSFER vertex (leaving the current color).
+     *
+     * @param bg        The bus graph the indices refer to.
+     * @param gm        The graph manager holding the stations.
+     * @param path      Holds the bus graph vertices along the path, starting at a color vertex.
+     * @param from      Position of the first vertex in path.
+     * @param to        Position after the last vertex in path.
+     * @param totalDist The length of the path.
+     * @param hops      Length of the edge between two consecutive vertices.
+     * @return A Route object containing the path and details.
      */
-    private static String findStationNameById(int stationId, List<Station> stationList) {
-        for (Station st : stationList) {
-            if (st.getStationId() == stationId) {
-                return st.getName();
+    private static Route busRoute(BusGraph bg, GraphManager gm, int[] path, int from, int to, double totalDist,
+                                  HopLength hops) {
+        long start = System.nanoTime();
+        List<BusVertex> vertices = bg.getVertices();
+
+        // Size the arrays first: stations without consecutive repeats, and legs
+        int stationCount = countUniqueStations(path, from, to, vertices);
+        int legCount = 1;
+        String currentColor = vertices.get(path[from]).getLabel();
+        for (int i = from + 1; i < to; i++) {
+            String label = vertices.get(path[i]).getLabel();
+            if ("TRANSFER".equals(label)) {
+                legCount++;
+            } else if (!label.equals(currentColor)) {
+                legCount++;
+                currentColor = label;
             }
         }
-        return String.valueOf(stationId);
+
+        int[] stationIds = new int[stationCount];
+        int[] stationIndices = new int[stationCount];
+        double[] segments = new double[stationCount - 1];
+        String[] legColors = new String[legCount];
+        int[] legStations = new int[legCount];
+
+        currentColor = vertices.get(path[from]).getLabel();
+        stationIds[0] = vertices.get(path[from]).getStationId();
+        stationIndices[0] = bg.getStationIndex(path[from]);
+        legColors[0] = currentColor;
+        legStations[0] = 0;
+        int station = 0;
+        int leg = 1;
+        for (int i = from + 1; i < to; i++) {
+            BusVertex vertex = vertices.get(path[i]);
+            if (vertex.getStationId() != stationIds[station]) {
+                station++;
+                stationIds[station] = vertex.getStationId();
+                stationIndices[station] = bg.getStationIndex(path[i]);
+                // Edges within a station are the free transfers, so only these hops have a length
+                segments[station - 1] = hops.between(path[i - 1], path[i]);
+            }
+            String label = vertex.getLabel();
+            if ("TRANSFER".equals(label)) {
+                legColors[leg] = currentColor;
+                legStations[leg++] = -1;
+            } else if (!label.equals(currentColor)) {
+                // The color switch happens at the station just arrived at
+                currentColor = label;
+                legColors[leg] = currentColor;
+                legStations[leg++] = station;
+            }
+        }
+
+        Route route = new Route(gm.getStationRegistry(), stationIds, stationIndices, segments, totalDist, legColors, legStations);
+        RoutingMetrics.record(RoutingMetrics.Stage.ROUTE_FORMATTING, start);
+        return route;
     }
 
     /**
-     * Counts the number of unique stations in the path.
+     * Counts the stations along a bus path, a station visited on consecutive vertices counting once.
      *
-     * @param path     The list of vertex indices in the path.
+     * @param path     Holds the vertex indices of the path.
+     * @param from     Position of the first vertex in path.
+     * @param to       Position after the last vertex in path.
      * @param vertices The list of BusVertex objects.
-     * @return The number of unique stations.
+     * @return The number of stations.
      */
-    private static int countUniqueStations(List<Integer> path, List<BusVertex> vertices) {
-        List<Integer> uniqueStations = new ArrayList<>();
-        for (int idx : path) {
-            int stationId = vertices.get(idx).getStationId();
-            if (uniqueStations.isEmpty() || uniqueStations.get(uniqueStations.size() - 1) != stationId) {
-                uniqueStations.add(stationId);
+    private static int countUniqueStations(int[] path, int from, int to, List<BusVertex> vertices) {
+        int stations = 0;
+        int lastStationId = 0;
+        for (int i = from; i < to; i++) {
+            int stationId = vertices.get(path[i]).getStationId();
+            if (stations == 0 || lastStationId != stationId) {
+                stations++;
+                lastStationId = stationId;
             }
         }
-        return uniqueStations.size();
+        return stations;
     }
 
     /**
      * Counts the number of transfers in the bus path.
      *
-     * @param path     The list of vertex indices in the path.
+     * @param path     Holds the vertex indices of the path.
+     * @param from     Position of the first vertex in path.
+     * @param to       Position after the last vertex in path.
      * @param vertices The list of BusVertex objects.
      * @return The number of transfers.
      */
-    private static int countTransfers(List<Integer> path, List<BusVertex> vertices) {
+    private static int countTransfers(int[] path, int from, int to, List<BusVertex> vertices) {
         int transfers = 0;
-        String currentColor = vertices.get(path.get(0)).getLabel();
-        for (int i = 1; i < path.size(); i++) {
-            String label = vertices.get(path.get(i)).getLabel();
+        String currentColor = vertices.get(path[from]).getLabel();
+        for (int i = from + 1; i < to; i++) {
+            String label = vertices.get(path[i]).getLabel();
             if (!"TRANSFER".equals(label) && !label.equals(currentColor)) {
                 transfers++;
                 currentColor = label;
@@ -314,76 +815,149 @@ public class FloydWarshall {
         return transfers;
     }
 
+    private static int single(int vertex, int[] path) {
+        path[0] = vertex;
+        return 1;
+    }
+
+    private static int[] toArray(List<Integer> vertices) {
+        int[] array = new int[vertices.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = vertices.get(i);
+        }
+        return array;
+    }
+
     /**
      * Computes an alternative path from startStationId to endStationId using the specified mode.
      *
      * @param startStationId The starting station ID.
      * @param endStationId   The ending station ID.
-     * @param mode           The mode of transportation ("CAR").
-     * @return A Route object containing the alternative path and details.
+     * @param mode           The mode of transportation ("CAR" or "BUS").
+     * @return The second shortest route, or an empty Route if there is none.
      */
     public static Route getAlternativePath(int startStationId, int endStationId, String mode) {
-        GraphManager gm = new GraphManager();
-        double[][] originalGraph = gm.buildAdjacencyMatrix(mode);
-        int n = originalGraph.length;
+        List<Route> routes = getAlternativePaths(startStationId, endStationId, mode, 2);
+        return routes.size() > 1 ? routes.get(1) : new Route();
+    }
 
-        double[][] graph = new double[n][n];
-        for (int i = 0; i < n; i++) {
-            System.arraycopy(originalGraph[i], 0, graph[i], 0, n);
+    /**
+     * Computes up to k loopless routes from startStationId to endStationId, shortest first.
+     * BUS routes are searched between the TRANSFER vertices of the two stations, so they may start and end
+     * on any color. Like the lexicographic bus engine they are ranked by fewest transfers, then fewest stations,
+     * then distance, and a route along the same stations as a better one, only on other colors, is skipped.
+     *
+     * @param startStationId The starting station ID.
+     * @param endStationId   The ending station ID.
+     * @param mode           The mode of transportation ("CAR" or "BUS").
+     * @param k              The number of routes wanted.
+     * @return The routes found, fewer than k if no more exist.
+     */
+    public static List<Route> getAlternativePaths(int startStationId, int endStationId, String mode, int k) {
+        long start = System.nanoTime();
+        try {
+            return alternatives(RouteCache.network(mode), null, startStationId, endStationId, mode, k);
+        } finally {
+            RoutingMetrics.record(RoutingMetrics.Stage.ALTERNATIVES, start);
         }
-        int[][] next = new int[n][n];
-        floydWarshall(graph, next);
-
-        int startIndex = gm.indexOfStation(startStationId);
-        int endIndex = gm.indexOfStation(endStationId);
+    }
 
-        List<Integer> bestPathIndices = getPath(startIndex, endIndex, next);
-        System.out.println("Best path indices: " + bestPathIndices);
-        if (bestPathIndices.isEmpty()) {
-            return new Route(); // Return an empty Route if no path found
+    /**
+     * Computes up to k loopless routes like {@link #getAlternativePaths(int, int, String, int)},
+     * from an immutable snapshot instead of the route cache.
+     *
+     * @param snapshot       The solved graph of the mode to route in.
+     * @param startStationId The starting station ID.
+     * @param endStationId   The ending station ID.
+     * @param k              The number of routes wanted.
+     * @return The routes found, fewer than k if no more exist.
+     */
+    public static List<Route> getAlternativePaths(RoutingSnapshot snapshot, int startStationId, int endStationId, int k) {
+        long start = System.nanoTime();
+        try {
+            return alternatives(snapshot.getNetwork(), snapshot, startStationId, endStationId, snapshot.getMode(), k);
+        } finally {
+            RoutingMetrics.record(RoutingMetrics.Stage.ALTERNATIVES, start);
         }
+    }
 
-        double[][] modifiedGraph = new double[n][n];
-        for (int i = 0; i < n; i++) {
-            System.arraycopy(originalGraph[i], 0, modifiedGraph[i], 0, n);
+    /**
+     * @param snapshot Answers a BUS route that stays at one station, or {@code null} to ask the route cache.
+     */
+    private static List<Route> alternatives(RoadNetwork network, RoutingSnapshot snapshot,
+                                            int startStationId, int endStationId, String mode, int k) {
+        GraphManager gm = network.getGraphManager();
+        BusGraph bg = network.getBusGraph();
+        List<Route> routes = new ArrayList<>();
+
+        int source;
+        int target;
+        if (bg != null) {
+            Integer startTransfer = bg.getVertexToIndex().get(startStationId + "_TRANSFER");
+            Integer endTransfer = bg.getVertexToIndex().get(endStationId + "_TRANSFER");
+            if (startTransfer == null || endTransfer == null) {
+                return routes;
+            }
+            source = startTransfer;
+            target = endTransfer;
+        } else {
+            source = gm.indexOfStation(startStationId);
+            target = gm.indexOfStation(endStationId);
+            if (source == -1 || target == -1) {
+                return routes;
+            }
         }
 
-        for (int i = 0; i < bestPathIndices.size() - 1; i++) {
-            int u = bestPathIndices.get(i);
-            int v = bestPathIndices.get(i + 1);
-            modifiedGraph[u][v] = INF;
-            if (modifiedGraph[v][u] != INF) {
-                modifiedGraph[v][u] = INF;
+        CsrGraph graph = network.getForward();
+        List<PointToPointSearch.Path> paths = bg == null ? KShortestPaths.yen(graph, source, target, k)
+                : KShortestPaths.yen(graph, source, target, k, busCounts(bg, source), path -> stationSequence(bg, path));
+        for (PointToPointSearch.Path path : paths) {
+            int[] vertices = toArray(path.vertices);
+            if (bg == null) {
+                routes.add(carRoute(gm, vertices, 0, vertices.length, path.distance, graph::weight));
+            } else if (vertices.length > 2) {
+                // Drop the TRANSFER vertices used as source and target
+                routes.add(busRoute(bg, gm, vertices, 1, vertices.length - 1, path.distance, graph::weight));
+            } else {
+                routes.add(snapshot != null ? computeNavigation(snapshot, startStationId, endStationId)
+                        : computeNavigation(startStationId, endStationId, mode));
             }
         }
+        return routes;
+    }
 
-        next = new int[n][n];
-        floydWarshall(modifiedGraph, next);
-        List<Integer> altPathIndices = getPath(startIndex, endIndex, next);
-        System.out.println("Alternative path indices: " + altPathIndices);
-
-        Route altRoute = new Route();
-        if (!altPathIndices.isEmpty() && altPathIndices.get(0) == startIndex &&
-                altPathIndices.get(altPathIndices.size() - 1) == endIndex) {
-
-            double totalDist = 0.0;
-            for (int i = 0; i < altPathIndices.size() - 1; i++) {
-                totalDist += modifiedGraph[altPathIndices.get(i)][altPathIndices.get(i + 1)];
+    /**
+     * Counts a ride to another station as a station and leaving a TRANSFER vertex onto a color as a transfer,
+     * except at the source, where the route only boards its first color.
+     */
+    private static KShortestPaths.EdgeCounts busCounts(BusGraph bg, int source) {
+        List<BusVertex> vertices = bg.getVertices();
+        return new KShortestPaths.EdgeCounts() {
+            @Override
+            public int transfers(int from, int to) {
+                return from != source && "TRANSFER".equals(vertices.get(from).getLabel())
+                        && !"TRANSFER".equals(vertices.get(to).getLabel()) ? 1 : 0;
             }
-            altRoute.totalDistance = totalDist;
 
-            for (int idx : altPathIndices) {
-                altRoute.stationIds.add(gm.getStations().get(idx).getStationId());
-                String stationName = gm.getStations().get(idx).getName();
-                altRoute.details.add(stationName + " (BY CAR)");
+            @Override
+            public int stations(int from, int to) {
+                return vertices.get(from).getStationId() != vertices.get(to).getStationId() ? 1 : 0;
             }
+        };
+    }
 
-            if (!altRoute.stationIds.isEmpty()) {
-                altRoute.startName = gm.getStations().get(altPathIndices.get(0)).getName();
-                altRoute.endName = gm.getStations().get(altPathIndices.get(altPathIndices.size() - 1)).getName();
+    /**
+     * The stations a bus path passes, without consecutive repeats.
+     */
+    private static List<Integer> stationSequence(BusGraph bg, List<Integer> path) {
+        List<Integer> stations = new ArrayList<>();
+        for (int vertex : path) {
+            int stationId = bg.getVertices().get(vertex).getStationId();
+            if (stations.isEmpty() || stations.get(stations.size() - 1) != stationId) {
+                stations.add(stationId);
             }
         }
-        return altRoute;
+        return stations;
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,98 @@
+package com.solvd.algoritms;
+
+import com.solvd.utils.CsrGraph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * All-pairs shortest paths by running Dijkstra once per vertex (Johnson's algorithm).
+ * This costs O(V·E log V) instead of O(V³), which wins on sparse road networks, and the
+ * searches are independent so they run in parallel. Each search runs forward from a source
+ * and writes that source's rows of the distance and next matrices, so no thread writes across rows.
+ * <p>
+ * Road weights are Euclidean lengths and never negative, so the Bellman-Ford reweighting step
+ * of Johnson's algorithm is not needed; negative weights are rejected.
+ */
+public class JohnsonAllPairs {
+    private static final double INF = Double.MAX_VALUE;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * @param pool The pool the single-source searches are submitted to.
+     */
+    public JohnsonAllPairs(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Fills the same outputs as {@link FloydWarshall#floydWarshall(double[][], int[][])}:
+     * dist[s][t] is the shortest distance and next[s][t] the first vertex after s on the path,
+     * or -1 if t is s or unreachable.
+     *
+     * @param graph The graph to solve.
+     * @param dist  The n x n matrix to store the shortest distances.
+     * @param next  The n x n matrix to store the next vertex in the shortest path.
+     */
+    public void solve(CsrGraph graph, double[][] dist, int[][] next) {
+        double[] weights = graph.getWeights();
+        for (double weight : weights) {
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative edge weight: " + weight);
+            }
+        }
+        int n = graph.size();
+        ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(() -> new Scratch(n));
+        RangeTask.forEach(pool, 0, n, 1, source -> {
+            Scratch s = scratch.get();
+            dijkstra(graph, source, dist[source], next[source], s.hops, s.heap);
+        });
+    }
+
+    private static class Scratch {
+        final int[] hops;
+        final VertexHeap heap;
+
+        Scratch(int n) {
+            hops = new int[n];
+            heap = new VertexHeap(n);
+        }
+    }
+
+    /**
+     * Dijkstra from the source, filling its row of distances and of first hops: the first hop of a vertex is
+     * the vertex itself if the source has an edge to it, and its parent's first hop otherwise.
+     * Equally short paths are told apart by their number of edges, so following the first hops towards a target
+     * lowers either the distance or, across zero-weight edges, the number of edges left, and can never cycle.
+     * A vertex whose path gets fewer edges after it was settled is queued again to pass that on.
+     */
+    private static void dijkstra(CsrGraph graph, int source, double[] dist, int[] firstHop, int[] hops,
+                                 VertexHeap heap) {
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        double[] weights = graph.getWeights();
+        Arrays.fill(dist, INF);
+        Arrays.fill(firstHop, -1);
+
+        dist[source] = 0.0;
+        hops[source] = 0;
+        heap.offer(source, 0.0);
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            double du = dist[u];
+            int hop = u == source ? -1 : firstHop[u];
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = targets[e];
+                double candidate = du + weights[e];
+                if (candidate < dist[v] || (candidate == dist[v] && hops[u] + 1 < hops[v])) {
+                    dist[v] = candidate;
+                    hops[v] = hops[u] + 1;
+                    firstHop[v] = hop == -1 ? v : hop;
+                    heap.offer(v, candidate);
+                }
+            }
+        }
+        heap.clear();
+    }
+}
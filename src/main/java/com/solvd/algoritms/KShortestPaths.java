@@ -0,0 +1,321 @@
+package com.solvd.algoritms;
+
+import com.solvd.utils.CsrGraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * The k shortest loopless paths between two vertices (Yen's algorithm).
+ * Every further path is found with spur searches that branch off the previous path,
+ * each a Dijkstra run on the sparse graph with a few vertices and edges banned,
+ * so no all-pairs solution has to be recomputed.
+ */
+public final class KShortestPaths {
+    private static final double INF = Double.MAX_VALUE;
+
+    private KShortestPaths() {
+    }
+
+    /**
+     * Counts an edge adds to a path besides its weight. Paths are ranked by the tuple
+     * (transfers, stations, distance), compared lexicographically, so both counts must not depend on
+     * anything but the edge itself.
+     */
+    public interface EdgeCounts {
+        int transfers(int from, int to);
+
+        int stations(int from, int to);
+    }
+
+    /**
+     * A path with the counts it is ranked by.
+     */
+    private static class Ranked implements Comparable<Ranked> {
+        final PointToPointSearch.Path path;
+        final int transfers;
+        final int stations;
+
+        Ranked(PointToPointSearch.Path path, int transfers, int stations) {
+            this.path = path;
+            this.transfers = transfers;
+            this.stations = stations;
+        }
+
+        @Override
+        public int compareTo(Ranked other) {
+            if (transfers != other.transfers) return Integer.compare(transfers, other.transfers);
+            if (stations != other.stations) return Integer.compare(stations, other.stations);
+            return Double.compare(path.distance, other.path.distance);
+        }
+    }
+
+    /**
+     * A vertex reached by the lexicographic Dijkstra, with the counts and distance it was reached with.
+     */
+    private static class Label implements Comparable<Label> {
+        final int vertex;
+        final int transfers;
+        final int stations;
+        final double distance;
+
+        Label(int vertex, int transfers, int stations, double distance) {
+            this.vertex = vertex;
+            this.transfers = transfers;
+            this.stations = stations;
+            this.distance = distance;
+        }
+
+        @Override
+        public int compareTo(Label other) {
+            if (transfers != other.transfers) return Integer.compare(transfers, other.transfers);
+            if (stations != other.stations) return Integer.compare(stations, other.stations);
+            return Double.compare(distance, other.distance);
+        }
+    }
+
+    /**
+     * Finds up to k loopless paths from source to target, shortest first.
+     * Paths are vertex sequences; parallel edges between the same vertices count as one.
+     *
+     * @param graph  The graph to search.
+     * @param source The source vertex index.
+     * @param target The target vertex index.
+     * @param k      The number of paths wanted.
+     * @return The paths found, fewer than k if no more exist.
+     */
+    public static List<PointToPointSearch.Path> yen(CsrGraph graph, int source, int target, int k) {
+        return yen(graph, source, target, k, null, null);
+    }
+
+    /**
+     * Finds up to k loopless paths from source to target, ranked by (transfers, stations, distance).
+     * Paths with the same key as a better one are skipped, e.g. bus paths riding other colors along the same stations.
+     *
+     * @param graph  The graph to search.
+     * @param source The source vertex index.
+     * @param target The target vertex index.
+     * @param k      The number of paths wanted.
+     * @param counts The counts of every edge, or {@code null} to rank by distance alone.
+     * @param key    What makes two paths the same route, or {@code null} for their vertex sequences.
+     * @return The paths found, fewer than k if no more exist.
+     */
+    public static List<PointToPointSearch.Path> yen(CsrGraph graph, int source, int target, int k,
+                                                    EdgeCounts counts, Function<List<Integer>, ?> key) {
+        List<PointToPointSearch.Path> accepted = new ArrayList<>();
+        if (k <= 0) {
+            return accepted;
+        }
+        if (source == target) {
+            accepted.add(new PointToPointSearch.Path(new ArrayList<>(List.of(source)), 0.0));
+            return accepted;
+        }
+
+        int n = graph.size();
+        boolean[] bannedVertex = new boolean[n];
+        boolean[] bannedEdge = new boolean[graph.edgeCount()];
+        VertexHeap heap = new VertexHeap(n);
+        double[] dist = new double[n];
+        int[] parent = new int[n];
+
+        Ranked first = search(graph, source, target, counts, bannedVertex, bannedEdge, heap, dist, parent);
+        if (first == null) {
+            return accepted;
+        }
+        // Every path found spawns spur paths, also those skipped as duplicates of a better one
+        List<PointToPointSearch.Path> found = new ArrayList<>();
+        Set<Object> keys = new HashSet<>();
+        PriorityQueue<Ranked> candidates = new PriorityQueue<>();
+        Set<List<Integer>> seen = new HashSet<>();
+        seen.add(first.path.vertices);
+        Ranked next = first;
+
+        while (true) {
+            found.add(next.path);
+            if (keys.add(key == null ? next.path.vertices : key.apply(next.path.vertices))) {
+                accepted.add(next.path);
+                if (accepted.size() == k) {
+                    break;
+                }
+            }
+            List<Integer> previous = next.path.vertices;
+            double rootCost = 0.0;
+            int rootTransfers = 0;
+            int rootStations = 0;
+            for (int i = 0; i < previous.size() - 1; i++) {
+                int spur = previous.get(i);
+                List<Integer> root = previous.subList(0, i + 1);
+
+                // Paths sharing this root must not leave it the same way again
+                for (PointToPointSearch.Path path : found) {
+                    if (path.vertices.size() > i + 1 && path.vertices.subList(0, i + 1).equals(root)) {
+                        banEdges(graph, spur, path.vertices.get(i + 1), bannedEdge, true);
+                    }
+                }
+                // Keep the spur path loopless by banning the rest of the root
+                for (int j = 0; j < i; j++) {
+                    bannedVertex[root.get(j)] = true;
+                }
+
+                Ranked spurPath = search(graph, spur, target, counts, bannedVertex, bannedEdge, heap, dist, parent);
+                if (spurPath != null) {
+                    List<Integer> vertices = new ArrayList<>(root.subList(0, i));
+                    vertices.addAll(spurPath.path.vertices);
+                    if (seen.add(vertices)) {
+                        candidates.add(new Ranked(new PointToPointSearch.Path(vertices, rootCost + spurPath.path.distance),
+                                rootTransfers + spurPath.transfers, rootStations + spurPath.stations));
+                    }
+                }
+
+                for (PointToPointSearch.Path path : found) {
+                    if (path.vertices.size() > i + 1) {
+                        banEdges(graph, path.vertices.get(i), path.vertices.get(i + 1), bannedEdge, false);
+                    }
+                }
+                Arrays.fill(bannedVertex, false);
+                rootCost += edgeWeight(graph, spur, previous.get(i + 1));
+                if (counts != null) {
+                    rootTransfers += counts.transfers(spur, previous.get(i + 1));
+                    rootStations += counts.stations(spur, previous.get(i + 1));
+                }
+            }
+
+            if (candidates.isEmpty()) {
+                break;
+            }
+            next = candidates.poll();
+        }
+        return accepted;
+    }
+
+    /**
+     * Weight of the shortest edge from u to v, or {@link Double#MAX_VALUE} if there is none.
+     */
+    static double edgeWeight(CsrGraph graph, int u, int v) {
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        double[] weights = graph.getWeights();
+        double best = INF;
+        for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+            if (targets[e] == v && weights[e] < best) {
+                best = weights[e];
+            }
+        }
+        return best;
+    }
+
+    private static void banEdges(CsrGraph graph, int u, int v, boolean[] bannedEdge, boolean banned) {
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+            if (targets[e] == v) {
+                bannedEdge[e] = banned;
+            }
+        }
+    }
+
+    private static Ranked search(CsrGraph graph, int source, int target, EdgeCounts counts,
+                                 boolean[] bannedVertex, boolean[] bannedEdge,
+                                 VertexHeap heap, double[] dist, int[] parent) {
+        if (counts == null) {
+            PointToPointSearch.Path path = dijkstra(graph, source, target, bannedVertex, bannedEdge, heap, dist, parent);
+            return path == null ? null : new Ranked(path, 0, 0);
+        }
+        return lexicographicDijkstra(graph, source, target, counts, bannedVertex, bannedEdge, parent);
+    }
+
+    /**
+     * Dijkstra from source to target skipping banned vertices and edges.
+     *
+     * @return The path, or {@code null} if the target cannot be reached.
+     */
+    private static PointToPointSearch.Path dijkstra(CsrGraph graph, int source, int target,
+                                                    boolean[] bannedVertex, boolean[] bannedEdge,
+                                                    VertexHeap heap, double[] dist, int[] parent) {
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        double[] weights = graph.getWeights();
+        Arrays.fill(dist, INF);
+        Arrays.fill(parent, -1);
+
+        dist[source] = 0.0;
+        heap.offer(source, 0.0);
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            if (u == target) break;
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = targets[e];
+                if (bannedEdge[e] || bannedVertex[v]) continue;
+                double candidate = dist[u] + weights[e];
+                if (candidate < dist[v]) {
+                    dist[v] = candidate;
+                    parent[v] = u;
+                    heap.offer(v, candidate);
+                }
+            }
+        }
+        heap.clear();
+
+        if (dist[target] == INF) {
+            return null;
+        }
+        return new PointToPointSearch.Path(walkBack(parent, target), dist[target]);
+    }
+
+    /**
+     * Dijkstra ranking by (transfers, stations, distance) from source to target, skipping banned vertices and edges.
+     *
+     * @return The path with its counts, or {@code null} if the target cannot be reached.
+     */
+    private static Ranked lexicographicDijkstra(CsrGraph graph, int source, int target, EdgeCounts counts,
+                                                boolean[] bannedVertex, boolean[] bannedEdge, int[] parent) {
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        double[] weights = graph.getWeights();
+        Label[] best = new Label[graph.size()];
+        Arrays.fill(parent, -1);
+
+        PriorityQueue<Label> queue = new PriorityQueue<>();
+        best[source] = new Label(source, 0, 0, 0.0);
+        queue.add(best[source]);
+        while (!queue.isEmpty()) {
+            Label label = queue.poll();
+            int u = label.vertex;
+            if (label != best[u]) continue;
+            if (u == target) break;
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = targets[e];
+                if (bannedEdge[e] || bannedVertex[v]) continue;
+                Label candidate = new Label(v, label.transfers + counts.transfers(u, v),
+                        label.stations + counts.stations(u, v), label.distance + weights[e]);
+                if (best[v] == null || candidate.compareTo(best[v]) < 0) {
+                    best[v] = candidate;
+                    parent[v] = u;
+                    queue.add(candidate);
+                }
+            }
+        }
+
+        Label reached = best[target];
+        if (reached == null) {
+            return null;
+        }
+        return new Ranked(new PointToPointSearch.Path(walkBack(parent, target), reached.distance),
+                reached.transfers, reached.stations);
+    }
+
+    private static List<Integer> walkBack(int[] parent, int target) {
+        List<Integer> vertices = new ArrayList<>();
+        for (int v = target; v != -1; v = parent[v]) {
+            vertices.add(v);
+        }
+        Collections.reverse(vertices);
+        return vertices;
+    }
+}
@@ -0,0 +1,322 @@
+package com.solvd.algoritms;
+
+import com.solvd.config.NavigationConfig;
+import com.solvd.metrics.RoutingMetrics;
+import com.solvd.models.Station;
+import com.solvd.utils.CsrGraph;
+import com.solvd.utils.GraphManager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Solved CAR distance and next matrices persisted to a binary file and served from memory-mapped pages,
+ * so a restarted server can answer routes without re-running the all-pairs kernel.
+ * <p>
+ * The file starts with a header (magic, format version, vertex count, network fingerprint),
+ * followed by the station IDs in {@link GraphManager#getStations()} order, the distances as n x n doubles
+ * and the next hops as n x n ints, all little-endian and row-major. A file is only used if its
+ * fingerprint matches the stations and roads currently in the graph source.
+ * Only CAR is snapshotted: the BUS matrices index bus vertices and the default BUS engine does not use them.
+ * Files are written in the background, so a slow or failing disk never delays or fails the query that solved;
+ * a failed write (e.g. replacing a file that is still mapped on Windows) is only logged.
+ */
+public class MappedSnapshot implements ShortestPathTable {
+    private static final int MAGIC = 0x46575350;
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_BYTES = 24;
+    // Every mapping covers whole rows and stays below the 2 GB limit of a single buffer
+    private static final long CHUNK_BYTES = 1L << 30;
+    private static final int WRITE_BUFFER_BYTES = 1 << 20;
+    private static final Logger LOGGER = Logger.getLogger(MappedSnapshot.class.getName());
+    // Newest solution of every mode still waiting to be written; older ones are skipped
+    private static final Map<String, SolvedGraph> PENDING = new ConcurrentHashMap<>();
+    // One thread at most, which ends when idle, so a pending write still finishes before the JVM exits
+    private static final ExecutorService WRITER = new ThreadPoolExecutor(0, 1, 1, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), runnable -> new Thread(runnable, "snapshot-writer"));
+
+    private final long version;
+    private final GraphManager graphManager;
+    private final int n;
+    private final int rowsPerChunk;
+    private final MappedByteBuffer[] distanceChunks;
+    private final MappedByteBuffer[] nextChunks;
+
+    private MappedSnapshot(long version, GraphManager graphManager, int n, int rowsPerChunk,
+                           MappedByteBuffer[] distanceChunks, MappedByteBuffer[] nextChunks) {
+        this.version = version;
+        this.graphManager = graphManager;
+        this.n = n;
+        this.rowsPerChunk = rowsPerChunk;
+        this.distanceChunks = distanceChunks;
+        this.nextChunks = nextChunks;
+    }
+
+    /**
+     * @return Whether {@code navigation.snapshot.dir} is set and the mode is snapshotted.
+     */
+    public static boolean isEnabled(String mode) {
+        return file(mode) != null;
+    }
+
+    /**
+     * Maps the snapshot of the given mode if it exists and matches the network.
+     *
+     * @param mode    The mode of transportation.
+     * @param network The loaded network of the mode the snapshot is served for, which also gives its version.
+     * @return The mapped snapshot, or {@code null} if there is no usable file.
+     */
+    public static MappedSnapshot open(String mode, RoadNetwork network) {
+        Path file = file(mode);
+        if (file == null || !Files.isReadable(file)) {
+            return null;
+        }
+        GraphManager gm = network.getGraphManager();
+        CsrGraph graph = network.getForward();
+        List<Station> stations = gm.getStations();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(header, 0);
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC || header.getInt() != FORMAT_VERSION) {
+                return null;
+            }
+            int n = header.getInt();
+            header.getInt();
+            long fingerprint = header.getLong();
+            if (n != stations.size() || fingerprint != fingerprint(stations, graph)
+                    || channel.size() != fileSize(n)) {
+                return null;
+            }
+
+            ByteBuffer ids = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, 4L * n).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < n; i++) {
+                if (ids.getInt() != stations.get(i).getStationId()) {
+                    return null;
+                }
+            }
+
+            int rowsPerChunk = rowsPerChunk(n);
+            int chunks = n == 0 ? 0 : (n + rowsPerChunk - 1) / rowsPerChunk;
+            MappedByteBuffer[] distanceChunks = new MappedByteBuffer[chunks];
+            MappedByteBuffer[] nextChunks = new MappedByteBuffer[chunks];
+            for (int c = 0; c < chunks; c++) {
+                long firstRow = (long) c * rowsPerChunk;
+                long rows = Math.min(rowsPerChunk, n - firstRow);
+                distanceChunks[c] = map(channel, distancesStart(n) + firstRow * n * 8, rows * n * 8);
+                nextChunks[c] = map(channel, nextStart(n) + firstRow * n * 4, rows * n * 4);
+            }
+            return new MappedSnapshot(network.getVersion(), gm, n, rowsPerChunk, distanceChunks, nextChunks);
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading snapshot " + file, e);
+        }
+    }
+
+    /**
+     * Queues the solution to be written to the snapshot file of its mode on a background thread and returns.
+     * If a newer solution of the mode is queued before the write starts, only the newer one is written.
+     * Does nothing if snapshots are disabled for the mode.
+     *
+     * @param solved The freshly solved graph, which is never changed afterwards.
+     */
+    public static void writeAsync(SolvedGraph solved) {
+        if (file(solved.getMode()) == null) {
+            return;
+        }
+        PENDING.put(solved.getMode(), solved);
+        WRITER.execute(() -> {
+            SolvedGraph pending = PENDING.remove(solved.getMode());
+            if (pending == null) {
+                return; // already written by an earlier task
+            }
+            try {
+                write(pending);
+            } catch (RuntimeException e) {
+                RoutingMetrics.increment(RoutingMetrics.Counter.BACKGROUND_FAILURES);
+                LOGGER.log(Level.WARNING, "Writing the " + pending.getMode() + " snapshot failed", e);
+            }
+        });
+    }
+
+    /**
+     * Writes the solution to the snapshot file of its mode, replacing the previous file atomically.
+     * Does nothing if snapshots are disabled for the mode.
+     *
+     * @param solved The freshly solved graph.
+     */
+    public static void write(SolvedGraph solved) {
+        Path file = file(solved.getMode());
+        if (file == null) {
+            return;
+        }
+        int n = solved.size();
+        double[][] distances = solved.getDistances();
+        int[][] next = solved.getNext();
+        List<Station> stations = solved.getGraphManager().getStations();
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(n).putInt(0)
+                        .putLong(fingerprint(stations, solved.edges()));
+                for (Station station : stations) {
+                    ensureRoom(channel, buffer, 4);
+                    buffer.putInt(station.getStationId());
+                }
+                // Pad so the doubles start on an 8-byte boundary
+                for (long pad = distancesStart(n) - (HEADER_BYTES + 4L * n); pad > 0; pad--) {
+                    ensureRoom(channel, buffer, 1);
+                    buffer.put((byte) 0);
+                }
+                for (double[] row : distances) {
+                    for (double d : row) {
+                        ensureRoom(channel, buffer, 8);
+                        buffer.putDouble(d);
+                    }
+                }
+                for (int[] row : next) {
+                    for (int v : row) {
+                        ensureRoom(channel, buffer, 4);
+                        buffer.putInt(v);
+                    }
+                }
+                drain(channel, buffer);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException ignored) {
+                // The next write truncates it anyway
+            }
+            throw new RuntimeException("Error writing snapshot " + file, e);
+        }
+    }
+
+    /**
+     * Hash of everything the matrices depend on: the station IDs in index order and the edges.
+     * Self-loops are dropped, parallel edges are reduced to the shortest and every row is sorted, so the network's
+     * graph hashes the same as the edges of the solved matrix, however each was built or patched.
+     */
+    static long fingerprint(List<Station> stations, CsrGraph graph) {
+        long hash = 0xcbf29ce484222325L;
+        for (Station station : stations) {
+            hash = mix(hash, station.getStationId());
+        }
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        double[] weights = graph.getWeights();
+        for (int u = 0; u < graph.size(); u++) {
+            Map<Integer, Double> row = new TreeMap<>();
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                if (targets[e] == u) continue;
+                row.merge(targets[e], weights[e], Math::min);
+            }
+            for (Map.Entry<Integer, Double> edge : row.entrySet()) {
+                hash = mix(hash, u);
+                hash = mix(hash, edge.getKey());
+                hash = mix(hash, Double.doubleToLongBits(edge.getValue()));
+            }
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        hash ^= value;
+        hash *= 0x100000001b3L;
+        return hash ^ (hash >>> 29);
+    }
+
+    private static Path file(String mode) {
+        String dir = NavigationConfig.get("navigation.snapshot.dir", "");
+        if (dir.isEmpty() || !mode.equalsIgnoreCase("CAR")) {
+            return null;
+        }
+        return Paths.get(dir, mode.toLowerCase() + ".fwsnap");
+    }
+
+    private static int rowsPerChunk(int n) {
+        return (int) Math.max(1, CHUNK_BYTES / (8L * Math.max(n, 1)));
+    }
+
+    private static long distancesStart(int n) {
+        long idsEnd = HEADER_BYTES + 4L * n;
+        return (idsEnd + 7) & ~7L;
+    }
+
+    private static long nextStart(int n) {
+        return distancesStart(n) + 8L * n * n;
+    }
+
+    private static long fileSize(int n) {
+        return nextStart(n) + 4L * n * n;
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    private static void ensureRoom(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            drain(channel, buffer);
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public GraphManager getGraphManager() {
+        return graphManager;
+    }
+
+    @Override
+    public int size() {
+        return n;
+    }
+
+    @Override
+    public double distance(int from, int to) {
+        int chunk = from / rowsPerChunk;
+        return distanceChunks[chunk].getDouble(((from - chunk * rowsPerChunk) * n + to) * 8);
+    }
+
+    @Override
+    public int next(int from, int to) {
+        int chunk = from / rowsPerChunk;
+        return nextChunks[chunk].getInt(((from - chunk * rowsPerChunk) * n + to) * 4);
+    }
+}
@@ -0,0 +1,147 @@
+package com.solvd.algoritms;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+
+/**
+ * Multi-threaded Floyd-Warshall kernels running on a {@link ForkJoinPool}.
+ * Within one step the updated cells only read the pivot row and column, which that step never changes,
+ * so the work can be split freely and the output is bit-for-bit the same as the sequential kernel's.
+ */
+public class ParallelFloydWarshall {
+    private static final double INF = Double.MAX_VALUE;
+
+    // Number of chunks handed to every worker per step, to even out uneven rows
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * @param pool The pool the row and tile updates are submitted to.
+     */
+    public ParallelFloydWarshall(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Parallel version of {@link FloydWarshall#floydWarshall(double[][], int[][])}:
+     * for every intermediate vertex k the rows are split across the pool.
+     *
+     * @param graph The adjacency matrix, replaced by the shortest distances.
+     * @param next  The matrix to store the next vertex in the shortest path.
+     */
+    public void floydWarshall(double[][] graph, int[][] next) {
+        int n = graph.length;
+        int grain = grainFor(n);
+
+        forEach(0, n, grain, i -> {
+            double[] rowI = graph[i];
+            int[] nextI = next[i];
+            for (int j = 0; j < n; j++) {
+                nextI[j] = (rowI[j] != INF && i != j) ? j : -1;
+            }
+        });
+
+        for (int k = 0; k < n; k++) {
+            final int pivot = k;
+            final double[] rowK = graph[k];
+            forEach(0, n, grain, i -> {
+                double[] rowI = graph[i];
+                double dik = rowI[pivot];
+                if (dik == INF) return;
+                int[] nextI = next[i];
+                int nextIK = nextI[pivot];
+                for (int j = 0; j < n; j++) {
+                    double dkj = rowK[j];
+                    if (dkj != INF && dik + dkj < rowI[j]) {
+                        rowI[j] = dik + dkj;
+                        nextI[j] = nextIK;
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Parallel version of {@link BlockedFloydWarshall#floydWarshall(double[][], int[][], int)}.
+     *
+     * @param graph    The adjacency matrix, replaced by the shortest distances.
+     * @param next     The matrix to store the next vertex in the shortest path.
+     * @param tileSize The edge length of a tile.
+     */
+    public void floydWarshall(double[][] graph, int[][] next, int tileSize) {
+        int n = graph.length;
+        double[] dist = BlockedFloydWarshall.flatten(graph);
+        int[] flatNext = new int[n * n];
+
+        floydWarshall(dist, flatNext, n, tileSize);
+
+        BlockedFloydWarshall.unflatten(dist, flatNext, graph, next);
+    }
+
+    /**
+     * Parallel version of {@link BlockedFloydWarshall#floydWarshall(double[], int[], int, int)}:
+     * the diagonal tile of every round is solved on the calling thread, the tiles of phases 2 and 3
+     * are spread across the pool.
+     *
+     * @param dist     The flat adjacency matrix, replaced by the shortest distances.
+     * @param next     The array to store the next vertex in the shortest path.
+     * @param n        The number of vertices.
+     * @param tileSize The edge length of a tile.
+     */
+    public void floydWarshall(double[] dist, int[] next, int n, int tileSize) {
+        if (tileSize <= 0) {
+            throw new IllegalArgumentException("Tile size must be positive: " + tileSize);
+        }
+        forEach(0, n, grainFor(n), i -> {
+            int row = i * n;
+            for (int j = 0; j < n; j++) {
+                next[row + j] = (dist[row + j] != INF && i != j) ? j : -1;
+            }
+        });
+
+        int blocks = (n + tileSize - 1) / tileSize;
+        for (int b = 0; b < blocks; b++) {
+            final int kStart = b * tileSize;
+            final int kEnd = Math.min(n, kStart + tileSize);
+            final int diagonal = b;
+
+            BlockedFloydWarshall.relax(dist, next, n, kStart, kEnd, kStart, kEnd, kStart, kEnd);
+
+            // Phase 2: even indices are row tiles, odd indices are column tiles
+            forEach(0, 2 * blocks, 1, t -> {
+                int c = t / 2;
+                if (c == diagonal) return;
+                int cStart = c * tileSize;
+                int cEnd = Math.min(n, cStart + tileSize);
+                if (t % 2 == 0) {
+                    BlockedFloydWarshall.relax(dist, next, n, kStart, kEnd, kStart, kEnd, cStart, cEnd);
+                } else {
+                    BlockedFloydWarshall.relax(dist, next, n, kStart, kEnd, cStart, cEnd, kStart, kEnd);
+                }
+            });
+
+            forEach(0, blocks * blocks, 1, t -> {
+                int r = t / blocks;
+                int c = t % blocks;
+                if (r == diagonal || c == diagonal) return;
+                int rStart = r * tileSize;
+                int cStart = c * tileSize;
+                BlockedFloydWarshall.relax(dist, next, n, kStart, kEnd,
+                        rStart, Math.min(n, rStart + tileSize), cStart, Math.min(n, cStart + tileSize));
+            });
+        }
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    private int grainFor(int n) {
+        return Math.max(1, n / (pool.getParallelism() * CHUNKS_PER_WORKER));
+    }
+
+    private void forEach(int from, int to, int grain, IntConsumer body) {
+        RangeTask.forEach(pool, from, to, grain, body);
+    }
+}
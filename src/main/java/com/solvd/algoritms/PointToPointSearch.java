@@ -0,0 +1,155 @@
+package com.solvd.algoritms;
+
+import com.solvd.utils.CsrGraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Single-pair shortest path searches over a {@link RoadNetwork}.
+ * Each query costs O(E log V) instead of solving all pairs.
+ */
+public final class PointToPointSearch {
+    private static final double INF = Double.MAX_VALUE;
+
+    private PointToPointSearch() {
+    }
+
+    /**
+     * A found path: vertex indices from source to target and the total distance.
+     * An empty vertex list means the target is unreachable.
+     */
+    public static class Path {
+        public final List<Integer> vertices;
+        public final double distance;
+
+        Path(List<Integer> vertices, double distance) {
+            this.vertices = vertices;
+            this.distance = distance;
+        }
+    }
+
+    /**
+     * A* search guided by the straight-line distance to the target.
+     *
+     * @param network The network to search.
+     * @param source  The source vertex index.
+     * @param target  The target vertex index.
+     * @return The shortest path.
+     */
+    public static Path aStar(RoadNetwork network, int source, int target) {
+        CsrGraph graph = network.getForward();
+        int n = graph.size();
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        double[] weights = graph.getWeights();
+        double[] dist = new double[n];
+        int[] parent = new int[n];
+        Arrays.fill(dist, INF);
+        Arrays.fill(parent, -1);
+        VertexHeap heap = new VertexHeap(n);
+
+        dist[source] = 0.0;
+        heap.offer(source, network.straightLine(source, target));
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            if (u == target) break;
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = targets[e];
+                double candidate = dist[u] + weights[e];
+                if (candidate < dist[v]) {
+                    // A vertex may be queued again if rounding made the heuristic slightly inconsistent
+                    dist[v] = candidate;
+                    parent[v] = u;
+                    heap.offer(v, candidate + network.straightLine(v, target));
+                }
+            }
+        }
+
+        if (dist[target] == INF) {
+            return new Path(new ArrayList<>(), INF);
+        }
+        List<Integer> vertices = new ArrayList<>();
+        for (int v = target; v != -1; v = parent[v]) {
+            vertices.add(v);
+        }
+        Collections.reverse(vertices);
+        return new Path(vertices, dist[target]);
+    }
+
+    /**
+     * Bidirectional Dijkstra: grows one search from the source and one backwards from the target,
+     * always expanding the side with the smaller frontier key, and stops once the two frontiers
+     * together cannot beat the best meeting point found so far.
+     *
+     * @param network The network to search.
+     * @param source  The source vertex index.
+     * @param target  The target vertex index.
+     * @return The shortest path.
+     */
+    public static Path bidirectionalDijkstra(RoadNetwork network, int source, int target) {
+        CsrGraph forward = network.getForward();
+        CsrGraph reverse = network.getReverse();
+        int n = forward.size();
+        double[] distForward = new double[n];
+        double[] distBackward = new double[n];
+        int[] parentForward = new int[n];
+        int[] parentBackward = new int[n];
+        Arrays.fill(distForward, INF);
+        Arrays.fill(distBackward, INF);
+        Arrays.fill(parentForward, -1);
+        Arrays.fill(parentBackward, -1);
+        VertexHeap heapForward = new VertexHeap(n);
+        VertexHeap heapBackward = new VertexHeap(n);
+
+        distForward[source] = 0.0;
+        distBackward[target] = 0.0;
+        heapForward.offer(source, 0.0);
+        heapBackward.offer(target, 0.0);
+        double best = source == target ? 0.0 : INF;
+        int meeting = source == target ? source : -1;
+
+        while (!heapForward.isEmpty() && !heapBackward.isEmpty()) {
+            if (heapForward.peekKey() + heapBackward.peekKey() >= best) break;
+            boolean expandForward = heapForward.peekKey() <= heapBackward.peekKey();
+            CsrGraph graph = expandForward ? forward : reverse;
+            VertexHeap heap = expandForward ? heapForward : heapBackward;
+            double[] dist = expandForward ? distForward : distBackward;
+            double[] otherDist = expandForward ? distBackward : distForward;
+            int[] parent = expandForward ? parentForward : parentBackward;
+
+            int u = heap.poll();
+            int[] offsets = graph.getOffsets();
+            int[] targets = graph.getTargets();
+            double[] weights = graph.getWeights();
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = targets[e];
+                double candidate = dist[u] + weights[e];
+                if (candidate < dist[v]) {
+                    dist[v] = candidate;
+                    parent[v] = u;
+                    heap.offer(v, candidate);
+                }
+                if (otherDist[v] != INF && candidate + otherDist[v] < best) {
+                    best = candidate + otherDist[v];
+                    meeting = v;
+                }
+            }
+        }
+
+        if (meeting == -1) {
+            return new Path(new ArrayList<>(), INF);
+        }
+        List<Integer> vertices = new ArrayList<>();
+        for (int v = meeting; v != -1; v = parentForward[v]) {
+            vertices.add(v);
+        }
+        Collections.reverse(vertices);
+        for (int v = parentBackward[meeting]; v != -1; v = parentBackward[v]) {
+            vertices.add(v);
+        }
+        return new Path(vertices, distForward[meeting] + distBackward[meeting]);
+    }
+}
@@ -0,0 +1,45 @@
+package com.solvd.algoritms;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Runs the body for every index in [from, to), splitting the range in halves down to the grain size.
+ */
+final class RangeTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final int from;
+    private final int to;
+    private final int grain;
+    private final IntConsumer body;
+
+    RangeTask(int from, int to, int grain, IntConsumer body) {
+        this.from = from;
+        this.to = to;
+        this.grain = grain;
+        this.body = body;
+    }
+
+    /**
+     * Runs the body for every index in [from, to) on the pool and waits for all of them.
+     */
+    static void forEach(ForkJoinPool pool, int from, int to, int grain, IntConsumer body) {
+        if (from < to) {
+            pool.invoke(new RangeTask(from, to, grain, body));
+        }
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= grain) {
+            for (int i = from; i < to; i++) {
+                body.accept(i);
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        invokeAll(new RangeTask(from, mid, grain, body), new RangeTask(mid, to, grain, body));
+    }
+}
@@ -0,0 +1,200 @@
+package com.solvd.algoritms;
+
+import com.solvd.metrics.RoutingMetrics;
+import com.solvd.models.Road;
+import com.solvd.utils.BusGraph;
+import com.solvd.utils.CsrGraph;
+import com.solvd.utils.GraphManager;
+import com.solvd.utils.StationRegistry;
+
+/**
+ * Sparse view of the network for one transport mode, used by the single-pair engines.
+ * For CAR every vertex is a station; for BUS the vertices are those of the sparse {@link BusGraph}.
+ * Holds the forward and reverse CSR graphs and the coordinates of every vertex's station.
+ * A network never changes once loaded; a road change yields a patched copy of the newer version.
+ */
+public class RoadNetwork {
+    private final long version;
+    private final GraphManager graphManager;
+    private final BusGraph busGraph;
+    private final CsrGraph forward;
+    private final CsrGraph reverse;
+    private final double[] xCoords;
+    private final double[] yCoords;
+
+    private RoadNetwork(long version, GraphManager graphManager, BusGraph busGraph, CsrGraph forward,
+                        CsrGraph reverse, double[] xCoords, double[] yCoords) {
+        this.version = version;
+        this.graphManager = graphManager;
+        this.busGraph = busGraph;
+        this.forward = forward;
+        this.reverse = reverse;
+        this.xCoords = xCoords;
+        this.yCoords = yCoords;
+    }
+
+    private RoadNetwork(long version, GraphManager graphManager, BusGraph busGraph, CsrGraph forward) {
+        this.version = version;
+        this.graphManager = graphManager;
+        this.busGraph = busGraph;
+        this.forward = forward;
+        this.reverse = forward.reversed();
+        StationRegistry stations = graphManager.getStationRegistry();
+        int n = forward.size();
+        this.xCoords = new double[n];
+        this.yCoords = new double[n];
+        for (int v = 0; v < n; v++) {
+            int station = busGraph == null ? v : busGraph.getStationIndex(v);
+            xCoords[v] = stations.x(station);
+            yCoords[v] = stations.y(station);
+        }
+    }
+
+    /**
+     * Loads the network for the given mode.
+     *
+     * @param mode    The mode of transportation ("CAR" or "BUS").
+     * @param version The graph version the loaded data belongs to.
+     * @return The network.
+     */
+    public static RoadNetwork load(String mode, long version) {
+        GraphManager gm = new GraphManager();
+        long start = System.nanoTime();
+        RoadNetwork network;
+        if (mode.equalsIgnoreCase("BUS")) {
+            BusGraph bg = gm.buildSparseBusGraph();
+            network = new RoadNetwork(version, gm, bg, bg.getCsr());
+        } else {
+            network = new RoadNetwork(version, gm, null, gm.buildCsrGraph(mode));
+        }
+        RoutingMetrics.record(RoutingMetrics.Stage.GRAPH_BUILD, start);
+        return network;
+    }
+
+    /**
+     * Applies a road change to a copy of the network, in time linear in the number of edges but without
+     * reading the source again. Roads of another mode leave the edges unchanged, so the copy shares them.
+     *
+     * @param previous The road before the change, or {@code null} if it was added.
+     * @param road     The road after the change, or {@code null} if it was removed.
+     * @param version  The graph version the change leads to.
+     * @return The network of the given version, or {@code null} if the change cannot be expressed in the current
+     *         network (e.g. an unknown station, or a bus color appearing at or vanishing from a station).
+     */
+    RoadNetwork replaceRoad(Road previous, Road road, long version) {
+        String mode = busGraph == null ? "CAR" : "BUS";
+        CsrGraph newForward = forward;
+        CsrGraph newReverse = reverse;
+        int[] oldEdge = null;
+        if (previous != null && previous.getMode().equalsIgnoreCase(mode)) {
+            oldEdge = resolve(previous);
+            if (oldEdge == null) {
+                return null;
+            }
+            if (oldEdge[0] != oldEdge[1] || busGraph != null) {
+                double weight = graphManager.distanceBetween(oldEdge[2], oldEdge[3]);
+                newForward = newForward.withoutEdge(oldEdge[0], oldEdge[1], weight);
+                newReverse = newReverse.withoutEdge(oldEdge[1], oldEdge[0], weight);
+                if (!previous.isOneWay() && newForward != null) {
+                    newForward = newForward.withoutEdge(oldEdge[1], oldEdge[0], weight);
+                    newReverse = newReverse.withoutEdge(oldEdge[0], oldEdge[1], weight);
+                }
+                if (newForward == null || newReverse == null) {
+                    return null;
+                }
+            }
+        }
+        if (road != null && road.getMode().equalsIgnoreCase(mode)) {
+            int[] newEdge = resolve(road);
+            if (newEdge == null) {
+                return null;
+            }
+            if (newEdge[0] != newEdge[1] || busGraph != null) {
+                double weight = graphManager.distanceBetween(newEdge[2], newEdge[3]);
+                newForward = newForward.withEdge(newEdge[0], newEdge[1], weight);
+                newReverse = newReverse.withEdge(newEdge[1], newEdge[0], weight);
+                if (!road.isOneWay()) {
+                    newForward = newForward.withEdge(newEdge[1], newEdge[0], weight);
+                    newReverse = newReverse.withEdge(newEdge[0], newEdge[1], weight);
+                }
+            }
+        }
+        // A color vertex left without roads would not be part of a freshly loaded bus graph
+        if (oldEdge != null && busGraph != null && (!hasRoad(newForward, newReverse, oldEdge[0])
+                || !hasRoad(newForward, newReverse, oldEdge[1]))) {
+            return null;
+        }
+        return new RoadNetwork(version, graphManager, busGraph, newForward, newReverse, xCoords, yCoords);
+    }
+
+    /**
+     * Maps a road to {from vertex, to vertex, from station index, to station index}.
+     *
+     * @return The indices, or {@code null} if a station or bus vertex is not part of the network.
+     */
+    private int[] resolve(Road road) {
+        int fromStation = graphManager.indexOfStation(road.getFromStationId());
+        int toStation = graphManager.indexOfStation(road.getToStationId());
+        if (fromStation == -1 || toStation == -1) {
+            return null;
+        }
+        if (busGraph == null) {
+            return new int[]{fromStation, toStation, fromStation, toStation};
+        }
+        Integer fromVertex = busGraph.getVertexToIndex().get(road.getFromStationId() + "_" + road.getBusColor());
+        Integer toVertex = busGraph.getVertexToIndex().get(road.getToStationId() + "_" + road.getBusColor());
+        if (fromVertex == null || toVertex == null) {
+            return null;
+        }
+        return new int[]{fromVertex, toVertex, fromStation, toStation};
+    }
+
+    /**
+     * Whether a bus vertex still has an edge of a road, rather than only the free ones to its TRANSFER vertex.
+     */
+    private boolean hasRoad(CsrGraph forward, CsrGraph reverse, int vertex) {
+        for (CsrGraph graph : new CsrGraph[]{forward, reverse}) {
+            int[] offsets = graph.getOffsets();
+            int[] targets = graph.getTargets();
+            for (int e = offsets[vertex]; e < offsets[vertex + 1]; e++) {
+                if (!"TRANSFER".equals(busGraph.getVertices().get(targets[e]).getLabel())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Straight-line distance between two vertices; never more than the road distance,
+     * since every road is as long as the straight line between its stations.
+     */
+    public double straightLine(int from, int to) {
+        double dx = xCoords[from] - xCoords[to];
+        double dy = yCoords[from] - yCoords[to];
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public GraphManager getGraphManager() {
+        return graphManager;
+    }
+
+    /**
+     * @return The sparse bus graph, or {@code null} for CAR.
+     */
+    public BusGraph getBusGraph() {
+        return busGraph;
+    }
+
+    public CsrGraph getForward() {
+        return forward;
+    }
+
+    public CsrGraph getReverse() {
+        return reverse;
+    }
+}
@@ -0,0 +1,335 @@
+package com.solvd.algoritms;
+
+import com.solvd.config.NavigationConfig;
+import com.solvd.dao.IGraphChangeDAO;
+import com.solvd.dao.implementation.GraphChangeDAOImpl;
+import com.solvd.dao.implementation.GraphFileChangeDAOImpl;
+import com.solvd.metrics.RoutingMetrics;
+import com.solvd.models.GraphChange;
+import com.solvd.models.Road;
+import com.solvd.utils.GraphManager;
+import com.solvd.utils.GraphVersion;
+import com.solvd.utils.StationRegistry;
+
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-mode cache of solved all-pairs shortest paths.
+ * An entry is reused as long as its version matches {@link GraphVersion#current()},
+ * so repeated route queries only pay for path reconstruction.
+ * Writes are picked up from the {@code graph_changes} log (or, when graphs are built from a graph file, from
+ * the file's modification time), polled at most every
+ * {@code navigation.changes.pollInterval} milliseconds and right after a write through the services,
+ * so writes from other processes are seen too. Every change bumps the version; road changes are applied
+ * to copies of the cached solutions incrementally where possible, otherwise the entry is left stale and rebuilt
+ * on the next query. The sparse networks are patched the same way. Cached solutions and networks are never
+ * changed, so callers may keep reading them outside the lock.
+ * <p>
+ * Change IDs are handed out when a change is written, not when it commits, so a change may become visible after
+ * later ones. An ID skipped by the log is therefore read again on every poll for {@code navigation.changes.gapTimeout}
+ * milliseconds. If it shows up, the later changes were already applied without it, so everything is reloaded; if
+ * it does not, its transaction is taken to have rolled back.
+ * When snapshots are enabled, every full solve is also written to a {@link MappedSnapshot},
+ * which serves queries after a restart until the network changes.
+ */
+public final class RouteCache {
+    // Skipping more IDs at once than this is not a commit race but a log that jumps, e.g. the graph file's
+    private static final int MAX_TRACKED_GAP = 1024;
+    private static final Map<String, SolvedGraph> SOLVED = new HashMap<>();
+    private static final Map<String, RoadNetwork> NETWORKS = new HashMap<>();
+    private static final Map<String, MappedSnapshot> SNAPSHOTS = new HashMap<>();
+    // Version at which the snapshot file was last looked at, so a missing or stale file is only checked once
+    private static final Map<String, Long> SNAPSHOTS_CHECKED = new HashMap<>();
+    private static StationRegistry stations;
+    private static long stationsVersion = -1;
+    private static IGraphChangeDAO changeLog = defaultChangeLog();
+    // Last change of the log applied to the cache, -1 until the first poll
+    private static long changePosition = -1;
+    // IDs below changePosition not seen yet, with the time they were first missed
+    private static final TreeMap<Long, Long> GAPS = new TreeMap<>();
+    private static long lastPoll;
+
+    private RouteCache() {
+    }
+
+    /**
+     * The log matching the graphs {@link GraphManager} builds by default: the graph file's own log when
+     * {@code navigation.graph.file} is set, since database writes never reach the file, otherwise {@code graph_changes}.
+     */
+    private static IGraphChangeDAO defaultChangeLog() {
+        String file = NavigationConfig.get("navigation.graph.file", "");
+        return file.isEmpty() ? new GraphChangeDAOImpl() : new GraphFileChangeDAOImpl(Paths.get(file));
+    }
+
+    /**
+     * Returns the solved graph for the given mode, recomputing it if the network changed.
+     *
+     * @param mode The mode of transportation ("CAR" or "BUS").
+     * @return The solved graph for the current network version.
+     */
+    public static synchronized SolvedGraph get(String mode) {
+        String key = mode.toUpperCase();
+        pollIfDue();
+        long version = GraphVersion.current();
+        SolvedGraph solved = SOLVED.get(key);
+        if (solved == null || solved.getVersion() != version) {
+            RoutingMetrics.increment(RoutingMetrics.Counter.CACHE_MISSES);
+            solved = SolvedGraph.solve(key, version);
+            // A change logged while loading may already be in the solution, and applying it again would count
+            // its road twice, so such a solution only answers this query and the log is polled on the next one
+            if (changeLog.getLatestChangeId() == changePosition) {
+                SOLVED.put(key, solved);
+                MappedSnapshot.writeAsync(solved);
+            } else {
+                lastPoll = 0;
+            }
+        } else {
+            RoutingMetrics.increment(RoutingMetrics.Counter.CACHE_HITS);
+        }
+        return solved;
+    }
+
+    /**
+     * Returns a snapshot of the given mode for its configured engine. The all-pairs solution is only attached
+     * when the engine reads it: always for "floyd-warshall", for the CAR engine "auto" only if the solved graph
+     * is already up to date. The other engines get the network alone, which is never solved.
+     *
+     * @param mode The mode of transportation ("CAR" or "BUS").
+     * @return The snapshot of the current network version.
+     */
+    public static synchronized RoutingSnapshot snapshot(String mode) {
+        String key = mode.toUpperCase();
+        String engine = FloydWarshall.engine(key);
+        if (engine.equals("floyd-warshall")) {
+            return solvedSnapshot(key);
+        }
+        if (engine.equals("auto")) {
+            pollIfDue();
+            SolvedGraph solved = SOLVED.get(key);
+            if (solved != null && solved.getVersion() == GraphVersion.current()) {
+                return solvedSnapshot(key);
+            }
+        }
+        return RoutingSnapshot.of(key, network(key));
+    }
+
+    /**
+     * Returns the solved graph for the given mode together with its network, solving it first if the network changed.
+     *
+     * @param mode The mode of transportation ("CAR" or "BUS").
+     * @return The snapshot of the current network version, with its all-pairs solution.
+     */
+    public static synchronized RoutingSnapshot solvedSnapshot(String mode) {
+        SolvedGraph solved = get(mode);
+        RoadNetwork network = network(mode);
+        // Loading the network may poll the change log and move on to a newer version
+        while (network.getVersion() != solved.getVersion()) {
+            solved = get(mode);
+            network = network(mode);
+        }
+        return RoutingSnapshot.of(solved, network);
+    }
+
+    /**
+     * Returns an all-pairs solution for the given mode, preferring the solved graph, then a snapshot
+     * matching the current network, and only solving from scratch if neither is available.
+     *
+     * @param mode The mode of transportation ("CAR" or "BUS").
+     * @return The solution for the current network version.
+     */
+    public static synchronized ShortestPathTable table(String mode) {
+        ShortestPathTable table = peek(mode);
+        if (table == null) {
+            return get(mode);
+        }
+        RoutingMetrics.increment(RoutingMetrics.Counter.CACHE_HITS);
+        return table;
+    }
+
+    /**
+     * Returns an all-pairs solution for the given mode only if it needs no solving:
+     * the solved graph if it is up to date, otherwise a snapshot matching the current network.
+     *
+     * @param mode The mode of transportation ("CAR" or "BUS").
+     * @return The solution, or {@code null} if it would have to be computed.
+     */
+    public static synchronized ShortestPathTable peek(String mode) {
+        String key = mode.toUpperCase();
+        pollIfDue();
+        long version = GraphVersion.current();
+        SolvedGraph solved = SOLVED.get(key);
+        if (solved != null && solved.getVersion() == version) {
+            return solved;
+        }
+        Long checked = SNAPSHOTS_CHECKED.get(key);
+        if ((checked == null || checked != version) && MappedSnapshot.isEnabled(key)) {
+            SNAPSHOTS.put(key, MappedSnapshot.open(key, network(key)));
+            SNAPSHOTS_CHECKED.put(key, version);
+        }
+        MappedSnapshot snapshot = SNAPSHOTS.get(key);
+        return snapshot != null && snapshot.getVersion() == version ? snapshot : null;
+    }
+
+    /**
+     * Returns the sparse network for the given mode, reloading it if the network changed
+     * in a way the change log could not patch.
+     *
+     * @param mode The mode of transportation ("CAR" or "BUS").
+     * @return The network for the current version.
+     */
+    public static synchronized RoadNetwork network(String mode) {
+        String key = mode.toUpperCase();
+        pollIfDue();
+        long version = GraphVersion.current();
+        RoadNetwork network = NETWORKS.get(key);
+        if (network == null || network.getVersion() != version) {
+            RoutingMetrics.increment(RoutingMetrics.Counter.CACHE_MISSES);
+            network = RoadNetwork.load(key, version);
+            NETWORKS.put(key, network);
+        } else {
+            RoutingMetrics.increment(RoutingMetrics.Counter.CACHE_HITS);
+        }
+        return network;
+    }
+
+    /**
+     * Returns the index of every station, for looking stations up by ID or name, reloading the stations
+     * if the network changed. The index of a graph cached for the current version is reused when there is one.
+     *
+     * @return The stations of the current network version.
+     */
+    public static synchronized StationRegistry stations() {
+        pollIfDue();
+        long version = GraphVersion.current();
+        if (stationsVersion != version) {
+            stations = null;
+            for (SolvedGraph solved : SOLVED.values()) {
+                if (solved.getVersion() == version) {
+                    stations = solved.getGraphManager().getStationRegistry();
+                }
+            }
+            for (RoadNetwork network : NETWORKS.values()) {
+                if (network.getVersion() == version) {
+                    stations = network.getGraphManager().getStationRegistry();
+                }
+            }
+            if (stations == null) {
+                stations = new GraphManager().loadStations();
+            }
+            stationsVersion = version;
+        }
+        return stations;
+    }
+
+    /**
+     * Polls the change log now and applies every change logged since the last poll.
+     * Called after writes, so the writing process sees its own change on the next query.
+     */
+    public static synchronized void refresh() {
+        pollChanges();
+    }
+
+    private static void pollIfDue() {
+        long interval = NavigationConfig.getInt("navigation.changes.pollInterval", 1000);
+        if (System.currentTimeMillis() - lastPoll >= interval) {
+            pollChanges();
+        }
+    }
+
+    private static void pollChanges() {
+        lastPoll = System.currentTimeMillis();
+        if (changePosition < 0) {
+            // Nothing was loaded yet, so only the position is needed
+            changePosition = changeLog.getLatestChangeId();
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long timeout = NavigationConfig.getInt("navigation.changes.gapTimeout", 30000);
+        GAPS.values().removeIf(missedAt -> now - missedAt >= timeout);
+        List<GraphChange> changes = changeLog.getChangesSince(GAPS.isEmpty() ? changePosition : GAPS.firstKey() - 1);
+        for (int i = 0; i < changes.size(); i++) {
+            GraphChange change = changes.get(i);
+            long changeId = change.getChangeId();
+            if (changeId <= changePosition) {
+                if (GAPS.remove(changeId) != null) {
+                    // Committed after later changes were applied, so only a reload is sure to include it once
+                    RoutingMetrics.increment(RoutingMetrics.Counter.CHANGES_APPLIED);
+                    GraphVersion.bump();
+                }
+                continue;
+            }
+            if (changeId - changePosition - 1 <= MAX_TRACKED_GAP) {
+                for (long missing = changePosition + 1; missing < changeId; missing++) {
+                    GAPS.put(missing, now);
+                }
+            }
+            RoutingMetrics.increment(RoutingMetrics.Counter.CHANGES_APPLIED);
+            long version = GraphVersion.bump();
+            if (change.getEntity().equals("ROAD")) {
+                GraphChange next = i + 1 < changes.size() ? changes.get(i + 1) : null;
+                if (change.getOperation().equals("DELETE") && next != null && next.getEntity().equals("ROAD")
+                        && next.getOperation().equals("INSERT") && next.getEntityId().equals(change.getEntityId())) {
+                    // An update, logged as the old road followed by the new one
+                    roadChanged(change.toRoad(), next.toRoad(), version);
+                    RoutingMetrics.increment(RoutingMetrics.Counter.CHANGES_APPLIED);
+                    change = next;
+                    i++;
+                } else if (change.getOperation().equals("INSERT")) {
+                    roadChanged(null, change.toRoad(), version);
+                } else {
+                    roadChanged(change.toRoad(), null, version);
+                }
+            }
+            // Station and bulk changes only bump the version, so every entry is rebuilt on its next use
+            changePosition = change.getChangeId();
+        }
+    }
+
+    private static void roadChanged(Road previous, Road road, long version) {
+        for (Map.Entry<String, SolvedGraph> entry : SOLVED.entrySet()) {
+            if (entry.getValue().getVersion() == version - 1) {
+                SolvedGraph repaired = entry.getValue().replaceRoad(previous, road, version);
+                if (repaired != null) {
+                    entry.setValue(repaired);
+                }
+            }
+        }
+        for (Map.Entry<String, RoadNetwork> entry : NETWORKS.entrySet()) {
+            if (entry.getValue().getVersion() == version - 1) {
+                RoadNetwork patched = entry.getValue().replaceRoad(previous, road, version);
+                if (patched != null) {
+                    entry.setValue(patched);
+                }
+            }
+        }
+    }
+
+    /**
+     * Switches to another change log, e.g. the one of the in-memory DAOs, and drops every cached entry.
+     * Use together with {@link com.solvd.utils.GraphManager#setDefaultSource}, so the log matches the graphs.
+     *
+     * @param changes The change log to poll.
+     */
+    public static synchronized void setChangeLog(IGraphChangeDAO changes) {
+        changeLog = changes;
+        changePosition = -1;
+        GAPS.clear();
+        clear();
+    }
+
+    /**
+     * Drops every cached entry.
+     */
+    public static synchronized void clear() {
+        SOLVED.clear();
+        NETWORKS.clear();
+        SNAPSHOTS.clear();
+        SNAPSHOTS_CHECKED.clear();
+        stations = null;
+        stationsVersion = -1;
+    }
+}
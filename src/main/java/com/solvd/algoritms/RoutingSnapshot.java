@@ -0,0 +1,129 @@
+package com.solvd.algoritms;
+
+import com.solvd.utils.BusGraph;
+import com.solvd.utils.GraphManager;
+import com.solvd.utils.StationRegistry;
+
+/**
+ * Immutable solution of one transport mode, safe to share between threads.
+ * Pairs the distance and next matrices of a {@link SolvedGraph}, which never change once solved,
+ * with the vertex tables of the bus graph, the station registry, and the sparse {@link RoadNetwork}
+ * of the same version, so every engine can answer from it. A snapshot for engines that only search the
+ * network has no all-pairs solution at all, so building it never solves the O(n³) kernel.
+ */
+public final class RoutingSnapshot implements ShortestPathTable {
+    private final String mode;
+    private final long version;
+    private final GraphManager graphManager;
+    private final BusGraph busGraph;
+    private final double[][] distances;
+    private final int[][] next;
+    private final RoadNetwork network;
+
+    private RoutingSnapshot(String mode, SolvedGraph solved, RoadNetwork network) {
+        this.mode = mode;
+        this.version = network.getVersion();
+        // Never changes after loading, and searching the same edge order breaks ties as the cached queries do
+        this.network = network;
+        if (solved == null) {
+            this.graphManager = network.getGraphManager();
+            this.busGraph = network.getBusGraph();
+            this.distances = null;
+            this.next = null;
+            return;
+        }
+        this.graphManager = solved.getGraphManager();
+        this.distances = solved.getDistances();
+        this.next = solved.getNext();
+        // Only the vertex tables are read; the network's CSR holds the same edges, so the dense matrix is not kept
+        this.busGraph = solved.getBusGraph() == null ? null : solved.getBusGraph().withCsr(network.getForward());
+    }
+
+    /**
+     * Wraps a solved graph together with its network.
+     *
+     * @param solved  The solved graph to serve.
+     * @param network The network of the same mode and version.
+     * @return The snapshot.
+     */
+    static RoutingSnapshot of(SolvedGraph solved, RoadNetwork network) {
+        if (network.getVersion() != solved.getVersion()) {
+            throw new IllegalArgumentException("Network version " + network.getVersion()
+                    + " does not match solved graph version " + solved.getVersion());
+        }
+        return new RoutingSnapshot(solved.getMode(), solved, network);
+    }
+
+    /**
+     * Wraps a network without an all-pairs solution, for the engines that search the network.
+     *
+     * @param mode    The mode of the network ("CAR" or "BUS").
+     * @param network The network to serve.
+     * @return The snapshot.
+     */
+    static RoutingSnapshot of(String mode, RoadNetwork network) {
+        return new RoutingSnapshot(mode.toUpperCase(), null, network);
+    }
+
+    /**
+     * @return Whether the snapshot holds an all-pairs solution; without one, {@link #distance} and {@link #next} fail.
+     */
+    public boolean isSolved() {
+        return distances != null;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public GraphManager getGraphManager() {
+        return graphManager;
+    }
+
+    public StationRegistry getStations() {
+        return graphManager.getStationRegistry();
+    }
+
+    /**
+     * @return The vertex tables of the bus graph, without a dense matrix, or {@code null} for CAR.
+     */
+    public BusGraph getBusGraph() {
+        return busGraph;
+    }
+
+    /**
+     * @return The same edges in sparse form, for the single-pair engines.
+     */
+    public RoadNetwork getNetwork() {
+        return network;
+    }
+
+    @Override
+    public int size() {
+        return network.getForward().size();
+    }
+
+    @Override
+    public double distance(int from, int to) {
+        return solution()[from][to];
+    }
+
+    @Override
+    public int next(int from, int to) {
+        solution();
+        return next[from][to];
+    }
+
+    private double[][] solution() {
+        if (distances == null) {
+            throw new IllegalStateException("The " + mode + " snapshot of version " + version
+                    + " has no all-pairs solution");
+        }
+        return distances;
+    }
+}
@@ -0,0 +1,30 @@
+package com.solvd.algoritms;
+
+import com.solvd.utils.GraphManager;
+
+/**
+ * Read-only all-pairs solution: shortest distances and next hops between station indices.
+ * Implemented by the in-memory {@link SolvedGraph} and the file-backed {@link MappedSnapshot}.
+ */
+public interface ShortestPathTable {
+
+    /**
+     * @return The graph manager whose station order the indices follow.
+     */
+    GraphManager getGraphManager();
+
+    /**
+     * @return The number of vertices.
+     */
+    int size();
+
+    /**
+     * @return The shortest distance from one vertex to another, {@link Double#MAX_VALUE} if unreachable.
+     */
+    double distance(int from, int to);
+
+    /**
+     * @return The vertex after {@code from} on the shortest path to {@code to}, or -1 if there is none.
+     */
+    int next(int from, int to);
+}
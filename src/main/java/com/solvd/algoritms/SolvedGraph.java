@@ -0,0 +1,299 @@
+package com.solvd.algoritms;
+
+import com.solvd.config.NavigationConfig;
+import com.solvd.metrics.RoutingMetrics;
+import com.solvd.models.Road;
+import com.solvd.utils.BusGraph;
+import com.solvd.utils.CsrGraph;
+import com.solvd.utils.GraphManager;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Result of a full Floyd-Warshall run for one transport mode.
+ * Holds the solved distance and next matrices together with the graph they were
+ * computed from and the {@link com.solvd.utils.GraphVersion} they belong to.
+ * A solution never changes once solved, so it can be read by any number of threads: a road change
+ * is applied to a copy, which becomes the solution of the newer version.
+ */
+public class SolvedGraph implements ShortestPathTable {
+    private static final double INF = Double.MAX_VALUE;
+
+    private final String mode;
+    private final long version;
+    private final GraphManager graphManager;
+    private final BusGraph busGraph;
+    private final double[][] adjacency;
+    private final double[][] distances;
+    private final int[][] next;
+
+    // Number of roads backing every directed edge, keyed by edgeKey(from, to)
+    private final Map<Long, Integer> edgeRoads;
+    // BUS only: number of road ends at every color vertex; a vertex without any disappears on rebuild
+    private final Map<Integer, Integer> roadEnds;
+
+    private SolvedGraph(String mode, long version, GraphManager graphManager, BusGraph busGraph,
+                        double[][] adjacency, double[][] distances, int[][] next,
+                        Map<Long, Integer> edgeRoads, Map<Integer, Integer> roadEnds) {
+        this.mode = mode;
+        this.version = version;
+        this.graphManager = graphManager;
+        this.busGraph = busGraph;
+        this.adjacency = adjacency;
+        this.distances = distances;
+        this.next = next;
+        this.edgeRoads = edgeRoads;
+        this.roadEnds = roadEnds;
+    }
+
+    /**
+     * Loads the network for the given mode and runs Floyd-Warshall on it.
+     *
+     * @param mode    The mode of transportation ("CAR" or "BUS").
+     * @param version The graph version the loaded data belongs to.
+     * @return The solved graph.
+     */
+    public static SolvedGraph solve(String mode, long version) {
+        GraphManager gm = new GraphManager();
+        Map<Long, Integer> edgeRoads = new HashMap<>();
+        Map<Integer, Integer> roadEnds = mode.equalsIgnoreCase("BUS") ? new HashMap<>() : null;
+        // The roads are streamed into the graph, so they are counted on the way
+        GraphManager.RoadVisitor counter = (from, to, oneWay) -> countRoad(edgeRoads, roadEnds, from, to, oneWay, 1);
+        BusGraph bg = null;
+        double[][] adjacency;
+        long start = System.nanoTime();
+        if (mode.equalsIgnoreCase("BUS")) {
+            bg = gm.buildBusGraph(counter);
+            adjacency = bg.getMatrix();
+        } else {
+            adjacency = gm.buildAdjacencyMatrix(mode, counter);
+        }
+        RoutingMetrics.record(RoutingMetrics.Stage.GRAPH_BUILD, start);
+
+        int n = adjacency.length;
+        SolvedGraph solved = new SolvedGraph(mode, version, gm, bg, adjacency, new double[n][n], new int[n][n],
+                edgeRoads, roadEnds);
+        solved.solveFromScratch();
+        return solved;
+    }
+
+    /**
+     * Applies a road change to a copy of the solution, leaving this one untouched for its readers.
+     * The copy costs O(n²); added edges are then relaxed in O(n²) each, and removed edges only repair the pairs
+     * whose path used them, falling back to solving the copied adjacency from scratch if too many pairs are affected.
+     * Roads of another mode leave the matrices unchanged, so the copy shares them.
+     *
+     * @param previous The road before the change, or {@code null} if it was added.
+     * @param road     The road after the change, or {@code null} if it was removed.
+     * @param version  The graph version the change leads to.
+     * @return The solution of the given version, or {@code null} if the change cannot be expressed in the current
+     *         graph (e.g. an unknown station, or a bus color appearing at or vanishing from a station).
+     */
+    SolvedGraph replaceRoad(Road previous, Road road, long version) {
+        boolean removes = previous != null && previous.getMode().equalsIgnoreCase(mode);
+        boolean adds = road != null && road.getMode().equalsIgnoreCase(mode);
+        int[] oldEdge = removes ? resolve(previous) : null;
+        int[] newEdge = adds ? resolve(road) : null;
+        if ((removes && oldEdge == null) || (adds && newEdge == null)) {
+            return null;
+        }
+        if (!removes && !adds) {
+            return new SolvedGraph(mode, version, graphManager, busGraph, adjacency, distances, next, edgeRoads, roadEnds);
+        }
+        long start = System.nanoTime();
+
+        Map<Long, Integer> copiedEdgeRoads = new HashMap<>(edgeRoads);
+        Map<Integer, Integer> copiedRoadEnds = roadEnds == null ? null : new HashMap<>(roadEnds);
+        if (removes) countRoad(copiedEdgeRoads, copiedRoadEnds, oldEdge[0], oldEdge[1], previous.isOneWay(), -1);
+        if (adds) countRoad(copiedEdgeRoads, copiedRoadEnds, newEdge[0], newEdge[1], road.isOneWay(), 1);
+        if (removes && copiedRoadEnds != null
+                && (copiedRoadEnds.getOrDefault(oldEdge[0], 0) == 0 || copiedRoadEnds.getOrDefault(oldEdge[1], 0) == 0)) {
+            return null;
+        }
+
+        int n = adjacency.length;
+        double[][] copiedDistances = new double[n][];
+        int[][] copiedNext = new int[n][];
+        double[][] copiedAdjacency = new double[n][];
+        for (int i = 0; i < n; i++) {
+            copiedAdjacency[i] = adjacency[i].clone();
+            copiedDistances[i] = distances[i].clone();
+            copiedNext[i] = next[i].clone();
+        }
+        SolvedGraph repaired = new SolvedGraph(mode, version, graphManager, busGraph, copiedAdjacency,
+                copiedDistances, copiedNext, copiedEdgeRoads, copiedRoadEnds);
+        if (adds) {
+            double weight = graphManager.distanceBetween(newEdge[2], newEdge[3]);
+            repaired.addEdge(newEdge[0], newEdge[1], weight);
+            if (!road.isOneWay()) {
+                repaired.addEdge(newEdge[1], newEdge[0], weight);
+            }
+        }
+        if (removes) {
+            long maxAffectedPairs = (long) (NavigationConfig.getDouble("navigation.dynamic.maxAffectedFraction", 0.1) * n * n);
+            repaired.removeEdge(oldEdge[0], oldEdge[1], maxAffectedPairs);
+            if (!previous.isOneWay()) {
+                repaired.removeEdge(oldEdge[1], oldEdge[0], maxAffectedPairs);
+            }
+        }
+        RoutingMetrics.record(RoutingMetrics.Stage.INCREMENTAL_UPDATE, start);
+        RoutingMetrics.increment(RoutingMetrics.Counter.INCREMENTAL_UPDATES);
+        return repaired;
+    }
+
+    /**
+     * Maps a road of this mode to {from vertex, to vertex, from station index, to station index}.
+     *
+     * @return The indices, or {@code null} if a station or bus vertex is not part of the graph.
+     */
+    private int[] resolve(Road road) {
+        if (!road.getMode().equalsIgnoreCase(mode)) {
+            return null;
+        }
+        int fromStation = graphManager.indexOfStation(road.getFromStationId());
+        int toStation = graphManager.indexOfStation(road.getToStationId());
+        if (fromStation == -1 || toStation == -1) {
+            return null;
+        }
+        if (busGraph == null) {
+            return new int[]{fromStation, toStation, fromStation, toStation};
+        }
+        Integer fromVertex = busGraph.getVertexToIndex().get(road.getFromStationId() + "_" + road.getBusColor());
+        Integer toVertex = busGraph.getVertexToIndex().get(road.getToStationId() + "_" + road.getBusColor());
+        if (fromVertex == null || toVertex == null) {
+            return null;
+        }
+        return new int[]{fromVertex, toVertex, fromStation, toStation};
+    }
+
+    private static void countRoad(Map<Long, Integer> edgeRoads, Map<Integer, Integer> roadEnds,
+                                  int from, int to, boolean oneWay, int delta) {
+        if (from != to) {
+            edgeRoads.merge(edgeKey(from, to), delta, Integer::sum);
+            if (!oneWay) {
+                edgeRoads.merge(edgeKey(to, from), delta, Integer::sum);
+            }
+        }
+        if (roadEnds != null) {
+            roadEnds.merge(from, delta, Integer::sum);
+            roadEnds.merge(to, delta, Integer::sum);
+        }
+    }
+
+    private static long edgeKey(int from, int to) {
+        return ((long) from << 32) | to;
+    }
+
+    private void addEdge(int u, int v, double weight) {
+        if (weight < adjacency[u][v]) {
+            adjacency[u][v] = weight;
+        }
+        DynamicFloydWarshall.decreaseEdge(distances, next, u, v, weight);
+    }
+
+    private void removeEdge(int u, int v, long maxAffectedPairs) {
+        if (u == v || edgeRoads.getOrDefault(edgeKey(u, v), 0) > 0) {
+            return; // another road still provides the edge
+        }
+        adjacency[u][v] = INF;
+        if (!DynamicFloydWarshall.increaseEdge(adjacency, distances, next, u, v, maxAffectedPairs)) {
+            solveFromScratch();
+        }
+    }
+
+    /**
+     * @return The edges of the adjacency matrix, read from the roads behind it for CAR rather than from the matrix.
+     */
+    CsrGraph edges() {
+        if (busGraph != null) {
+            // Transfer edges have no road, so only the built matrix has a CSR; a repaired copy is scanned instead
+            return busGraph.getMatrix() == adjacency && busGraph.getCsr() != null
+                    ? busGraph.getCsr() : CsrGraph.fromMatrix(adjacency);
+        }
+        int[] from = new int[edgeRoads.size()];
+        int[] to = new int[edgeRoads.size()];
+        double[] weight = new double[edgeRoads.size()];
+        int m = 0;
+        for (Map.Entry<Long, Integer> entry : edgeRoads.entrySet()) {
+            int u = (int) (entry.getKey() >>> 32);
+            int v = (int) (long) entry.getKey();
+            if (entry.getValue() > 0 && adjacency[u][v] != INF) {
+                from[m] = u;
+                to[m] = v;
+                weight[m] = adjacency[u][v];
+                m++;
+            }
+        }
+        return CsrGraph.fromEdges(adjacency.length, from, to, weight, m);
+    }
+
+    private void solveFromScratch() {
+        int n = adjacency.length;
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(adjacency[i], 0, distances[i], 0, n);
+        }
+        long start = System.nanoTime();
+        AllPairsSolver.solve(distances, next, this::edges);
+        RoutingMetrics.record(RoutingMetrics.Stage.KERNEL, start);
+        RoutingMetrics.increment(RoutingMetrics.Counter.RECOMPUTES);
+        RoutingMetrics.setMatrixSize(mode, n);
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public GraphManager getGraphManager() {
+        return graphManager;
+    }
+
+    @Override
+    public int size() {
+        return distances.length;
+    }
+
+    @Override
+    public double distance(int from, int to) {
+        return distances[from][to];
+    }
+
+    @Override
+    public int next(int from, int to) {
+        return next[from][to];
+    }
+
+    /**
+     * @return The bus graph the matrices were built from, or {@code null} for CAR. Its vertex tables are those
+     *         of this solution, its edges those of the original build.
+     */
+    public BusGraph getBusGraph() {
+        return busGraph;
+    }
+
+    /**
+     * @return The direct edge weights before solving. Must not be modified.
+     */
+    public double[][] getAdjacency() {
+        return adjacency;
+    }
+
+    /**
+     * @return The shortest distances between all pairs. Must not be modified.
+     */
+    public double[][] getDistances() {
+        return distances;
+    }
+
+    /**
+     * @return The next-hop matrix for path reconstruction. Must not be modified.
+     */
+    public int[][] getNext() {
+        return next;
+    }
+}
@@ -0,0 +1,97 @@
+package com.solvd.algoritms;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of vertices keyed by a double, with decrease-key.
+ * Positions are tracked per vertex, so a vertex is in the heap at most once.
+ */
+class VertexHeap {
+    private final int[] heap;
+    private final int[] position;
+    private final double[] key;
+    private int size;
+
+    VertexHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.position = new int[capacity];
+        this.key = new double[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    double peekKey() {
+        return key[heap[0]];
+    }
+
+    /**
+     * Inserts the vertex, or lowers its key if it is already queued with a larger one.
+     */
+    void offer(int vertex, double newKey) {
+        int pos = position[vertex];
+        if (pos == -1) {
+            pos = size++;
+            heap[pos] = vertex;
+            position[vertex] = pos;
+        } else if (newKey >= key[vertex]) {
+            return;
+        }
+        key[vertex] = newKey;
+        siftUp(pos);
+    }
+
+    int poll() {
+        int top = heap[0];
+        position[top] = -1;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            position[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    /**
+     * Empties the heap so it can be reused for another search.
+     */
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int pos) {
+        int vertex = heap[pos];
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            if (key[heap[parent]] <= key[vertex]) break;
+            heap[pos] = heap[parent];
+            position[heap[pos]] = pos;
+            pos = parent;
+        }
+        heap[pos] = vertex;
+        position[vertex] = pos;
+    }
+
+    private void siftDown(int pos) {
+        int vertex = heap[pos];
+        int half = size >>> 1;
+        while (pos < half) {
+            int child = 2 * pos + 1;
+            if (child + 1 < size && key[heap[child + 1]] < key[heap[child]]) {
+                child++;
+            }
+            if (key[vertex] <= key[heap[child]]) break;
+            heap[pos] = heap[child];
+            position[heap[pos]] = pos;
+            pos = child;
+        }
+        heap[pos] = vertex;
+        position[vertex] = pos;
+    }
+}
@@ -0,0 +1,38 @@
+package com.solvd.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * Tuning options of the routing engine.
+ * Values are read from {@code navigation.properties} on the classpath; a JVM system property
+ * with the same key (e.g. {@code -Dnavigation.kernel=classic}) takes precedence.
+ */
+public class NavigationConfig {
+
+    private static final Properties PROPERTIES = new Properties();
+
+    static {
+        String resource = "navigation.properties";
+        try (InputStream inputStream = NavigationConfig.class.getClassLoader().getResourceAsStream(resource)) {
+            if (inputStream != null) {
+                PROPERTIES.load(inputStream);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error loading " + resource, e);
+        }
+    }
+
+    public static String get(String key, String defaultValue) {
+        return System.getProperty(key, PROPERTIES.getProperty(key, defaultValue)).trim();
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        return Integer.parseInt(get(key, String.valueOf(defaultValue)));
+    }
+
+    public static double getDouble(String key, double defaultValue) {
+        return Double.parseDouble(get(key, String.valueOf(defaultValue)));
+    }
+}
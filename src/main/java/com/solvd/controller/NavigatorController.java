@@ -1,5 +1,8 @@
 package com.solvd.controller;
 
+import com.solvd.dao.IBulkImportDAO;
+import com.solvd.dao.implementation.BulkImportDAOImpl;
+import com.solvd.dao.implementation.GraphFileDAOImpl;
 import com.solvd.models.Road;
 import com.solvd.models.Station;
 import com.solvd.service.RoadService;
@@ -7,16 +10,28 @@ import com.solvd.service.RoadServiceImpl;
 import com.solvd.service.StationService;
 import com.solvd.service.StationServiceImpl;
 import com.solvd.algoritms.FloydWarshall;
+import com.solvd.algoritms.RouteCache;
+import com.solvd.utils.CsvNetworkImporter;
+import com.solvd.utils.DatabaseGraphSource;
+import com.solvd.utils.StationRegistry;
+
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Scanner;
 
 public class NavigatorController {
     private final StationService stationService;
     private final RoadService roadService;
+    private final IBulkImportDAO importDAO;
 
     public NavigatorController() {
-        this.stationService = new StationServiceImpl();
-        this.roadService = new RoadServiceImpl();
+        this(new StationServiceImpl(), new RoadServiceImpl(), new BulkImportDAOImpl());
+    }
+
+    public NavigatorController(StationService stationService, RoadService roadService, IBulkImportDAO importDAO) {
+        this.stationService = stationService;
+        this.roadService = roadService;
+        this.importDAO = importDAO;
     }
 
     public void start() {
@@ -68,7 +83,9 @@ public class NavigatorController {
             System.out.println("9. Create new road");
             System.out.println("10. Update road by ID");
             System.out.println("11. Delete road by ID");
-            System.out.println("12. Return to Main Menu");
+            System.out.println("12. Export graph to binary file");
+            System.out.println("13. Import stations and roads from CSV");
+            System.out.println("14. Return to Main Menu");
             System.out.print("Choose an option: ");
 
             int choice = scanner.nextInt();
@@ -109,6 +126,12 @@ public class NavigatorController {
                     deleteRoadById(scanner);
                     break;
                 case 12:
+                    exportGraph(scanner);
+                    break;
+                case 13:
+                    importCsv(scanner);
+                    break;
+                case 14:
                     exitDatabase = true;
                     System.out.println("Returning to Main Menu...");
                     break;
@@ -151,12 +174,14 @@ public class NavigatorController {
     }
 
     private void calculateRoute(Scanner scanner, boolean alternative) {
+        StationRegistry stations = RouteCache.stations();
+
         System.out.print("Enter start station name: ");
         String startName = scanner.nextLine().trim();
 
-        Station startStation = getStationByName(startName);
+        int startIndex = stations.indexOfName(startName);
 
-        if (startStation == null) {
+        if (startIndex == -1) {
             System.out.println("Station " + startName + " does not exist.");
             return;
         }
@@ -164,8 +189,8 @@ public class NavigatorController {
         System.out.print("Enter destination station name: ");
         String endName = scanner.nextLine().trim();
 
-        Station endStation = getStationByName(endName);
-        if (endStation == null) {
+        int endIndex = stations.indexOfName(endName);
+        if (endIndex == -1) {
             System.out.println("Station '" + endName + "' does not exist.");
             return;
         }
@@ -178,18 +203,7 @@ public class NavigatorController {
             return;
         }
 
-        computeRoute(startStation.getStationId(), endStation.getStationId(), mode, alternative);
-    }
-
-    private Station getStationByName(String name) {
-
-        List<Station> stations = stationService.getAllStations();
-        for (Station s : stations) {
-            if (s.getName().equalsIgnoreCase(name)) {
-                return s;
-            }
-        }
-        return null;
+        computeRoute(stations.id(startIndex), stations.id(endIndex), mode, alternative);
     }
 
     private void computeRoute(int startStationId, int endStationId, String mode, boolean alternative) {
@@ -197,18 +211,39 @@ public class NavigatorController {
             FloydWarshall.Route route = FloydWarshall.computeNavigation(startStationId, endStationId, mode);
             System.out.println(route);
         } else {
-            // For now, alternative path code is only implemented for "CAR" in getAlternativePath
-            if (mode.equalsIgnoreCase("CAR")) {
-                FloydWarshall.Route altRoute = FloydWarshall.getAlternativePath(startStationId, endStationId, mode);
-                System.out.println(altRoute);
-            } else {
-                System.out.println("Alternative path for BUS is not yet implemented.");
-            }
+            FloydWarshall.Route altRoute = FloydWarshall.getAlternativePath(startStationId, endStationId, mode);
+            System.out.println(altRoute);
         }
     }
 
 
 
+    private void exportGraph(Scanner scanner) {
+        System.out.print("Enter graph file path: ");
+        String path = scanner.nextLine().trim();
+
+        new GraphFileDAOImpl(Paths.get(path)).exportGraph(new DatabaseGraphSource(stationService, roadService));
+        System.out.println("Graph exported to " + path + ". Set navigation.graph.file to build graphs from it.");
+    }
+
+    private void importCsv(Scanner scanner) {
+        CsvNetworkImporter importer = new CsvNetworkImporter(importDAO);
+
+        System.out.print("Enter stations CSV path (or press Enter to skip): ");
+        String stationsPath = scanner.nextLine().trim();
+        if (!stationsPath.isEmpty()) {
+            int count = importer.importStations(Paths.get(stationsPath));
+            System.out.println("Imported " + count + " stations.");
+        }
+
+        System.out.print("Enter roads CSV path (or press Enter to skip): ");
+        String roadsPath = scanner.nextLine().trim();
+        if (!roadsPath.isEmpty()) {
+            int count = importer.importRoads(Paths.get(roadsPath));
+            System.out.println("Imported " + count + " roads.");
+        }
+    }
+
     private void listAllStations() {
         List<Station> stations = stationService.getAllStations();
         System.out.println("=== All Stations ===");
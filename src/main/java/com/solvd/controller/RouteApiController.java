@@ -0,0 +1,385 @@
+package com.solvd.controller;
+
+import com.solvd.algoritms.FloydWarshall;
+import com.solvd.config.NavigationConfig;
+import com.solvd.service.RoutingService;
+import com.solvd.service.RoutingServiceImpl;
+import com.solvd.utils.StationRegistry;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Serves route queries over HTTP with the JDK's built-in server, next to the console menu.
+ * Every request runs on its own virtual thread when the JVM has them (Java 21+), otherwise on a cached
+ * pool of platform threads, and is answered from the {@link RoutingService}'s shared snapshots, so
+ * queries never wait for each other or for a recompute. Stations are given by ID or name:
+ * <pre>
+ * GET  /routes?from=1&amp;to=7&amp;mode=CAR
+ * GET  /routes/alternatives?from=Station A&amp;to=Station G&amp;mode=BUS&amp;k=3
+ * POST /routes/batch      one "from,to,mode" query per line
+ * </pre>
+ * Responses are JSON; a route that does not exist is {@code {"found":false}}. A batch is answered with one
+ * JSON line per query, carrying the query's line {@code index}, written as soon as its route is done, so
+ * the lines arrive out of order. A query that fails gets a line with an {@code error} instead of the route.
+ */
+public class RouteApiController {
+    private static final int MAX_ALTERNATIVES = 20;
+
+    private final RoutingService routingService;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public RouteApiController() {
+        this(new RoutingServiceImpl());
+    }
+
+    public RouteApiController(RoutingService routingService) {
+        this.routingService = routingService;
+    }
+
+    /**
+     * Loads both modes, so the first requests do not wait for it, and starts listening.
+     * A mode is only solved all-pairs here if its configured engine reads the solution.
+     *
+     * @param port The port to listen on, 0 for any free one.
+     * @return The port listened on.
+     */
+    public int start(int port) {
+        routingService.getSnapshot("CAR");
+        routingService.getSnapshot("BUS");
+        try {
+            server = HttpServer.create(new InetSocketAddress(port),
+                    NavigationConfig.getInt("navigation.http.backlog", 1024));
+        } catch (IOException e) {
+            throw new RuntimeException("Error starting the route API on port " + port, e);
+        }
+        executor = requestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/routes", this::handle);
+        server.start();
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops listening, waiting up to a second for requests in flight, and closes the routing service.
+     */
+    public void stop() {
+        if (server != null) {
+            server.stop(1);
+            executor.shutdown();
+            server = null;
+        }
+        routingService.close();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+            switch (path) {
+                case "/routes":
+                case "/routes/alternatives":
+                    if (!method.equals("GET")) {
+                        send(exchange, 405, error("Use GET for " + path));
+                        return;
+                    }
+                    Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+                    send(exchange, 200, path.equals("/routes") ? route(params) : alternatives(params));
+                    return;
+                case "/routes/batch":
+                    if (!method.equals("POST")) {
+                        send(exchange, 405, error("Use POST for " + path));
+                        return;
+                    }
+                    batch(exchange, queries(readLines(exchange)));
+                    return;
+                default:
+                    send(exchange, 404, error("Unknown path " + path));
+            }
+        } catch (IllegalArgumentException e) {
+            fail(exchange, 400, e.getMessage());
+        } catch (RuntimeException e) {
+            fail(exchange, 500, e.toString());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private String route(Map<String, String> params) {
+        String mode = mode(params.get("mode"));
+        StationRegistry stations = routingService.getSnapshot(mode).getStations();
+        int from = stationId(stations, params.get("from"));
+        int to = stationId(stations, params.get("to"));
+        return toJson(routingService.getRoute(from, to, mode));
+    }
+
+    private String alternatives(Map<String, String> params) {
+        String mode = mode(params.get("mode"));
+        StationRegistry stations = routingService.getSnapshot(mode).getStations();
+        int from = stationId(stations, params.get("from"));
+        int to = stationId(stations, params.get("to"));
+        int k = params.containsKey("k") ? parseInt(params.get("k"), "k") : 3;
+        if (k < 1 || k > MAX_ALTERNATIVES) {
+            throw new IllegalArgumentException("k must be between 1 and " + MAX_ALTERNATIVES);
+        }
+        StringBuilder json = new StringBuilder("[");
+        for (FloydWarshall.Route route : routingService.getAlternativeRoutes(from, to, mode, k)) {
+            json.append(json.length() > 1 ? "," : "").append(toJson(route));
+        }
+        return json.append(']').toString();
+    }
+
+    private List<FloydWarshall.RouteQuery> queries(List<String> lines) {
+        List<FloydWarshall.RouteQuery> queries = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            String[] fields = line.split(",", -1);
+            if (fields.length != 3) {
+                throw new IllegalArgumentException("Expected from,to,mode but got: " + line);
+            }
+            String mode = mode(fields[2].trim());
+            StationRegistry stations = routingService.getSnapshot(mode).getStations();
+            queries.add(new FloydWarshall.RouteQuery(
+                    stationId(stations, fields[0].trim()), stationId(stations, fields[1].trim()), mode));
+        }
+        return queries;
+    }
+
+    /**
+     * Streams the routes of a batch as newline-delimited JSON, flushing every line as its route completes.
+     * The routes are computed on the kernels' pool, which only puts the finished lines into a bounded queue;
+     * this thread takes them out and does the socket writes, so a slow client never holds up the pool for
+     * more than the queue's worth of lines. A query that fails is answered with an error line of its own.
+     */
+    private void batch(HttpExchange exchange, List<FloydWarshall.RouteQuery> queries) throws IOException {
+        BlockingQueue<byte[]> lines = new ArrayBlockingQueue<>(
+                Math.max(1, NavigationConfig.getInt("navigation.http.batchQueue", 1024)));
+        AtomicBoolean cancelled = new AtomicBoolean();
+        CompletableFuture<Void> done = CompletableFuture.runAsync(() -> routingService.getRoutes(queries,
+                (route, index) -> {
+                    StringBuilder json = new StringBuilder("{\"index\":").append(index).append(',');
+                    enqueue(lines, appendRoute(json, route).append("}\n"), cancelled);
+                },
+                (e, index) -> {
+                    StringBuilder json = new StringBuilder("{\"index\":").append(index).append(",\"error\":");
+                    enqueue(lines, quote(json, e.toString()).append("}\n"), cancelled);
+                }), executor);
+
+        exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson; charset=utf-8");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            for (int written = 0; written < queries.size(); ) {
+                byte[] line = lines.poll(100, TimeUnit.MILLISECONDS);
+                if (line != null) {
+                    out.write(line);
+                    out.flush();
+                    written++;
+                } else if (done.isDone() && lines.isEmpty()) {
+                    // Every query is answered unless the batch itself failed, which join rethrows
+                    done.join();
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while streaming a batch", e);
+        } finally {
+            // Lets the pool drop the remaining lines if the client went away
+            cancelled.set(true);
+        }
+    }
+
+    /**
+     * Puts a line into the batch queue, blocking while it is full, but letting the pool start another worker
+     * meanwhile. Lines are dropped once the batch is cancelled.
+     */
+    private static void enqueue(BlockingQueue<byte[]> lines, StringBuilder json, AtomicBoolean cancelled) {
+        byte[] line = json.toString().getBytes(StandardCharsets.UTF_8);
+        try {
+            ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+                @Override
+                public boolean block() throws InterruptedException {
+                    return cancelled.get() || lines.offer(line, 100, TimeUnit.MILLISECONDS);
+                }
+
+                @Override
+                public boolean isReleasable() {
+                    return cancelled.get() || lines.offer(line);
+                }
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String mode(String mode) {
+        if (mode == null || !(mode.equalsIgnoreCase("CAR") || mode.equalsIgnoreCase("BUS"))) {
+            throw new IllegalArgumentException("mode must be CAR or BUS");
+        }
+        return mode.toUpperCase();
+    }
+
+    /**
+     * Resolves a station given by ID or, failing that, by name.
+     */
+    private static int stationId(StationRegistry stations, String station) {
+        if (station == null || station.isEmpty()) {
+            throw new IllegalArgumentException("from and to are required");
+        }
+        int index = -1;
+        try {
+            index = stations.indexOf(Integer.parseInt(station));
+        } catch (NumberFormatException e) {
+            // Not an ID, so it can only be a name
+        }
+        if (index == -1) {
+            index = stations.indexOfName(station);
+        }
+        if (index == -1) {
+            throw new IllegalArgumentException("Station " + station + " does not exist");
+        }
+        return stations.id(index);
+    }
+
+    private static int parseInt(String value, String name) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> params = new HashMap<>();
+        if (query == null) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8).trim());
+            }
+        }
+        return params;
+    }
+
+    private static List<String> readLines(HttpExchange exchange) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    lines.add(line);
+                }
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Answers with an error, unless a streamed response has already started and can only be cut off.
+     */
+    private static void fail(HttpExchange exchange, int status, String message) throws IOException {
+        if (exchange.getResponseCode() == -1) {
+            send(exchange, status, error(message));
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String toJson(FloydWarshall.Route route) {
+        return appendRoute(new StringBuilder("{"), route).append('}').toString();
+    }
+
+    /**
+     * Appends the fields of a route, without the enclosing braces.
+     */
+    private static StringBuilder appendRoute(StringBuilder json, FloydWarshall.Route route) {
+        if (route.isEmpty()) {
+            return json.append("\"found\":false");
+        }
+        quote(json.append("\"found\":true,\"start\":"), route.getStartName()).append(",\"end\":");
+        quote(json, route.getEndName()).append(",\"totalDistance\":").append(route.getTotalDistance())
+                .append(",\"stationIds\":[");
+        int[] stationIds = route.getStationIds();
+        for (int i = 0; i < stationIds.length; i++) {
+            json.append(i > 0 ? "," : "").append(stationIds[i]);
+        }
+        json.append("],\"segmentDistances\":[");
+        double[] segments = route.getSegmentDistances();
+        for (int i = 0; i < segments.length; i++) {
+            json.append(i > 0 ? "," : "").append(segments[i]);
+        }
+        json.append("],\"steps\":[");
+        List<String> steps = route.getDetails();
+        for (int i = 0; i < steps.size(); i++) {
+            quote(json.append(i > 0 ? "," : ""), steps.get(i));
+        }
+        return json.append(']');
+    }
+
+    private static String error(String message) {
+        return quote(new StringBuilder("{\"error\":"), message).append('}').toString();
+    }
+
+    private static StringBuilder quote(StringBuilder json, String value) {
+        if (value == null) {
+            return json.append("null");
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        return json.append('"');
+    }
+
+    /**
+     * A virtual thread per request on Java 21+, looked up reflectively since the project targets Java 17.
+     */
+    private static ExecutorService requestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "route-api");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.solvd.dao;
+
+import com.solvd.models.Road;
+import com.solvd.models.Station;
+
+import java.util.List;
+
+/**
+ * Inserts many stations or roads at once through a batching session, instead of one transaction per row.
+ */
+public interface IBulkImportDAO {
+
+    /**
+     * Inserts the stations and fills in their generated IDs.
+     * If the insert fails part way, only the stations that stay in the database keep their ID; the others get 0.
+     */
+    void insertStations(List<Station> stations);
+
+    /**
+     * Inserts the roads and fills in their generated IDs.
+     * If the insert fails part way, only the roads that stay in the database keep their ID; the others get 0.
+     */
+    void insertRoads(List<Road> roads);
+}
@@ -0,0 +1,23 @@
+package com.solvd.dao;
+
+import com.solvd.models.GraphChange;
+
+import java.util.List;
+
+/**
+ * Read side of the {@code graph_changes} log. Rows are written by the station, road and bulk import DAOs
+ * in the same transaction as the change they describe.
+ */
+public interface IGraphChangeDAO {
+
+    /**
+     * @param changeId The last change already seen.
+     * @return Every later change, oldest first.
+     */
+    List<GraphChange> getChangesSince(long changeId);
+
+    /**
+     * @return The ID of the newest change, or 0 if the log is empty.
+     */
+    long getLatestChangeId();
+}
@@ -0,0 +1,21 @@
+package com.solvd.dao;
+
+import com.solvd.utils.GraphSource;
+
+/**
+ * Compact binary copy of the whole network, readable without any JDBC round-trip.
+ */
+public interface IGraphFileDAO extends GraphSource {
+
+    /**
+     * Writes every station and road currently in the database to the graph file.
+     */
+    void exportGraph();
+
+    /**
+     * Writes every station and road of the given source to the graph file, e.g. services backed by the in-memory DAOs.
+     *
+     * @param source Where the stations and roads are read from.
+     */
+    void exportGraph(GraphSource source);
+}
@@ -1,8 +1,10 @@
 package com.solvd.dao;
 
+import com.solvd.models.EdgeRow;
 import com.solvd.models.Road;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface IRoadDAO extends IBaseDao<Road>{
     @Override
@@ -22,4 +24,13 @@ public interface IRoadDAO extends IBaseDao<Road>{
 
 
     List<Road> getRoadsByMode(String mode);
+
+    /**
+     * Streams the roads of one mode joined with the coordinates of their stations.
+     * Roads whose stations do not exist are skipped.
+     *
+     * @param mode   The transport mode ("CAR" or "BUS").
+     * @param action Called once per road of the mode.
+     */
+    void forEachEdge(String mode, Consumer<EdgeRow> action);
 }
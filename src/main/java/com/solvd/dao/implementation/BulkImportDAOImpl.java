@@ -0,0 +1,96 @@
+package com.solvd.dao.implementation;
+
+import com.solvd.config.MyBatisConf;
+import com.solvd.config.NavigationConfig;
+import com.solvd.dao.IBulkImportDAO;
+import com.solvd.mapper.RoadMapper;
+import com.solvd.mapper.StationMapper;
+import com.solvd.models.Road;
+import com.solvd.models.Station;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+
+import java.util.List;
+
+/**
+ * Bulk inserts on a {@link ExecutorType#BATCH} session. Statements are sent to the database every
+ * {@code batchSize} rows and committed every {@code commitInterval} rows, so a failed import keeps
+ * the rows committed before it. Generated IDs are filled in when a batch is sent. Every commit logs a
+ * single NETWORK change instead of one change per row.
+ */
+public class BulkImportDAOImpl implements IBulkImportDAO {
+    private final int batchSize;
+    private final int commitInterval;
+
+    public BulkImportDAOImpl() {
+        this(NavigationConfig.getInt("navigation.import.batchSize", 500),
+                NavigationConfig.getInt("navigation.import.commitInterval", 5000));
+    }
+
+    public BulkImportDAOImpl(int batchSize, int commitInterval) {
+        if (batchSize <= 0 || commitInterval <= 0) {
+            throw new IllegalArgumentException("Batch size and commit interval must be positive");
+        }
+        this.batchSize = batchSize;
+        this.commitInterval = commitInterval;
+    }
+
+    @Override
+    public void insertStations(List<Station> stations) {
+        int committed = 0;
+        try (SqlSession session = MyBatisConf.getSqlSessionFactory().openSession(ExecutorType.BATCH)) {
+            StationMapper mapper = session.getMapper(StationMapper.class);
+            for (int i = 0; i < stations.size(); i++) {
+                mapper.insertStation(stations.get(i));
+                if (endOfRow(session, i + 1)) {
+                    committed = i + 1;
+                }
+            }
+            GraphChangeDAOImpl.logNetwork(session);
+            session.commit();
+        } catch (RuntimeException e) {
+            // The rows after the last commit were rolled back, so their IDs no longer exist
+            for (int i = committed; i < stations.size(); i++) {
+                stations.get(i).setStationId(0);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void insertRoads(List<Road> roads) {
+        int committed = 0;
+        try (SqlSession session = MyBatisConf.getSqlSessionFactory().openSession(ExecutorType.BATCH)) {
+            RoadMapper mapper = session.getMapper(RoadMapper.class);
+            for (int i = 0; i < roads.size(); i++) {
+                mapper.insertRoad(roads.get(i));
+                if (endOfRow(session, i + 1)) {
+                    committed = i + 1;
+                }
+            }
+            GraphChangeDAOImpl.logNetwork(session);
+            session.commit();
+        } catch (RuntimeException e) {
+            for (int i = committed; i < roads.size(); i++) {
+                roads.get(i).setRoadId(0);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return Whether the rows so far were committed.
+     */
+    private boolean endOfRow(SqlSession session, int rows) {
+        if (rows % commitInterval == 0) {
+            // Committing sends the pending batch as well; readers of the change log reload what was committed so far
+            GraphChangeDAOImpl.logNetwork(session);
+            session.commit();
+            return true;
+        }
+        if (rows % batchSize == 0) {
+            session.flushStatements();
+        }
+        return false;
+    }
+}
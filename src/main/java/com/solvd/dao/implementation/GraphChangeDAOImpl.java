@@ -0,0 +1,77 @@
+package com.solvd.dao.implementation;
+
+import com.solvd.config.MyBatisConf;
+import com.solvd.dao.IGraphChangeDAO;
+import com.solvd.mapper.GraphChangeMapper;
+import com.solvd.models.GraphChange;
+import com.solvd.models.Road;
+import org.apache.ibatis.session.SqlSession;
+
+import java.util.List;
+
+public class GraphChangeDAOImpl implements IGraphChangeDAO {
+    @Override
+    public List<GraphChange> getChangesSince(long changeId) {
+        try (SqlSession session = MyBatisConf.getSqlSessionFactory().openSession()) {
+            GraphChangeMapper mapper = session.getMapper(GraphChangeMapper.class);
+            return mapper.getChangesSince(changeId);
+        }
+    }
+
+    @Override
+    public long getLatestChangeId() {
+        try (SqlSession session = MyBatisConf.getSqlSessionFactory().openSession()) {
+            GraphChangeMapper mapper = session.getMapper(GraphChangeMapper.class);
+            return mapper.getLatestChangeId();
+        }
+    }
+
+    /**
+     * Logs a road change in the given session, so it is committed together with the change itself.
+     */
+    static void logRoad(SqlSession session, String operation, Road road) {
+        session.getMapper(GraphChangeMapper.class).insertChange(roadChange(operation, road));
+    }
+
+    /**
+     * Logs a station change in the given session.
+     */
+    static void logStation(SqlSession session, String operation, int stationId) {
+        session.getMapper(GraphChangeMapper.class).insertChange(stationChange(operation, stationId));
+    }
+
+    /**
+     * Logs a bulk change after which readers have to reload the whole network, in the given session.
+     */
+    static void logNetwork(SqlSession session) {
+        session.getMapper(GraphChangeMapper.class).insertChange(networkChange());
+    }
+
+    static GraphChange roadChange(String operation, Road road) {
+        GraphChange change = new GraphChange();
+        change.setEntity("ROAD");
+        change.setEntityId(road.getRoadId());
+        change.setOperation(operation);
+        change.setFromStationId(road.getFromStationId());
+        change.setToStationId(road.getToStationId());
+        change.setMode(road.getMode());
+        change.setOneWay(road.isOneWay());
+        change.setBusColor(road.getBusColor());
+        return change;
+    }
+
+    static GraphChange stationChange(String operation, int stationId) {
+        GraphChange change = new GraphChange();
+        change.setEntity("STATION");
+        change.setEntityId(stationId);
+        change.setOperation(operation);
+        return change;
+    }
+
+    static GraphChange networkChange() {
+        GraphChange change = new GraphChange();
+        change.setEntity("NETWORK");
+        change.setOperation("UPDATE");
+        return change;
+    }
+}
@@ -0,0 +1,44 @@
+package com.solvd.dao.implementation;
+
+import com.solvd.dao.IGraphChangeDAO;
+import com.solvd.models.GraphChange;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Change log of a graph file. The file is only ever replaced as a whole by an export, so the log holds at
+ * most one change: a bulk change whose ID is the file's modification time, after which everything is reloaded.
+ * Writes to the database do not show up here, just like they do not show up in the file.
+ */
+public class GraphFileChangeDAOImpl implements IGraphChangeDAO {
+    private final Path file;
+
+    public GraphFileChangeDAOImpl(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public List<GraphChange> getChangesSince(long changeId) {
+        List<GraphChange> changes = new ArrayList<>();
+        long modified = getLatestChangeId();
+        if (modified != changeId) {
+            GraphChange change = GraphChangeDAOImpl.networkChange();
+            change.setChangeId(modified);
+            changes.add(change);
+        }
+        return changes;
+    }
+
+    @Override
+    public long getLatestChangeId() {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading graph file " + file, e);
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.solvd.dao.implementation;
+
+import com.solvd.dao.IGraphFileDAO;
+import com.solvd.models.EdgeRow;
+import com.solvd.models.Road;
+import com.solvd.models.Station;
+import com.solvd.utils.DatabaseGraphSource;
+import com.solvd.utils.GraphSource;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Columnar binary graph file, read and written through memory-mapped NIO buffers.
+ * <p>
+ * Layout (little-endian): a header (magic, format version, station count, road count, string count),
+ * the station columns (x, y, id, name string), the road columns (id, from, to, color string or -1,
+ * mode string as a byte, one-way flag as a byte) and finally the string table, each entry a length
+ * followed by UTF-8 bytes. Names, modes and colors are stored once in the string table.
+ */
+public class GraphFileDAOImpl implements IGraphFileDAO {
+    private static final int MAGIC = 0x4E415647;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 24;
+
+    private final Path file;
+
+    public GraphFileDAOImpl(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public void exportGraph() {
+        exportGraph(new DatabaseGraphSource());
+    }
+
+    @Override
+    public void exportGraph(GraphSource source) {
+        List<Station> stations = source.getStations();
+        List<Road> roads = source.getRoads();
+
+        // Modes go first, since they are stored as a byte
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        int[] modeIds = new int[roads.size()];
+        for (int i = 0; i < roads.size(); i++) {
+            modeIds[i] = stringId(strings, roads.get(i).getMode());
+        }
+        if (strings.size() > Byte.MAX_VALUE) {
+            throw new IllegalStateException("Too many distinct modes for the graph file: " + strings.size());
+        }
+        int[] colorIds = new int[roads.size()];
+        for (int i = 0; i < roads.size(); i++) {
+            colorIds[i] = roads.get(i).getBusColor() == null ? -1 : stringId(strings, roads.get(i).getBusColor());
+        }
+        int[] nameIds = new int[stations.size()];
+        for (int i = 0; i < stations.size(); i++) {
+            nameIds[i] = stringId(strings, stations.get(i).getName());
+        }
+        List<byte[]> encoded = new ArrayList<>();
+        long stringBytes = 0;
+        for (String s : strings.keySet()) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            encoded.add(bytes);
+            stringBytes += 4 + bytes.length;
+        }
+
+        long size = HEADER_BYTES + 24L * stations.size() + 18L * roads.size() + stringBytes;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Graph too large for a single graph file: " + size + " bytes");
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                out.order(ByteOrder.LITTLE_ENDIAN);
+                out.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(stations.size()).putInt(roads.size())
+                        .putInt(strings.size()).putInt(0);
+                for (Station s : stations) out.putDouble(s.getXCoord());
+                for (Station s : stations) out.putDouble(s.getYCoord());
+                for (Station s : stations) out.putInt(s.getStationId());
+                for (int id : nameIds) out.putInt(id);
+                for (Road r : roads) out.putInt(r.getRoadId());
+                for (Road r : roads) out.putInt(r.getFromStationId());
+                for (Road r : roads) out.putInt(r.getToStationId());
+                for (int id : colorIds) out.putInt(id);
+                for (int id : modeIds) out.put((byte) id);
+                for (Road r : roads) out.put((byte) (r.isOneWay() ? 1 : 0));
+                for (byte[] bytes : encoded) {
+                    out.putInt(bytes.length).put(bytes);
+                }
+                out.force();
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException("Error writing graph file " + file, e);
+        }
+    }
+
+    @Override
+    public List<Station> getStations() {
+        MappedByteBuffer in = map();
+        int stationCount = in.getInt(8);
+        String[] strings = readStrings(in);
+
+        double[] x = new double[stationCount];
+        double[] y = new double[stationCount];
+        int[] ids = new int[stationCount];
+        int[] nameIds = new int[stationCount];
+        in.position(HEADER_BYTES);
+        in.slice().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(x).get(y);
+        in.position(HEADER_BYTES + 16 * stationCount);
+        in.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(ids).get(nameIds);
+
+        List<Station> stations = new ArrayList<>(stationCount);
+        for (int i = 0; i < stationCount; i++) {
+            Station station = new Station();
+            station.setStationId(ids[i]);
+            station.setName(strings[nameIds[i]]);
+            station.setXCoord(x[i]);
+            station.setYCoord(y[i]);
+            stations.add(station);
+        }
+        return stations;
+    }
+
+    @Override
+    public List<Road> getRoads() {
+        MappedByteBuffer in = map();
+        int stationCount = in.getInt(8);
+        int roadCount = in.getInt(12);
+        String[] strings = readStrings(in);
+
+        int[] ids = new int[roadCount];
+        int[] from = new int[roadCount];
+        int[] to = new int[roadCount];
+        int[] colorIds = new int[roadCount];
+        byte[] modeIds = new byte[roadCount];
+        byte[] oneWay = new byte[roadCount];
+        int roadsStart = HEADER_BYTES + 24 * stationCount;
+        in.position(roadsStart);
+        in.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(ids).get(from).get(to).get(colorIds);
+        in.position(roadsStart + 16 * roadCount);
+        in.get(modeIds).get(oneWay);
+
+        List<Road> roads = new ArrayList<>(roadCount);
+        for (int i = 0; i < roadCount; i++) {
+            Road road = new Road();
+            road.setRoadId(ids[i]);
+            road.setFromStationId(from[i]);
+            road.setToStationId(to[i]);
+            road.setMode(strings[modeIds[i]]);
+            road.setOneWay(oneWay[i] != 0);
+            road.setBusColor(colorIds[i] == -1 ? null : strings[colorIds[i]]);
+            roads.add(road);
+        }
+        return roads;
+    }
+
+    /**
+     * Reads the station and road columns straight into the edges, without creating a station or road object.
+     * The same {@link EdgeRow} is filled for every road, so the action must not keep it.
+     */
+    @Override
+    public void forEachEdge(String mode, Consumer<EdgeRow> action) {
+        MappedByteBuffer in = map();
+        int stationCount = in.getInt(8);
+        int roadCount = in.getInt(12);
+        String[] strings = readStrings(in);
+        // Modes come first in the string table, so only they can match a mode ID
+        int modeId = -1;
+        for (int i = 0; i < Math.min(strings.length, Byte.MAX_VALUE + 1); i++) {
+            if (strings[i].equalsIgnoreCase(mode)) {
+                modeId = i;
+                break;
+            }
+        }
+        if (modeId == -1) {
+            return;
+        }
+
+        double[] x = new double[stationCount];
+        double[] y = new double[stationCount];
+        int[] stationIds = new int[stationCount];
+        in.position(HEADER_BYTES);
+        in.slice().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(x).get(y);
+        in.position(HEADER_BYTES + 16 * stationCount);
+        in.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(stationIds);
+        // Station IDs with their column index in the low bits, sorted for a binary search by ID
+        long[] byId = new long[stationCount];
+        for (int i = 0; i < stationCount; i++) {
+            byId[i] = (long) stationIds[i] << 32 | i;
+        }
+        Arrays.sort(byId);
+
+        int roadsStart = HEADER_BYTES + 24 * stationCount;
+        IntBuffer roads = in.position(roadsStart).slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        int modesStart = roadsStart + 16 * roadCount;
+        EdgeRow edge = new EdgeRow();
+        for (int i = 0; i < roadCount; i++) {
+            if (in.get(modesStart + i) != modeId) {
+                continue;
+            }
+            int fromId = roads.get(roadCount + i);
+            int toId = roads.get(2 * roadCount + i);
+            int from = stationIndex(byId, fromId);
+            int to = stationIndex(byId, toId);
+            if (from != -1 && to != -1) {
+                int colorId = roads.get(3 * roadCount + i);
+                edge.setFromStationId(fromId);
+                edge.setToStationId(toId);
+                edge.setOneWay(in.get(modesStart + roadCount + i) != 0);
+                edge.setBusColor(colorId == -1 ? null : strings[colorId]);
+                edge.setFromX(x[from]);
+                edge.setFromY(y[from]);
+                edge.setToX(x[to]);
+                edge.setToY(y[to]);
+                action.accept(edge);
+            }
+        }
+    }
+
+    private static int stationIndex(long[] byId, int stationId) {
+        int low = 0;
+        int high = byId.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int id = (int) (byId[mid] >> 32);
+            if (id < stationId) {
+                low = mid + 1;
+            } else if (id > stationId) {
+                high = mid - 1;
+            } else {
+                return (int) byId[mid];
+            }
+        }
+        return -1;
+    }
+
+    private MappedByteBuffer map() {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            in.order(ByteOrder.LITTLE_ENDIAN);
+            if (in.limit() < HEADER_BYTES || in.getInt(0) != MAGIC || in.getInt(4) != FORMAT_VERSION) {
+                throw new IllegalStateException("Not a graph file of format version " + FORMAT_VERSION + ": " + file);
+            }
+            return in;
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading graph file " + file, e);
+        }
+    }
+
+    private static String[] readStrings(MappedByteBuffer in) {
+        int stationCount = in.getInt(8);
+        int roadCount = in.getInt(12);
+        String[] strings = new String[in.getInt(16)];
+        int position = HEADER_BYTES + 24 * stationCount + 18 * roadCount;
+        for (int i = 0; i < strings.length; i++) {
+            int length = in.getInt(position);
+            byte[] bytes = new byte[length];
+            in.get(position + 4, bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            position += 4 + length;
+        }
+        return strings;
+    }
+
+    private static int stringId(Map<String, Integer> strings, String s) {
+        return strings.computeIfAbsent(s, key -> strings.size());
+    }
+}
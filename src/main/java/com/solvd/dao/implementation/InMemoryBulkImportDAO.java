@@ -0,0 +1,36 @@
+package com.solvd.dao.implementation;
+
+import com.solvd.dao.IBulkImportDAO;
+import com.solvd.models.Road;
+import com.solvd.models.Station;
+
+import java.util.List;
+
+/**
+ * Bulk inserts into the in-memory DAOs. Rows are inserted one by one, so each gets its ID and is logged as
+ * its own change; a failed import keeps the rows inserted before it, like {@link BulkImportDAOImpl} does
+ * for its committed rows.
+ */
+public class InMemoryBulkImportDAO implements IBulkImportDAO {
+    private final InMemoryStationDAO stationDAO;
+    private final InMemoryRoadDAO roadDAO;
+
+    public InMemoryBulkImportDAO(InMemoryStationDAO stationDAO, InMemoryRoadDAO roadDAO) {
+        this.stationDAO = stationDAO;
+        this.roadDAO = roadDAO;
+    }
+
+    @Override
+    public void insertStations(List<Station> stations) {
+        for (Station station : stations) {
+            stationDAO.insert(station);
+        }
+    }
+
+    @Override
+    public void insertRoads(List<Road> roads) {
+        for (Road road : roads) {
+            roadDAO.insert(road);
+        }
+    }
+}
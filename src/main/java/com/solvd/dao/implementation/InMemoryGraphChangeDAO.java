@@ -0,0 +1,62 @@
+package com.solvd.dao.implementation;
+
+import com.solvd.config.NavigationConfig;
+import com.solvd.dao.IGraphChangeDAO;
+import com.solvd.models.GraphChange;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Change log of the in-memory DAOs. Change IDs are positions in the log, starting at 1.
+ * Only the latest {@code navigation.changes.retained} changes are kept. A reader that asks for changes
+ * already dropped gets a single bulk change instead, so it reloads the whole network rather than missing any.
+ */
+public class InMemoryGraphChangeDAO implements IGraphChangeDAO {
+    private final ArrayDeque<GraphChange> changes = new ArrayDeque<>();
+    private final int capacity;
+    private long latestChangeId;
+
+    public InMemoryGraphChangeDAO() {
+        this(NavigationConfig.getInt("navigation.changes.retained", 100000));
+    }
+
+    public InMemoryGraphChangeDAO(int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    @Override
+    public synchronized List<GraphChange> getChangesSince(long changeId) {
+        long firstChangeId = latestChangeId - changes.size() + 1;
+        if (changeId >= latestChangeId) {
+            return new ArrayList<>();
+        }
+        if (changeId < firstChangeId - 1) {
+            GraphChange overflow = GraphChangeDAOImpl.networkChange();
+            overflow.setChangeId(latestChangeId);
+            return new ArrayList<>(List.of(overflow));
+        }
+        List<GraphChange> since = new ArrayList<>((int) (latestChangeId - changeId));
+        long position = firstChangeId;
+        for (GraphChange change : changes) {
+            if (position++ > changeId) {
+                since.add(change);
+            }
+        }
+        return since;
+    }
+
+    @Override
+    public synchronized long getLatestChangeId() {
+        return latestChangeId;
+    }
+
+    synchronized void log(GraphChange change) {
+        if (changes.size() == capacity) {
+            changes.removeFirst();
+        }
+        changes.addLast(change);
+        change.setChangeId(++latestChangeId);
+    }
+}
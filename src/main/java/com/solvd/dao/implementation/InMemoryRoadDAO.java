@@ -0,0 +1,248 @@
+package com.solvd.dao.implementation;
+
+import com.solvd.dao.IRoadDAO;
+import com.solvd.models.EdgeRow;
+import com.solvd.models.Road;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Roads held in memory as primitive columns indexed by road ID, 14 bytes per road,
+ * so millions of roads fit without a {@link Road} object each. Modes and bus colors are stored once
+ * in string tables. Locking and change logging work as in {@link InMemoryStationDAO}.
+ * The streaming methods copy a chunk of rows under the read lock and call the action outside of it,
+ * so an action may write to the DAO.
+ */
+public class InMemoryRoadDAO implements IRoadDAO {
+    private static final int CHUNK = 1024;
+
+    private final InMemoryStationDAO stations;
+    private final InMemoryGraphChangeDAO changes;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Slot 0 is never used, IDs start at 1; a mode of -1 marks a free slot
+    private int[] from = new int[16];
+    private int[] to = new int[16];
+    private byte[] modes = new byte[16];
+    private boolean[] oneWay = new boolean[16];
+    private int[] colors = new int[16];
+    private int nextId = 1;
+
+    private final StringTable modeNames = new StringTable();
+    private final StringTable colorNames = new StringTable();
+
+    public InMemoryRoadDAO(InMemoryStationDAO stations, InMemoryGraphChangeDAO changes) {
+        this.stations = stations;
+        this.changes = changes;
+        Arrays.fill(modes, (byte) -1);
+    }
+
+    @Override
+    public Road getEntityById(int id) {
+        lock.readLock().lock();
+        try {
+            return exists(id) ? road(id) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Road> getEntities() {
+        List<Road> roads = new ArrayList<>();
+        forEachRoad(roads::add);
+        return roads;
+    }
+
+    @Override
+    public List<Road> getRoadsByMode(String mode) {
+        List<Road> roads = new ArrayList<>();
+        forEachRoad(road -> {
+            if (road.getMode().equalsIgnoreCase(mode)) {
+                roads.add(road);
+            }
+        });
+        return roads;
+    }
+
+    private void forEachRoad(Consumer<Road> action) {
+        List<Road> chunk = new ArrayList<>(CHUNK);
+        for (int start = 1; ; start += CHUNK) {
+            lock.readLock().lock();
+            try {
+                if (start >= nextId) {
+                    return;
+                }
+                for (int id = start; id < Math.min(start + CHUNK, nextId); id++) {
+                    if (modes[id] != -1) {
+                        chunk.add(road(id));
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            chunk.forEach(action);
+            chunk.clear();
+        }
+    }
+
+    @Override
+    public void forEachEdge(String mode, Consumer<EdgeRow> action) {
+        List<EdgeRow> chunk = new ArrayList<>(CHUNK);
+        for (int start = 1; ; start += CHUNK) {
+            lock.readLock().lock();
+            stations.lock().readLock().lock();
+            try {
+                if (start >= nextId) {
+                    return;
+                }
+                Integer modeId = modeNames.ids.get(mode.toUpperCase());
+                for (int id = start; id < Math.min(start + CHUNK, nextId); id++) {
+                    if (modeId != null && modes[id] == modeId
+                            && stations.exists(from[id]) && stations.exists(to[id])) {
+                        chunk.add(edge(id));
+                    }
+                }
+            } finally {
+                stations.lock().readLock().unlock();
+                lock.readLock().unlock();
+            }
+            chunk.forEach(action);
+            chunk.clear();
+        }
+    }
+
+    @Override
+    public void insert(Road road) {
+        lock.writeLock().lock();
+        try {
+            int id = nextId;
+            put(id, road);
+            road.setRoadId(id);
+            changes.log(GraphChangeDAOImpl.roadChange("INSERT", road(id)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void update(int id, Road road) {
+        road.setRoadId(id);
+        lock.writeLock().lock();
+        try {
+            if (exists(id)) {
+                Road previous = road(id);
+                put(id, road);
+                changes.log(GraphChangeDAOImpl.roadChange("DELETE", previous));
+                changes.log(GraphChangeDAOImpl.roadChange("INSERT", road(id)));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void delete(int id) {
+        lock.writeLock().lock();
+        try {
+            if (exists(id)) {
+                Road previous = road(id);
+                modes[id] = -1;
+                changes.log(GraphChangeDAOImpl.roadChange("DELETE", previous));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Stores roads under their existing IDs, e.g. to load a copy of the database, and logs one bulk change.
+     *
+     * @param roads The roads to store; a road with an ID already present replaces it.
+     */
+    public void putAll(Collection<Road> roads) {
+        lock.writeLock().lock();
+        try {
+            for (Road road : roads) {
+                if (road.getRoadId() <= 0) {
+                    throw new IllegalArgumentException("Road IDs must be positive: " + road);
+                }
+                put(road.getRoadId(), road);
+            }
+            changes.log(GraphChangeDAOImpl.networkChange());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean exists(int id) {
+        return id > 0 && id < nextId && modes[id] != -1;
+    }
+
+    private Road road(int id) {
+        Road road = new Road();
+        road.setRoadId(id);
+        road.setFromStationId(from[id]);
+        road.setToStationId(to[id]);
+        road.setMode(modeNames.strings.get(modes[id]));
+        road.setOneWay(oneWay[id]);
+        road.setBusColor(colors[id] == -1 ? null : colorNames.strings.get(colors[id]));
+        return road;
+    }
+
+    private EdgeRow edge(int id) {
+        EdgeRow edge = new EdgeRow();
+        edge.setFromStationId(from[id]);
+        edge.setToStationId(to[id]);
+        edge.setOneWay(oneWay[id]);
+        edge.setBusColor(colors[id] == -1 ? null : colorNames.strings.get(colors[id]));
+        edge.setFromX(stations.x(from[id]));
+        edge.setFromY(stations.y(from[id]));
+        edge.setToX(stations.x(to[id]));
+        edge.setToY(stations.y(to[id]));
+        return edge;
+    }
+
+    private void put(int id, Road road) {
+        if (id >= modes.length) {
+            int oldCapacity = modes.length;
+            int capacity = Math.max(id + 1, oldCapacity * 2);
+            from = Arrays.copyOf(from, capacity);
+            to = Arrays.copyOf(to, capacity);
+            modes = Arrays.copyOf(modes, capacity);
+            oneWay = Arrays.copyOf(oneWay, capacity);
+            colors = Arrays.copyOf(colors, capacity);
+            Arrays.fill(modes, oldCapacity, capacity, (byte) -1);
+        }
+        int mode = modeNames.id(road.getMode().toUpperCase());
+        if (mode > Byte.MAX_VALUE) {
+            throw new IllegalStateException("Too many distinct modes: " + mode);
+        }
+        from[id] = road.getFromStationId();
+        to[id] = road.getToStationId();
+        modes[id] = (byte) mode;
+        oneWay[id] = road.isOneWay();
+        colors[id] = road.getBusColor() == null ? -1 : colorNames.id(road.getBusColor());
+        nextId = Math.max(nextId, id + 1);
+    }
+
+    private static class StringTable {
+        final List<String> strings = new ArrayList<>();
+        final Map<String, Integer> ids = new HashMap<>();
+
+        int id(String s) {
+            return ids.computeIfAbsent(s, key -> {
+                strings.add(key);
+                return strings.size() - 1;
+            });
+        }
+    }
+}
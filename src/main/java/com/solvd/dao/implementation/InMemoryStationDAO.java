@@ -0,0 +1,160 @@
+package com.solvd.dao.implementation;
+
+import com.solvd.dao.IStationDAO;
+import com.solvd.models.Station;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Stations held in memory as primitive columns indexed by station ID, with IDs handed out like
+ * {@code AUTO_INCREMENT}. Reads share a read lock, writes take the write lock and are logged to the
+ * in-memory change log before it is released, just like the database DAOs log in the same transaction.
+ */
+public class InMemoryStationDAO implements IStationDAO {
+    private final InMemoryGraphChangeDAO changes;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Slot 0 is never used, IDs start at 1
+    private double[] x = new double[16];
+    private double[] y = new double[16];
+    private String[] names = new String[16];
+    private int nextId = 1;
+
+    public InMemoryStationDAO(InMemoryGraphChangeDAO changes) {
+        this.changes = changes;
+    }
+
+    @Override
+    public Station getEntityById(int id) {
+        lock.readLock().lock();
+        try {
+            return exists(id) ? station(id) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Station> getEntities() {
+        lock.readLock().lock();
+        try {
+            List<Station> stations = new ArrayList<>();
+            for (int id = 1; id < nextId; id++) {
+                if (names[id] != null) {
+                    stations.add(station(id));
+                }
+            }
+            return stations;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void insert(Station station) {
+        lock.writeLock().lock();
+        try {
+            int id = nextId;
+            put(id, station);
+            station.setStationId(id);
+            changes.log(GraphChangeDAOImpl.stationChange("INSERT", id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void update(int id, Station station) {
+        station.setStationId(id);
+        lock.writeLock().lock();
+        try {
+            if (exists(id)) {
+                put(id, station);
+                changes.log(GraphChangeDAOImpl.stationChange("UPDATE", id));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void delete(int id) {
+        lock.writeLock().lock();
+        try {
+            if (exists(id)) {
+                names[id] = null;
+                changes.log(GraphChangeDAOImpl.stationChange("DELETE", id));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Stores stations under their existing IDs, e.g. to load a copy of the database, and logs one bulk change.
+     *
+     * @param stations The stations to store; a station with an ID already present replaces it.
+     */
+    public void putAll(Collection<Station> stations) {
+        lock.writeLock().lock();
+        try {
+            for (Station station : stations) {
+                if (station.getStationId() <= 0) {
+                    throw new IllegalArgumentException("Station IDs must be positive: " + station);
+                }
+                put(station.getStationId(), station);
+            }
+            changes.log(GraphChangeDAOImpl.networkChange());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The read lock, held by the road DAO while it reads station coordinates through
+     * {@link #exists(int)}, {@link #x(int)} and {@link #y(int)}.
+     */
+    ReadWriteLock lock() {
+        return lock;
+    }
+
+    boolean exists(int id) {
+        return id > 0 && id < nextId && names[id] != null;
+    }
+
+    double x(int id) {
+        return x[id];
+    }
+
+    double y(int id) {
+        return y[id];
+    }
+
+    private Station station(int id) {
+        Station station = new Station();
+        station.setStationId(id);
+        station.setName(names[id]);
+        station.setXCoord(x[id]);
+        station.setYCoord(y[id]);
+        return station;
+    }
+
+    private void put(int id, Station station) {
+        if (id >= names.length) {
+            int capacity = Math.max(id + 1, names.length * 2);
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            names = Arrays.copyOf(names, capacity);
+        }
+        x[id] = station.getXCoord();
+        y[id] = station.getYCoord();
+        // The name column doubles as the presence flag
+        names[id] = station.getName() != null ? station.getName() : "";
+        nextId = Math.max(nextId, id + 1);
+    }
+}
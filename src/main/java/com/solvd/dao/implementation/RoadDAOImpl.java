@@ -2,10 +2,15 @@ package com.solvd.dao.implementation;
 
 import com.solvd.dao.IRoadDAO;
 import com.solvd.mapper.RoadMapper;
+import com.solvd.models.EdgeRow;
 import com.solvd.models.Road;
+import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.session.SqlSession;
 import com.solvd.config.MyBatisConf;
+
+import java.io.IOException;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class RoadDAOImpl implements IRoadDAO {
     @Override
@@ -24,11 +29,22 @@ public class RoadDAOImpl implements IRoadDAO {
         }
     }
 
+    @Override
+    public void forEachEdge(String mode, Consumer<EdgeRow> action) {
+        try (SqlSession session = MyBatisConf.getSqlSessionFactory().openSession();
+             Cursor<EdgeRow> cursor = session.getMapper(RoadMapper.class).scanEdgesByMode(mode.toUpperCase())) {
+            cursor.forEach(action);
+        } catch (IOException e) {
+            throw new RuntimeException("Error closing edge cursor", e);
+        }
+    }
+
     @Override
     public void insert(Road road) {
         try (SqlSession session = MyBatisConf.getSqlSessionFactory().openSession()) {
             RoadMapper mapper = session.getMapper(RoadMapper.class);
             mapper.insertRoad(road);
+            GraphChangeDAOImpl.logRoad(session, "INSERT", road);
             session.commit();
         }
     }
@@ -38,7 +54,12 @@ public class RoadDAOImpl implements IRoadDAO {
         road.setRoadId(id);
         try (SqlSession session = MyBatisConf.getSqlSessionFactory().openSession()) {
             RoadMapper mapper = session.getMapper(RoadMapper.class);
+            Road previous = mapper.getRoadByIdForUpdate(id);
             mapper.updateRoad(road);
+            if (previous != null) {
+                GraphChangeDAOImpl.logRoad(session, "DELETE", previous);
+                GraphChangeDAOImpl.logRoad(session, "INSERT", road);
+            }
             session.commit();
         }
     }
@@ -47,7 +68,11 @@ public class RoadDAOImpl implements IRoadDAO {
     public void delete(int id) {
         try (SqlSession session = MyBatisConf.getSqlSessionFactory().openSession()) {
             RoadMapper mapper = session.getMapper(RoadMapper.class);
+            Road previous = mapper.getRoadByIdForUpdate(id);
             mapper.deleteRoad(id);
+            if (previous != null) {
+                GraphChangeDAOImpl.logRoad(session, "DELETE", previous);
+            }
             session.commit();
         }
     }
@@ -30,6 +30,7 @@ public class StationDAOImpl implements IStationDAO {
         try (SqlSession session = MyBatisConf.getSqlSessionFactory().openSession()) {
             StationMapper mapper = session.getMapper(StationMapper.class);
             mapper.insertStation(station);
+            GraphChangeDAOImpl.logStation(session, "INSERT", station.getStationId());
             session.commit();
         }
     }
@@ -41,6 +42,7 @@ public class StationDAOImpl implements IStationDAO {
         try (SqlSession session = MyBatisConf.getSqlSessionFactory().openSession()) {
             StationMapper mapper = session.getMapper(StationMapper.class);
             mapper.updateStation(station);
+            GraphChangeDAOImpl.logStation(session, "UPDATE", id);
             session.commit();
         }
     }
@@ -50,6 +52,7 @@ public class StationDAOImpl implements IStationDAO {
         try (SqlSession session = MyBatisConf.getSqlSessionFactory().openSession()) {
             StationMapper mapper = session.getMapper(StationMapper.class);
             mapper.deleteStation(id);
+            GraphChangeDAOImpl.logStation(session, "DELETE", id);
             session.commit();
         }
     }
@@ -0,0 +1,32 @@
+package com.solvd.mapper;
+
+import com.solvd.models.GraphChange;
+import org.apache.ibatis.annotations.*;
+
+import java.util.List;
+
+public interface GraphChangeMapper {
+
+    @Select("SELECT change_id, entity, entity_id, operation, from_station_id, to_station_id, mode, is_one_way, bus_color " +
+            "FROM graph_changes WHERE change_id > #{changeId} ORDER BY change_id")
+    @Results({
+            @Result(property = "changeId",      column = "change_id"),
+            @Result(property = "entity",        column = "entity"),
+            @Result(property = "entityId",      column = "entity_id"),
+            @Result(property = "operation",     column = "operation"),
+            @Result(property = "fromStationId", column = "from_station_id"),
+            @Result(property = "toStationId",   column = "to_station_id"),
+            @Result(property = "mode",          column = "mode"),
+            @Result(property = "oneWay",        column = "is_one_way"),
+            @Result(property = "busColor",      column = "bus_color")
+    })
+    List<GraphChange> getChangesSince(@Param("changeId") long changeId);
+
+    @Select("SELECT COALESCE(MAX(change_id), 0) FROM graph_changes")
+    long getLatestChangeId();
+
+    @Insert("INSERT INTO graph_changes (entity, entity_id, operation, from_station_id, to_station_id, mode, is_one_way, bus_color) " +
+            "VALUES (#{entity}, #{entityId}, #{operation}, #{fromStationId}, #{toStationId}, #{mode}, #{oneWay}, #{busColor})")
+    @Options(useGeneratedKeys = true, keyProperty = "changeId")
+    void insertChange(GraphChange change);
+}
@@ -1,7 +1,10 @@
 package com.solvd.mapper;
 
+import com.solvd.models.EdgeRow;
 import com.solvd.models.Road;
 import org.apache.ibatis.annotations.*;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
 
 import java.util.List;
 
@@ -18,6 +21,27 @@ public interface RoadMapper {
     })
     List<Road> getAllRoads();
 
+    // One row per road of the mode with the coordinates of both ends, so builders need no station lookups.
+    // Rows are fetched in batches as the cursor advances (MySQL needs useCursorFetch=true for this)
+    @Select("SELECT r.from_station_id, r.to_station_id, r.is_one_way, r.bus_color, " +
+            "f.x_coord AS from_x, f.y_coord AS from_y, t.x_coord AS to_x, t.y_coord AS to_y " +
+            "FROM roads r " +
+            "JOIN stations f ON f.station_id = r.from_station_id " +
+            "JOIN stations t ON t.station_id = r.to_station_id " +
+            "WHERE r.mode = #{mode} ORDER BY r.road_id")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = 1000)
+    @Results({
+            @Result(property = "fromStationId", column = "from_station_id"),
+            @Result(property = "toStationId",   column = "to_station_id"),
+            @Result(property = "oneWay",        column = "is_one_way"),
+            @Result(property = "busColor",      column = "bus_color"),
+            @Result(property = "fromX",         column = "from_x"),
+            @Result(property = "fromY",         column = "from_y"),
+            @Result(property = "toX",           column = "to_x"),
+            @Result(property = "toY",           column = "to_y")
+    })
+    Cursor<EdgeRow> scanEdgesByMode(@Param("mode") String mode);
+
     @Select("SELECT road_id, from_station_id, to_station_id, mode, is_one_way, bus_color FROM roads WHERE road_id = #{roadId}")
     @Results({
             @Result(property = "roadId",        column = "road_id"),
@@ -29,6 +53,18 @@ public interface RoadMapper {
     })
     Road getRoadById(@Param("roadId") int roadId);
 
+    // Locks the row until the transaction ends, so the road logged as replaced is the one the write replaces
+    @Select("SELECT road_id, from_station_id, to_station_id, mode, is_one_way, bus_color FROM roads WHERE road_id = #{roadId} FOR UPDATE")
+    @Results({
+            @Result(property = "roadId",        column = "road_id"),
+            @Result(property = "fromStationId", column = "from_station_id"),
+            @Result(property = "toStationId",   column = "to_station_id"),
+            @Result(property = "mode",          column = "mode"),
+            @Result(property = "oneWay",        column = "is_one_way"),
+            @Result(property = "busColor",      column = "bus_color")
+    })
+    Road getRoadByIdForUpdate(@Param("roadId") int roadId);
+
     @Select("SELECT road_id, from_station_id, to_station_id, mode, is_one_way, bus_color FROM roads WHERE mode = #{mode}")
     @Results({
             @Result(property = "roadId",        column = "road_id"),
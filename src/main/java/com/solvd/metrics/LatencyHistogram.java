@@ -0,0 +1,103 @@
+package com.solvd.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of durations in nanoseconds.
+ * Buckets are log-linear: every power of two is split into 8 equal buckets, so a percentile read
+ * from the buckets is within 12.5% of the recorded value, from nanoseconds up to centuries.
+ * Recording is a few atomic adds and never allocates.
+ */
+class LatencyHistogram {
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+
+    void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        buckets.incrementAndGet(bucket(nanos));
+        count.increment();
+        total.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        total.reset();
+        max.reset();
+    }
+
+    /**
+     * Copies the histogram into a summary. Values recorded while copying may be partly included.
+     */
+    LatencyStats stats() {
+        long[] counts = new long[BUCKETS];
+        long recorded = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            recorded += counts[i];
+        }
+        long n = count.sum();
+        double mean = n == 0 ? 0 : total.sum() / (double) n;
+        long largest = max.get();
+        // The middle of the top bucket may lie above the largest value actually recorded
+        return new LatencyStats(n, millis(mean),
+                millis(Math.min(percentile(counts, recorded, 0.50), largest)),
+                millis(Math.min(percentile(counts, recorded, 0.90), largest)),
+                millis(Math.min(percentile(counts, recorded, 0.99), largest)),
+                millis(largest));
+    }
+
+    private static double percentile(long[] counts, long recorded, double p) {
+        if (recorded == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(p * recorded);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return middle(i);
+            }
+        }
+        return middle(counts.length - 1);
+    }
+
+    /**
+     * Values below 8 get a bucket each; above that, bucket {@code 8 * (e - 2) + s} holds the values
+     * whose highest bit is {@code e} and whose next three bits are {@code s}.
+     */
+    static int bucket(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int) (nanos >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    private static double middle(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) / 2.0;
+    }
+
+    private static double millis(double nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
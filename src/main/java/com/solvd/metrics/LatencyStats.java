@@ -0,0 +1,57 @@
+package com.solvd.metrics;
+
+import javax.management.ConstructorParameters;
+
+/**
+ * Summary of one latency histogram, shown as a composite attribute of {@link RoutingMetricsMXBean}.
+ * Percentiles are read from the histogram buckets, so they are approximate.
+ */
+public class LatencyStats {
+    private final long count;
+    private final double meanMillis;
+    private final double p50Millis;
+    private final double p90Millis;
+    private final double p99Millis;
+    private final double maxMillis;
+
+    @ConstructorParameters({"count", "meanMillis", "p50Millis", "p90Millis", "p99Millis", "maxMillis"})
+    public LatencyStats(long count, double meanMillis, double p50Millis, double p90Millis,
+                        double p99Millis, double maxMillis) {
+        this.count = count;
+        this.meanMillis = meanMillis;
+        this.p50Millis = p50Millis;
+        this.p90Millis = p90Millis;
+        this.p99Millis = p99Millis;
+        this.maxMillis = maxMillis;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMeanMillis() {
+        return meanMillis;
+    }
+
+    public double getP50Millis() {
+        return p50Millis;
+    }
+
+    public double getP90Millis() {
+        return p90Millis;
+    }
+
+    public double getP99Millis() {
+        return p99Millis;
+    }
+
+    public double getMaxMillis() {
+        return maxMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d, mean=%.3f ms, p50=%.3f ms, p90=%.3f ms, p99=%.3f ms, max=%.3f ms",
+                count, meanMillis, p50Millis, p90Millis, p99Millis, maxMillis);
+    }
+}
@@ -0,0 +1,203 @@
+package com.solvd.metrics;
+
+import com.solvd.config.NavigationConfig;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide timings and counters of the routing engine.
+ * The engine records into the static methods; the values are read through JMX (e.g. JConsole or
+ * VisualVM) under {@value #OBJECT_NAME}. The bean is registered on first use, unless
+ * {@code navigation.metrics.jmx} is false, in which case the values are only kept in memory.
+ * <p>
+ * Timing a stage costs two {@link System#nanoTime()} calls and a few atomic adds:
+ * <pre>
+ * long start = System.nanoTime();
+ * ...
+ * RoutingMetrics.record(RoutingMetrics.Stage.KERNEL, start);
+ * </pre>
+ */
+public final class RoutingMetrics implements RoutingMetricsMXBean {
+    public static final String OBJECT_NAME = "com.solvd:type=RoutingMetrics";
+
+    public enum Stage {
+        GRAPH_BUILD, KERNEL, INCREMENTAL_UPDATE, QUERY, SEARCH, PATH_RECONSTRUCTION, ROUTE_FORMATTING, ALTERNATIVES
+    }
+
+    public enum Counter {
+        CACHE_HITS, CACHE_MISSES, RECOMPUTES, INCREMENTAL_UPDATES, CHANGES_APPLIED, BACKGROUND_FAILURES
+    }
+
+    private static final RoutingMetrics INSTANCE = new RoutingMetrics();
+
+    static {
+        register();
+    }
+
+    private final Map<Stage, LatencyHistogram> stages = new EnumMap<>(Stage.class);
+    private final Map<Counter, LongAdder> counters = new EnumMap<>(Counter.class);
+    private final Map<String, Integer> matrixSizes = new ConcurrentHashMap<>();
+
+    private RoutingMetrics() {
+        for (Stage stage : Stage.values()) {
+            stages.put(stage, new LatencyHistogram());
+        }
+        for (Counter counter : Counter.values()) {
+            counters.put(counter, new LongAdder());
+        }
+    }
+
+    /**
+     * Registers the bean on the platform MBean server if {@code navigation.metrics.jmx} allows it.
+     * Calling it again does nothing.
+     */
+    public static synchronized void register() {
+        if (!Boolean.parseBoolean(NavigationConfig.get("navigation.metrics.jmx", "true"))) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // Already registered
+        } catch (JMException e) {
+            throw new RuntimeException("Error registering " + OBJECT_NAME, e);
+        }
+    }
+
+    /**
+     * @return The bean, for reading the values in-process.
+     */
+    public static RoutingMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Records the time since {@code startNanos} for a stage.
+     *
+     * @param stage      The stage that ran.
+     * @param startNanos {@link System#nanoTime()} when the stage started.
+     */
+    public static void record(Stage stage, long startNanos) {
+        INSTANCE.stages.get(stage).record(System.nanoTime() - startNanos);
+    }
+
+    public static void increment(Counter counter) {
+        INSTANCE.counters.get(counter).increment();
+    }
+
+    public static void add(Counter counter, long amount) {
+        INSTANCE.counters.get(counter).add(amount);
+    }
+
+    /**
+     * @param mode The mode of transportation.
+     * @param size Number of rows of the matrix just solved for it.
+     */
+    public static void setMatrixSize(String mode, int size) {
+        INSTANCE.matrixSizes.put(mode.toUpperCase(), size);
+    }
+
+    public LatencyStats getStats(Stage stage) {
+        return stages.get(stage).stats();
+    }
+
+    public long getCount(Counter counter) {
+        return counters.get(counter).sum();
+    }
+
+    @Override
+    public LatencyStats getGraphBuildLatency() {
+        return getStats(Stage.GRAPH_BUILD);
+    }
+
+    @Override
+    public LatencyStats getKernelLatency() {
+        return getStats(Stage.KERNEL);
+    }
+
+    @Override
+    public LatencyStats getIncrementalUpdateLatency() {
+        return getStats(Stage.INCREMENTAL_UPDATE);
+    }
+
+    @Override
+    public LatencyStats getQueryLatency() {
+        return getStats(Stage.QUERY);
+    }
+
+    @Override
+    public LatencyStats getSearchLatency() {
+        return getStats(Stage.SEARCH);
+    }
+
+    @Override
+    public LatencyStats getPathReconstructionLatency() {
+        return getStats(Stage.PATH_RECONSTRUCTION);
+    }
+
+    @Override
+    public LatencyStats getRouteFormattingLatency() {
+        return getStats(Stage.ROUTE_FORMATTING);
+    }
+
+    @Override
+    public LatencyStats getAlternativesLatency() {
+        return getStats(Stage.ALTERNATIVES);
+    }
+
+    @Override
+    public long getCacheHits() {
+        return getCount(Counter.CACHE_HITS);
+    }
+
+    @Override
+    public long getCacheMisses() {
+        return getCount(Counter.CACHE_MISSES);
+    }
+
+    @Override
+    public double getCacheHitRate() {
+        long hits = getCacheHits();
+        long lookups = hits + getCacheMisses();
+        return lookups == 0 ? 0 : hits / (double) lookups;
+    }
+
+    @Override
+    public long getRecomputeCount() {
+        return getCount(Counter.RECOMPUTES);
+    }
+
+    @Override
+    public long getIncrementalUpdateCount() {
+        return getCount(Counter.INCREMENTAL_UPDATES);
+    }
+
+    @Override
+    public long getChangesApplied() {
+        return getCount(Counter.CHANGES_APPLIED);
+    }
+
+    @Override
+    public long getBackgroundFailureCount() {
+        return getCount(Counter.BACKGROUND_FAILURES);
+    }
+
+    @Override
+    public Map<String, Integer> getMatrixSizes() {
+        return new TreeMap<>(matrixSizes);
+    }
+
+    @Override
+    public void reset() {
+        stages.values().forEach(LatencyHistogram::reset);
+        counters.values().forEach(LongAdder::reset);
+    }
+}
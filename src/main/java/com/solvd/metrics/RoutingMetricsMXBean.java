@@ -0,0 +1,96 @@
+package com.solvd.metrics;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link RoutingMetrics}, registered as {@value RoutingMetrics#OBJECT_NAME}.
+ * Every latency attribute covers one stage of answering a route query; the counters and gauges
+ * show how often the cached solutions are reused and how large they are.
+ */
+public interface RoutingMetricsMXBean {
+
+    /**
+     * Loading a network from its source into an adjacency matrix or sparse graph.
+     */
+    LatencyStats getGraphBuildLatency();
+
+    /**
+     * Solving an adjacency matrix from scratch with the configured all-pairs kernel.
+     */
+    LatencyStats getKernelLatency();
+
+    /**
+     * Applying one road change to a copy of a cached solution.
+     */
+    LatencyStats getIncrementalUpdateLatency();
+
+    /**
+     * A whole {@code computeNavigation} call, including any rebuild it triggered.
+     */
+    LatencyStats getQueryLatency();
+
+    /**
+     * Single-pair searches (A*, bidirectional Dijkstra, the lexicographic bus search).
+     */
+    LatencyStats getSearchLatency();
+
+    /**
+     * Walking the next-hop matrix of an all-pairs solution from start to end.
+     */
+    LatencyStats getPathReconstructionLatency();
+
+    /**
+     * Turning a path of vertices into a route; its text is only formatted when the route is printed.
+     */
+    LatencyStats getRouteFormattingLatency();
+
+    /**
+     * A whole {@code getAlternativePaths} call.
+     */
+    LatencyStats getAlternativesLatency();
+
+    /**
+     * Queries answered by an up-to-date cached solution, snapshot or network.
+     */
+    long getCacheHits();
+
+    /**
+     * Queries that had to load or solve a network first.
+     */
+    long getCacheMisses();
+
+    /**
+     * Hits divided by hits plus misses, 0 before the first query.
+     */
+    double getCacheHitRate();
+
+    /**
+     * Full all-pairs solves.
+     */
+    long getRecomputeCount();
+
+    /**
+     * Road changes applied to a copy of a cached solution instead of solving it again.
+     */
+    long getIncrementalUpdateCount();
+
+    /**
+     * Changes read from the {@code graph_changes} log.
+     */
+    long getChangesApplied();
+
+    /**
+     * Background rebuilds, change polls and snapshot writes that failed; every failure is also logged.
+     */
+    long getBackgroundFailureCount();
+
+    /**
+     * Side length of the last solved matrix of every mode.
+     */
+    Map<String, Integer> getMatrixSizes();
+
+    /**
+     * Clears every histogram and counter; the matrix sizes are kept.
+     */
+    void reset();
+}
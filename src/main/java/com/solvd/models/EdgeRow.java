@@ -0,0 +1,19 @@
+package com.solvd.models;
+
+import lombok.Data;
+
+/**
+ * A road of one mode joined with the coordinates of both its stations,
+ * everything a graph builder needs to add the edge.
+ */
+@Data
+public class EdgeRow {
+    private int fromStationId;
+    private int toStationId;
+    private boolean oneWay;
+    private String busColor;   // Only set for BUS roads
+    private double fromX;
+    private double fromY;
+    private double toX;
+    private double toY;
+}
@@ -0,0 +1,36 @@
+package com.solvd.models;
+
+import lombok.Data;
+
+/**
+ * One row of the {@code graph_changes} log.
+ * ROAD rows carry the road as inserted or as deleted; an update is logged as a DELETE of the old road
+ * followed by an INSERT of the new one. STATION rows only name the station, and a NETWORK row marks
+ * a bulk change after which everything has to be reloaded.
+ */
+@Data
+public class GraphChange {
+    private long changeId;
+    private String entity;        // 'STATION', 'ROAD' or 'NETWORK'
+    private Integer entityId;
+    private String operation;     // 'INSERT', 'UPDATE' or 'DELETE'
+    private Integer fromStationId;
+    private Integer toStationId;
+    private String mode;
+    private Boolean oneWay;
+    private String busColor;
+
+    /**
+     * @return The road carried by a ROAD row.
+     */
+    public Road toRoad() {
+        Road road = new Road();
+        road.setRoadId(entityId);
+        road.setFromStationId(fromStationId);
+        road.setToStationId(toStationId);
+        road.setMode(mode);
+        road.setOneWay(oneWay);
+        road.setBusColor(busColor);
+        return road;
+    }
+}
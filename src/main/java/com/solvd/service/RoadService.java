@@ -1,10 +1,13 @@
 package com.solvd.service;
 
+import com.solvd.models.EdgeRow;
 import com.solvd.models.Road;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface RoadService {
     List<Road> getAllRoads();
+    void forEachEdge(String mode, Consumer<EdgeRow> action);
     Road getRoadById(int id);
     List<Road> getRoadsByMode(String mode);
     void createRoad(Road road);
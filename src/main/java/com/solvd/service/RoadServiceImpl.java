@@ -1,16 +1,23 @@
 package com.solvd.service;
 
+import com.solvd.algoritms.RouteCache;
 import com.solvd.dao.IRoadDAO;
 import com.solvd.dao.implementation.RoadDAOImpl;
+import com.solvd.models.EdgeRow;
 import com.solvd.models.Road;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class RoadServiceImpl implements RoadService {
 
     private final IRoadDAO roadDAO;
 
     public RoadServiceImpl() {
-        this.roadDAO = new RoadDAOImpl();
+        this(new RoadDAOImpl());
+    }
+
+    public RoadServiceImpl(IRoadDAO roadDAO) {
+        this.roadDAO = roadDAO;
     }
 
     @Override
@@ -18,6 +25,11 @@ public class RoadServiceImpl implements RoadService {
         return roadDAO.getEntities();
     }
 
+    @Override
+    public void forEachEdge(String mode, Consumer<EdgeRow> action) {
+        roadDAO.forEachEdge(mode, action);
+    }
+
     @Override
     public Road getRoadById(int id) {
         return roadDAO.getEntityById(id);
@@ -31,15 +43,18 @@ public class RoadServiceImpl implements RoadService {
     @Override
     public void createRoad(Road road) {
         roadDAO.insert(road);
+        RouteCache.refresh();
     }
 
     @Override
     public void updateRoad(int id, Road road) {
         roadDAO.update(id, road);
+        RouteCache.refresh();
     }
 
     @Override
     public void deleteRoad(int id) {
         roadDAO.delete(id);
+        RouteCache.refresh();
     }
 }
@@ -0,0 +1,19 @@
+package com.solvd.service;
+
+import com.solvd.algoritms.FloydWarshall;
+import com.solvd.algoritms.RoutingSnapshot;
+
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+
+public interface RoutingService extends AutoCloseable {
+    RoutingSnapshot getSnapshot(String mode);
+    FloydWarshall.Route getRoute(int startStationId, int endStationId, String mode);
+    List<FloydWarshall.Route> getAlternativeRoutes(int startStationId, int endStationId, String mode, int k);
+    void getRoutes(List<FloydWarshall.RouteQuery> queries, ObjIntConsumer<FloydWarshall.Route> onRoute);
+    void getRoutes(List<FloydWarshall.RouteQuery> queries, ObjIntConsumer<FloydWarshall.Route> onRoute,
+                   ObjIntConsumer<RuntimeException> onError);
+    void requestRebuild(String mode);
+    @Override
+    void close();
+}
@@ -0,0 +1,147 @@
+package com.solvd.service;
+
+import com.solvd.algoritms.FloydWarshall;
+import com.solvd.algoritms.RouteCache;
+import com.solvd.algoritms.RoutingSnapshot;
+import com.solvd.config.NavigationConfig;
+import com.solvd.metrics.RoutingMetrics;
+import com.solvd.utils.GraphVersion;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ObjIntConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Answers route queries from immutable {@link RoutingSnapshot}s, so any number of threads can query
+ * while the network is being solved again. A snapshot only carries the all-pairs solution when the configured
+ * engine reads it (see {@link RouteCache#snapshot(String)}), so the default engines never solve the O(n³) kernel.
+ * <p>
+ * Each mode's snapshot is published through an {@link AtomicReference}. Readers only read it: the first query
+ * of a mode waits for the initial solve, every later one gets the current snapshot right away. A reader that
+ * finds its snapshot older than {@link GraphVersion#current()} requests a rebuild and still answers from the
+ * old one. Rebuilds run on one background thread through the {@link RouteCache}, so road edits are applied
+ * incrementally where possible, and the finished snapshot is swapped in atomically. Requests made while a
+ * rebuild of the mode is queued are coalesced into it. The same thread polls the {@code graph_changes} log every
+ * {@code navigation.changes.pollInterval} milliseconds, so writes from other processes trigger rebuilds too.
+ * A failed rebuild or poll is logged and counted in {@link RoutingMetrics}, and retried by the next stale read or poll.
+ */
+public class RoutingServiceImpl implements RoutingService {
+    private static final Logger LOGGER = Logger.getLogger(RoutingServiceImpl.class.getName());
+
+    private final Map<String, AtomicReference<RoutingSnapshot>> snapshots = new ConcurrentHashMap<>();
+    // Set while a rebuild of the mode is queued and has not started reading the network yet
+    private final Map<String, AtomicBoolean> rebuildsQueued = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService worker;
+
+    public RoutingServiceImpl() {
+        worker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "routing-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1, NavigationConfig.getInt("navigation.changes.pollInterval", 1000));
+        worker.scheduleWithFixedDelay(this::pollChanges, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public RoutingSnapshot getSnapshot(String mode) {
+        String key = mode.toUpperCase();
+        AtomicReference<RoutingSnapshot> current = snapshots.computeIfAbsent(key, k -> new AtomicReference<>());
+        RoutingSnapshot snapshot = current.get();
+        if (snapshot == null) {
+            synchronized (current) {
+                if (current.get() == null) {
+                    publish(current, RouteCache.snapshot(key));
+                }
+                return current.get();
+            }
+        }
+        if (snapshot.getVersion() != GraphVersion.current()) {
+            requestRebuild(key);
+        }
+        return snapshot;
+    }
+
+    @Override
+    public FloydWarshall.Route getRoute(int startStationId, int endStationId, String mode) {
+        return FloydWarshall.computeNavigation(getSnapshot(mode), startStationId, endStationId);
+    }
+
+    @Override
+    public List<FloydWarshall.Route> getAlternativeRoutes(int startStationId, int endStationId, String mode, int k) {
+        return FloydWarshall.getAlternativePaths(getSnapshot(mode), startStationId, endStationId, k);
+    }
+
+    @Override
+    public void getRoutes(List<FloydWarshall.RouteQuery> queries, ObjIntConsumer<FloydWarshall.Route> onRoute) {
+        FloydWarshall.computeNavigationBatch(this::getSnapshot, RouteCache::network, queries, onRoute);
+    }
+
+    @Override
+    public void getRoutes(List<FloydWarshall.RouteQuery> queries, ObjIntConsumer<FloydWarshall.Route> onRoute,
+                          ObjIntConsumer<RuntimeException> onError) {
+        FloydWarshall.computeNavigationBatch(this::getSnapshot, RouteCache::network, queries, onRoute, onError);
+    }
+
+    @Override
+    public void requestRebuild(String mode) {
+        String key = mode.toUpperCase();
+        AtomicBoolean queued = rebuildsQueued.computeIfAbsent(key, k -> new AtomicBoolean());
+        if (queued.compareAndSet(false, true)) {
+            worker.execute(() -> rebuild(key, queued));
+        }
+    }
+
+    private void rebuild(String key, AtomicBoolean queued) {
+        // A request from now on may come after the network was read, so it queues another rebuild
+        queued.set(false);
+        try {
+            publish(snapshots.computeIfAbsent(key, k -> new AtomicReference<>()), RouteCache.snapshot(key));
+        } catch (RuntimeException e) {
+            // Keep serving the old snapshot; the next stale read requests a new rebuild
+            RoutingMetrics.increment(RoutingMetrics.Counter.BACKGROUND_FAILURES);
+            LOGGER.log(Level.WARNING, "Rebuilding the " + key + " routing snapshot failed", e);
+        }
+    }
+
+    private void pollChanges() {
+        try {
+            RouteCache.refresh();
+            long version = GraphVersion.current();
+            snapshots.forEach((key, current) -> {
+                RoutingSnapshot snapshot = current.get();
+                if (snapshot != null && snapshot.getVersion() != version) {
+                    requestRebuild(key);
+                }
+            });
+        } catch (RuntimeException e) {
+            // A failed poll must not cancel the ones scheduled after it; the next poll retries
+            RoutingMetrics.increment(RoutingMetrics.Counter.BACKGROUND_FAILURES);
+            LOGGER.log(Level.WARNING, "Polling the graph change log failed", e);
+        }
+    }
+
+    /**
+     * Swaps in a snapshot unless a newer one was published meanwhile.
+     */
+    private static void publish(AtomicReference<RoutingSnapshot> current, RoutingSnapshot snapshot) {
+        current.accumulateAndGet(snapshot, (old, candidate) ->
+                old == null || candidate.getVersion() >= old.getVersion() ? candidate : old);
+    }
+
+    /**
+     * Stops the background thread; queries keep working on the last snapshots, but are no longer refreshed.
+     */
+    @Override
+    public void close() {
+        worker.shutdownNow();
+    }
+}
@@ -1,5 +1,6 @@
 package com.solvd.service;
 
+import com.solvd.algoritms.RouteCache;
 import com.solvd.dao.IStationDAO;
 import com.solvd.dao.implementation.StationDAOImpl;
 import com.solvd.models.Station;
@@ -11,7 +12,11 @@ public class StationServiceImpl implements StationService {
     private final IStationDAO stationDAO;
 
     public StationServiceImpl() {
-        this.stationDAO = new StationDAOImpl();
+        this(new StationDAOImpl());
+    }
+
+    public StationServiceImpl(IStationDAO stationDAO) {
+        this.stationDAO = stationDAO;
     }
 
     @Override
@@ -27,15 +32,18 @@ public class StationServiceImpl implements StationService {
     @Override
     public void createStation(Station station) {
         stationDAO.insert(station);
+        RouteCache.refresh();
     }
 
     @Override
     public void updateStation(int id, Station station) {
         stationDAO.update(id, station);
+        RouteCache.refresh();
     }
 
     @Override
     public void deleteStation(int id) {
         stationDAO.delete(id);
+        RouteCache.refresh();
     }
 }
@@ -5,9 +5,11 @@ import java.util.Map;
 
 public class BusGraph {
     private double[][] matrix;
+    private CsrGraph csr;
     private List<BusVertex> vertices;
     private Map<String, Integer> vertexToIndex;
     private Map<Integer, List<Integer>> stationToVertices;
+    private int[] stationIndices;
 
     // Constructor (to initialize fields, assuming they are set elsewhere like in GraphManager)
     public BusGraph() {
@@ -19,6 +21,10 @@ public class BusGraph {
         return matrix;
     }
 
+    public CsrGraph getCsr() {
+        return csr;
+    }
+
     public List<BusVertex> getVertices() {
         return vertices;
     }
@@ -31,11 +37,38 @@ public class BusGraph {
         return stationToVertices;
     }
 
+    /**
+     * @return The index of a vertex's station in the station list of the graph manager that built this graph.
+     */
+    public int getStationIndex(int vertex) {
+        return stationIndices[vertex];
+    }
+
+    /**
+     * Copies the graph with other edges, sharing the vertex tables, which never change after a build.
+     *
+     * @param csr The edges of the copy.
+     * @return The copy, without a dense matrix.
+     */
+    public BusGraph withCsr(CsrGraph csr) {
+        BusGraph copy = new BusGraph();
+        copy.csr = csr;
+        copy.vertices = vertices;
+        copy.vertexToIndex = vertexToIndex;
+        copy.stationToVertices = stationToVertices;
+        copy.stationIndices = stationIndices;
+        return copy;
+    }
+
     // Setter methods (optional, depending on design; included for flexibility)
     public void setMatrix(double[][] matrix) {
         this.matrix = matrix;
     }
 
+    public void setCsr(CsrGraph csr) {
+        this.csr = csr;
+    }
+
     public void setVertices(List<BusVertex> vertices) {
         this.vertices = vertices;
     }
@@ -47,4 +80,8 @@ public class BusGraph {
     public void setStationToVertices(Map<Integer, List<Integer>> stationToVertices) {
         this.stationToVertices = stationToVertices;
     }
+
+    public void setStationIndices(int[] stationIndices) {
+        this.stationIndices = stationIndices;
+    }
 }
\ No newline at end of file
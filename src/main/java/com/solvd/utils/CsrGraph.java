@@ -0,0 +1,188 @@
+package com.solvd.utils;
+
+/**
+ * Directed weighted graph in compressed sparse row form.
+ * The edges leaving vertex u are {@code targets[e]} / {@code weights[e]} for
+ * {@code offsets[u] <= e < offsets[u + 1]}, so memory grows with the number of edges
+ * instead of the number of vertices squared.
+ */
+public class CsrGraph {
+    private static final double INF = Double.MAX_VALUE;
+
+    private final int[] offsets;
+    private final int[] targets;
+    private final double[] weights;
+
+    public CsrGraph(int[] offsets, int[] targets, double[] weights) {
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    /**
+     * Builds a graph from an edge list, keeping the input order of edges leaving the same vertex.
+     *
+     * @param n      The number of vertices.
+     * @param from   The tails of the edges.
+     * @param to     The heads of the edges.
+     * @param weight The weights of the edges.
+     * @param m      The number of edges to read from the arrays.
+     * @return The graph.
+     */
+    public static CsrGraph fromEdges(int n, int[] from, int[] to, double[] weight, int m) {
+        int[] offsets = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            offsets[from[e] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] fill = new int[n];
+        System.arraycopy(offsets, 0, fill, 0, n);
+        int[] targets = new int[m];
+        double[] weights = new double[m];
+        for (int e = 0; e < m; e++) {
+            int slot = fill[from[e]]++;
+            targets[slot] = to[e];
+            weights[slot] = weight[e];
+        }
+        return new CsrGraph(offsets, targets, weights);
+    }
+
+    /**
+     * Builds a graph from an adjacency matrix, taking every off-diagonal entry below {@code Double.MAX_VALUE}.
+     *
+     * @param matrix The adjacency matrix.
+     * @return The graph.
+     */
+    public static CsrGraph fromMatrix(double[][] matrix) {
+        int n = matrix.length;
+        int m = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (i != j && matrix[i][j] != INF) m++;
+            }
+        }
+        int[] offsets = new int[n + 1];
+        int[] targets = new int[m];
+        double[] weights = new double[m];
+        int e = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (i != j && matrix[i][j] != INF) {
+                    targets[e] = j;
+                    weights[e] = matrix[i][j];
+                    e++;
+                }
+            }
+            offsets[i + 1] = e;
+        }
+        return new CsrGraph(offsets, targets, weights);
+    }
+
+    /**
+     * @return A new graph with every edge pointing the other way.
+     */
+    public CsrGraph reversed() {
+        int n = size();
+        int m = edgeCount();
+        int[] from = new int[m];
+        for (int u = 0; u < n; u++) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                from[e] = u;
+            }
+        }
+        return fromEdges(n, targets, from, weights, m);
+    }
+
+    /**
+     * @return A new graph with one more edge, placed after the other edges leaving the same vertex.
+     */
+    public CsrGraph withEdge(int from, int to, double weight) {
+        int m = edgeCount();
+        int slot = offsets[from + 1];
+        int[] newOffsets = offsets.clone();
+        for (int v = from + 1; v < newOffsets.length; v++) {
+            newOffsets[v]++;
+        }
+        int[] newTargets = new int[m + 1];
+        double[] newWeights = new double[m + 1];
+        System.arraycopy(targets, 0, newTargets, 0, slot);
+        System.arraycopy(weights, 0, newWeights, 0, slot);
+        newTargets[slot] = to;
+        newWeights[slot] = weight;
+        System.arraycopy(targets, slot, newTargets, slot + 1, m - slot);
+        System.arraycopy(weights, slot, newWeights, slot + 1, m - slot);
+        return new CsrGraph(newOffsets, newTargets, newWeights);
+    }
+
+    /**
+     * @return A new graph without one edge from one vertex to another of the given weight,
+     *         or {@code null} if there is no such edge.
+     */
+    public CsrGraph withoutEdge(int from, int to, double weight) {
+        int slot = -1;
+        for (int e = offsets[from]; e < offsets[from + 1] && slot == -1; e++) {
+            if (targets[e] == to && weights[e] == weight) {
+                slot = e;
+            }
+        }
+        if (slot == -1) {
+            return null;
+        }
+        int m = edgeCount();
+        int[] newOffsets = offsets.clone();
+        for (int v = from + 1; v < newOffsets.length; v++) {
+            newOffsets[v]--;
+        }
+        int[] newTargets = new int[m - 1];
+        double[] newWeights = new double[m - 1];
+        System.arraycopy(targets, 0, newTargets, 0, slot);
+        System.arraycopy(weights, 0, newWeights, 0, slot);
+        System.arraycopy(targets, slot + 1, newTargets, slot, m - slot - 1);
+        System.arraycopy(weights, slot + 1, newWeights, slot, m - slot - 1);
+        return new CsrGraph(newOffsets, newTargets, newWeights);
+    }
+
+    public int size() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * @return The weight of the lightest edge from one vertex to another, {@code Double.MAX_VALUE} if there is none.
+     */
+    public double weight(int from, int to) {
+        double weight = INF;
+        for (int e = offsets[from]; e < offsets[from + 1]; e++) {
+            if (targets[e] == to && weights[e] < weight) {
+                weight = weights[e];
+            }
+        }
+        return weight;
+    }
+
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * @return The edge offsets, n + 1 entries. Must not be modified.
+     */
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    /**
+     * @return The edge heads. Must not be modified.
+     */
+    public int[] getTargets() {
+        return targets;
+    }
+
+    /**
+     * @return The edge weights, aligned with {@link #getTargets()}. Must not be modified.
+     */
+    public double[] getWeights() {
+        return weights;
+    }
+}
@@ -0,0 +1,214 @@
+package com.solvd.utils;
+
+import com.solvd.algoritms.RouteCache;
+import com.solvd.dao.IBulkImportDAO;
+import com.solvd.dao.implementation.BulkImportDAOImpl;
+import com.solvd.models.Road;
+import com.solvd.models.Station;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Loads stations and roads from CSV files with the bulk import DAO.
+ * <p>
+ * Both files start with a header line. Stations are {@code key,name,x_coord,y_coord}, where the key
+ * only names the station within the import. Roads are {@code from,to,mode,is_one_way,bus_color}, where
+ * {@code from} and {@code to} are keys of stations imported earlier by the same importer, or IDs of
+ * stations already in the database. The mode is CAR or BUS, {@code is_one_way} is true or false, and BUS roads
+ * need a bus color. Fields may be quoted with double quotes. An invalid row fails the import of its file
+ * before anything is written.
+ */
+public class CsvNetworkImporter {
+    private final IBulkImportDAO importDAO;
+    // Import key -> generated station ID
+    private final Map<String, Integer> stationIds = new HashMap<>();
+    // Keys committed by a stations import that failed later on, skipped when the file is imported again
+    private final Set<String> interruptedKeys = new HashSet<>();
+
+    public CsvNetworkImporter() {
+        this(new BulkImportDAOImpl());
+    }
+
+    public CsvNetworkImporter(IBulkImportDAO importDAO) {
+        this.importDAO = importDAO;
+    }
+
+    /**
+     * Imports a stations file and remembers the generated ID of every key.
+     * If an import fails after committing some of its stations, importing the file again skips those.
+     *
+     * @param file The stations CSV file.
+     * @return The number of stations imported.
+     */
+    public int importStations(Path file) {
+        List<Station> stations = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        Set<String> seen = new HashSet<>(stationIds.keySet());
+        seen.removeAll(interruptedKeys);
+        List<String> resumed = new ArrayList<>();
+        List<String[]> rows = read(file, 4);
+        for (int i = 0; i < rows.size(); i++) {
+            String[] row = rows.get(i);
+            if (!seen.add(row[0])) {
+                throw new IllegalArgumentException(file + " row " + (i + 1) + ": duplicate station key " + row[0]);
+            }
+            if (interruptedKeys.contains(row[0])) {
+                resumed.add(row[0]);
+                continue;
+            }
+            Station station = new Station();
+            station.setName(row[1]);
+            station.setXCoord(parseDouble(file, i, row[2]));
+            station.setYCoord(parseDouble(file, i, row[3]));
+            stations.add(station);
+            keys.add(row[0]);
+        }
+
+        boolean failed = true;
+        try {
+            importDAO.insertStations(stations);
+            failed = false;
+        } finally {
+            // A failed import may have committed some stations, which a re-run must refer to instead of duplicating
+            for (int i = 0; i < stations.size(); i++) {
+                if (stations.get(i).getStationId() != 0) {
+                    stationIds.put(keys.get(i), stations.get(i).getStationId());
+                    if (failed) {
+                        interruptedKeys.add(keys.get(i));
+                    }
+                }
+            }
+            if (!failed) {
+                resumed.forEach(interruptedKeys::remove);
+            }
+            RouteCache.refresh();
+        }
+        return stations.size();
+    }
+
+    /**
+     * Imports a roads file.
+     *
+     * @param file The roads CSV file.
+     * @return The number of roads imported.
+     */
+    public int importRoads(Path file) {
+        List<Road> roads = new ArrayList<>();
+        List<String[]> rows = read(file, 5);
+        for (int i = 0; i < rows.size(); i++) {
+            String[] row = rows.get(i);
+            Road road = new Road();
+            road.setFromStationId(resolveStation(file, i, row[0]));
+            road.setToStationId(resolveStation(file, i, row[1]));
+            road.setMode(parseMode(file, i, row[2]));
+            road.setOneWay(parseBoolean(file, i, row[3]));
+            road.setBusColor(row[4].isEmpty() ? null : row[4]);
+            if (road.getMode().equals("BUS") && road.getBusColor() == null) {
+                throw new IllegalArgumentException(file + " row " + (i + 1) + ": BUS road without a bus color");
+            }
+            roads.add(road);
+        }
+
+        try {
+            importDAO.insertRoads(roads);
+        } finally {
+            RouteCache.refresh();
+        }
+        return roads.size();
+    }
+
+    private int resolveStation(Path file, int row, String key) {
+        Integer id = stationIds.get(key);
+        if (id != null) {
+            return id;
+        }
+        try {
+            return Integer.parseInt(key);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(file + " row " + (row + 1) + ": unknown station key " + key);
+        }
+    }
+
+    private static String parseMode(Path file, int row, String value) {
+        String mode = value.toUpperCase();
+        if (!mode.equals("CAR") && !mode.equals("BUS")) {
+            throw new IllegalArgumentException(file + " row " + (row + 1) + ": mode must be CAR or BUS: " + value);
+        }
+        return mode;
+    }
+
+    private static boolean parseBoolean(Path file, int row, String value) {
+        if (!value.equalsIgnoreCase("true") && !value.equalsIgnoreCase("false")) {
+            throw new IllegalArgumentException(file + " row " + (row + 1) + ": is_one_way must be true or false: " + value);
+        }
+        return Boolean.parseBoolean(value);
+    }
+
+    private static double parseDouble(Path file, int row, String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(file + " row " + (row + 1) + ": not a number: " + value);
+        }
+    }
+
+    /**
+     * Reads every line after the header, padding short rows with empty fields.
+     */
+    private static List<String[]> read(Path file, int columns) {
+        List<String[]> rows = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                List<String> fields = split(line);
+                while (fields.size() < columns) {
+                    fields.add("");
+                }
+                rows.add(fields.toArray(new String[0]));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading " + file, e);
+        }
+        return rows;
+    }
+
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+}
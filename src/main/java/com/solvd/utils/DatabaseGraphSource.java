@@ -0,0 +1,45 @@
+package com.solvd.utils;
+
+import com.solvd.models.EdgeRow;
+import com.solvd.models.Road;
+import com.solvd.models.Station;
+import com.solvd.service.RoadService;
+import com.solvd.service.RoadServiceImpl;
+import com.solvd.service.StationService;
+import com.solvd.service.StationServiceImpl;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Loads the network through the station and road services: from the database by default,
+ * or from whatever DAOs the given services were built with (e.g. the in-memory ones).
+ */
+public class DatabaseGraphSource implements GraphSource {
+    private final StationService stationService;
+    private final RoadService roadService;
+
+    public DatabaseGraphSource() {
+        this(new StationServiceImpl(), new RoadServiceImpl());
+    }
+
+    public DatabaseGraphSource(StationService stationService, RoadService roadService) {
+        this.stationService = stationService;
+        this.roadService = roadService;
+    }
+
+    @Override
+    public List<Station> getStations() {
+        return stationService.getAllStations();
+    }
+
+    @Override
+    public List<Road> getRoads() {
+        return roadService.getAllRoads();
+    }
+
+    @Override
+    public void forEachEdge(String mode, Consumer<EdgeRow> action) {
+        roadService.forEachEdge(mode, action);
+    }
+}
@@ -0,0 +1,29 @@
+package com.solvd.utils;
+
+import java.util.Arrays;
+
+/**
+ * Growable edge list in primitive arrays, turned into a {@link CsrGraph} once complete.
+ */
+class EdgeList {
+    int[] from = new int[16];
+    int[] to = new int[16];
+    double[] weight = new double[16];
+    int size;
+
+    void add(int u, int v, double w) {
+        if (size == from.length) {
+            from = Arrays.copyOf(from, size * 2);
+            to = Arrays.copyOf(to, size * 2);
+            weight = Arrays.copyOf(weight, size * 2);
+        }
+        from[size] = u;
+        to[size] = v;
+        weight[size] = w;
+        size++;
+    }
+
+    CsrGraph toCsr(int n) {
+        return CsrGraph.fromEdges(n, from, to, weight, size);
+    }
+}
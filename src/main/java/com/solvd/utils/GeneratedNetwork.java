@@ -0,0 +1,113 @@
+package com.solvd.utils;
+
+import com.solvd.dao.IBulkImportDAO;
+import com.solvd.dao.IRoadDAO;
+import com.solvd.dao.IStationDAO;
+import com.solvd.models.EdgeRow;
+import com.solvd.models.Road;
+import com.solvd.models.Station;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * A network made by {@link NetworkGenerator}, with station IDs 1..n and road IDs 1..m.
+ * It is a {@link GraphSource} itself, so it can be handed straight to a {@link GraphManager},
+ * or written to a set of DAOs.
+ */
+public class GeneratedNetwork implements GraphSource {
+    private final List<Station> stations;
+    private final List<Road> roads;
+
+    GeneratedNetwork(List<Station> stations, List<Road> roads) {
+        this.stations = stations;
+        this.roads = roads;
+    }
+
+    @Override
+    public List<Station> getStations() {
+        return new ArrayList<>(stations);
+    }
+
+    @Override
+    public List<Road> getRoads() {
+        return new ArrayList<>(roads);
+    }
+
+    @Override
+    public void forEachEdge(String mode, Consumer<EdgeRow> action) {
+        for (Road road : roads) {
+            if (road.getMode().equalsIgnoreCase(mode)) {
+                // IDs are 1..n in list order
+                Station from = stations.get(road.getFromStationId() - 1);
+                Station to = stations.get(road.getToStationId() - 1);
+                EdgeRow edge = new EdgeRow();
+                edge.setFromStationId(from.getStationId());
+                edge.setToStationId(to.getStationId());
+                edge.setOneWay(road.isOneWay());
+                edge.setBusColor(road.getBusColor());
+                edge.setFromX(from.getXCoord());
+                edge.setFromY(from.getYCoord());
+                edge.setToX(to.getXCoord());
+                edge.setToY(to.getYCoord());
+                action.accept(edge);
+            }
+        }
+    }
+
+    /**
+     * Inserts the network row by row. The DAOs assign their own IDs, and the roads are rewritten to match.
+     *
+     * @param stationDAO Where the stations go.
+     * @param roadDAO    Where the roads go.
+     */
+    public void writeTo(IStationDAO stationDAO, IRoadDAO roadDAO) {
+        List<Station> copies = copyStations();
+        copies.forEach(stationDAO::insert);
+        copyRoads(copies).forEach(roadDAO::insert);
+    }
+
+    /**
+     * Inserts the network with batched statements, rewriting the roads to the IDs the database assigns.
+     *
+     * @param importDAO The bulk import DAO.
+     */
+    public void writeTo(IBulkImportDAO importDAO) {
+        List<Station> copies = copyStations();
+        importDAO.insertStations(copies);
+        importDAO.insertRoads(copyRoads(copies));
+    }
+
+    private List<Station> copyStations() {
+        List<Station> copies = new ArrayList<>(stations.size());
+        for (Station station : stations) {
+            Station copy = new Station();
+            copy.setName(station.getName());
+            copy.setXCoord(station.getXCoord());
+            copy.setYCoord(station.getYCoord());
+            copies.add(copy);
+        }
+        return copies;
+    }
+
+    private List<Road> copyRoads(List<Station> insertedStations) {
+        Map<Integer, Integer> ids = new HashMap<>();
+        for (int i = 0; i < stations.size(); i++) {
+            ids.put(stations.get(i).getStationId(), insertedStations.get(i).getStationId());
+        }
+        List<Road> copies = new ArrayList<>(roads.size());
+        for (Road road : roads) {
+            Road copy = new Road();
+            copy.setFromStationId(ids.get(road.getFromStationId()));
+            copy.setToStationId(ids.get(road.getToStationId()));
+            copy.setMode(road.getMode());
+            copy.setOneWay(road.isOneWay());
+            copy.setBusColor(road.getBusColor());
+            copies.add(copy);
+        }
+        return copies;
+    }
+}
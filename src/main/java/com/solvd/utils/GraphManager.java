@@ -1,44 +1,85 @@
 package com.solvd.utils;
 
+import com.solvd.config.NavigationConfig;
+import com.solvd.dao.implementation.GraphFileDAOImpl;
+import com.solvd.models.EdgeRow;
 import com.solvd.models.Road;
 import com.solvd.models.Station;
-import com.solvd.service.RoadService;
-import com.solvd.service.RoadServiceImpl;
-import com.solvd.service.StationService;
-import com.solvd.service.StationServiceImpl;
 
+import java.nio.file.Paths;
 import java.util.*;
 
 /**
  * The {@code GraphManager} class is responsible for constructing an adjacency matrix
- * representing the station network using data fetched from a database.
+ * (or its sparse CSR counterpart) representing the station network using data fetched from a database,
+ * or from the binary graph file named by {@code navigation.graph.file}.
+ * Builds read the roads of one mode as edge rows that already carry the coordinates of both stations.
  * It supports different travel modes (CAR, BUS) and calculates distances using the Euclidean formula.
  */
 public class GraphManager {
     private static final double INF = Double.MAX_VALUE;
 
     private List<Station> stations;
+    private StationRegistry registry;
     private List<Road> roads;
 
-    private final StationService stationService;
-    private final RoadService roadService;
+    private final GraphSource source;
+
+    // Source of the no-argument constructor when set, instead of the configured one
+    private static volatile GraphSource defaultSource;
 
     /**
-     * Constructs a {@code GraphManager} instance and initializes service dependencies.
+     * Constructs a {@code GraphManager} reading from the configured source.
      */
     public GraphManager() {
+        this(defaultSource());
+    }
+
+    /**
+     * Constructs a {@code GraphManager} reading from the given source.
+     *
+     * @param source Where stations and roads are loaded from.
+     */
+    public GraphManager(GraphSource source) {
         this.stations = new ArrayList<>();
+        this.registry = StationRegistry.of(stations);
         this.roads = new ArrayList<>();
-        this.stationService = new StationServiceImpl();
-        this.roadService = new RoadServiceImpl();
+        this.source = source;
+    }
+
+    /**
+     * Makes every {@code GraphManager} created without a source, including the ones the routing layer creates,
+     * read from the given source, e.g. services backed by the in-memory DAOs.
+     *
+     * @param source The source to use, or {@code null} to go back to the configured one.
+     */
+    public static void setDefaultSource(GraphSource source) {
+        defaultSource = source;
+    }
+
+    private static GraphSource defaultSource() {
+        GraphSource source = defaultSource;
+        if (source != null) {
+            return source;
+        }
+        String file = NavigationConfig.get("navigation.graph.file", "");
+        return file.isEmpty() ? new DatabaseGraphSource() : new GraphFileDAOImpl(Paths.get(file));
     }
 
     /**
-     * Fetches the latest list of stations and roads from the database and updates the local lists.
+     * Receives every road a build turned into edges, with the vertices its ends were mapped to.
+     */
+    public interface RoadVisitor {
+        void visit(int fromVertex, int toVertex, boolean oneWay);
+    }
+
+    /**
+     * Fetches the latest list of stations and roads from the source and updates the local lists.
+     * The build methods do not need this: they stream the edges of one mode and never hold them in a list.
      */
     public void fetchDataFromDatabase() {
-        stations = stationService.getAllStations(); // Ensure we fetch fresh data
-        roads = roadService.getAllRoads();
+        loadStations(); // Ensure we fetch fresh data
+        roads = source.getRoads();
     }
 
     /**
@@ -49,7 +90,20 @@ public class GraphManager {
      *         If no direct road exists, the value is set to {@code Double.MAX_VALUE}.
      */
     public double[][] buildAdjacencyMatrix(String mode) {
-        fetchDataFromDatabase(); // Always fetch updated data
+        return buildAdjacencyMatrix(mode, null);
+    }
+
+    /**
+     * Builds an adjacency matrix representing distances between connected stations,
+     * streaming the roads from the source straight into the matrix.
+     *
+     * @param mode    The transport mode ("CAR" or "BUS") for which to build the matrix.
+     * @param visitor Receives every road of the mode with its station indices, or {@code null}.
+     * @return A 2D array where matrix[i][j] represents the distance from station i to station j.
+     *         If no direct road exists, the value is set to {@code Double.MAX_VALUE}.
+     */
+    public double[][] buildAdjacencyMatrix(String mode, RoadVisitor visitor) {
+        loadStations(); // Always fetch updated data
         int numStations = stations.size();
         double[][] matrix = new double[numStations][numStations];
 
@@ -63,44 +117,108 @@ public class GraphManager {
             matrix[i][i] = 0.0;
         }
 
-        // Populate matrix using roads
-        for (Road road : roads) {
-            if (road.getMode().equalsIgnoreCase(mode)) { // Match mode (CAR/BUS)
-                int fromIndex = indexOfStation(road.getFromStationId());
-                int toIndex = indexOfStation(road.getToStationId());
-
-                if (fromIndex != -1 && toIndex != -1) {
-                    double distance = EuclideanDistance.euclideanDistance(
-                            new double[]{stations.get(fromIndex).getXCoord(), stations.get(fromIndex).getYCoord()},
-                            new double[]{stations.get(toIndex).getXCoord(), stations.get(toIndex).getYCoord()}
-                    );
-
-                    matrix[fromIndex][toIndex] = distance;
-                    if (!road.isOneWay()) {
-                        matrix[toIndex][fromIndex] = distance; // Two-way road
-                    }
-//                    printDistances(fromIndex,toIndex,distance);
+        // Populate matrix using the roads of the mode, which come with the coordinates of their stations
+        source.forEachEdge(mode, edge -> {
+            int fromIndex = registry.indexOf(edge.getFromStationId());
+            int toIndex = registry.indexOf(edge.getToStationId());
+
+            if (fromIndex != -1 && toIndex != -1) {
+                double distance = length(edge);
+
+                matrix[fromIndex][toIndex] = distance;
+                if (!edge.isOneWay()) {
+                    matrix[toIndex][fromIndex] = distance; // Two-way road
+                }
+                if (visitor != null) {
+                    visitor.visit(fromIndex, toIndex, edge.isOneWay());
                 }
             }
-        }
+        });
         return matrix;
     }
 
+    /**
+     * Builds the same graph as {@link #buildAdjacencyMatrix(String)} in compressed sparse row form,
+     * so memory grows with the number of roads instead of the number of stations squared.
+     *
+     * @param mode The transport mode ("CAR" or "BUS") for which to build the graph.
+     * @return The graph, with vertices indexed like {@link #getStations()}.
+     */
+    public CsrGraph buildCsrGraph(String mode) {
+        loadStations();
+        EdgeList edges = new EdgeList();
+        source.forEachEdge(mode, edge -> {
+            int fromIndex = registry.indexOf(edge.getFromStationId());
+            int toIndex = registry.indexOf(edge.getToStationId());
+            if (fromIndex != -1 && toIndex != -1 && fromIndex != toIndex) {
+                double distance = length(edge);
+                edges.add(fromIndex, toIndex, distance);
+                if (!edge.isOneWay()) {
+                    edges.add(toIndex, fromIndex, distance);
+                }
+            }
+        });
+        return edges.toCsr(stations.size());
+    }
+
+    /**
+     * Builds the bus graph: one vertex per (station, bus color) plus a TRANSFER vertex per station,
+     * with the dense matrix and its CSR counterpart.
+     *
+     * @return The bus graph.
+     */
     public BusGraph buildBusGraph() {
-        fetchDataFromDatabase();
+        return buildBusGraph(true, null);
+    }
+
+    /**
+     * Builds the bus graph with the dense matrix and its CSR counterpart.
+     *
+     * @param visitor Receives every bus road with its bus vertex indices, or {@code null}.
+     * @return The bus graph.
+     */
+    public BusGraph buildBusGraph(RoadVisitor visitor) {
+        return buildBusGraph(true, visitor);
+    }
+
+    /**
+     * Builds the bus graph with only the CSR edges, leaving the n x n matrix {@code null}.
+     *
+     * @return The bus graph.
+     */
+    public BusGraph buildSparseBusGraph() {
+        return buildBusGraph(false, null);
+    }
+
+    private BusGraph buildBusGraph(boolean dense, RoadVisitor visitor) {
+        loadStations();
+
+        // Vertices are only known once every road was seen, so keep the bus roads as primitive columns
+        Map<String, Integer> colorIds = new HashMap<>();
+        List<String> colorNames = new ArrayList<>();
+        BusRoads busRoads = new BusRoads();
+        source.forEachEdge("BUS", edge -> {
+            int fromIndex = registry.indexOf(edge.getFromStationId());
+            int toIndex = registry.indexOf(edge.getToStationId());
+            if (fromIndex != -1 && toIndex != -1) {
+                Integer color = colorIds.get(edge.getBusColor());
+                if (color == null) {
+                    color = colorNames.size();
+                    colorIds.put(edge.getBusColor(), color);
+                    colorNames.add(edge.getBusColor());
+                }
+                busRoads.add(fromIndex, toIndex, color, edge.isOneWay(), length(edge));
+            }
+        });
 
         Map<Integer, Set<String>> stationColors = new HashMap<>();
         for (Station s : stations) {
             stationColors.put(s.getStationId(), new HashSet<>());
         }
-        for (Road r : roads) {
-            if (r.getMode().equalsIgnoreCase("BUS")) {
-                int fromId = r.getFromStationId();
-                int toId = r.getToStationId();
-                String color = r.getBusColor();
-                stationColors.get(fromId).add(color);
-                stationColors.get(toId).add(color);
-            }
+        for (int r = 0; r < busRoads.size; r++) {
+            String color = colorNames.get(busRoads.color[r]);
+            stationColors.get(stations.get(busRoads.from[r]).getStationId()).add(color);
+            stationColors.get(stations.get(busRoads.to[r]).getStationId()).add(color);
         }
         List<BusVertex> vertices = new ArrayList<>();
         Map<String, Integer> vertexToIndex = new HashMap<>();
@@ -128,35 +246,31 @@ public class GraphManager {
             }
         }
 
+        // Station of every vertex, in the order the vertices were added above
         int n = vertices.size();
-        double[][] matrix = new double[n][n];
-        for (double[] row : matrix) {
-
-            Arrays.fill(row, INF);
-        }
-        for (int i = 0; i < n; i++) {
-            matrix[i][i] = 0.0;
+        int[] vertexStations = new int[n];
+        int vertex = 0;
+        for (int i = 0; i < stations.size(); i++) {
+            int colorCount = stationColors.get(stations.get(i).getStationId()).size();
+            if (colorCount > 0) {
+                Arrays.fill(vertexStations, vertex, vertex + colorCount + 1, i);
+                vertex += colorCount + 1;
+            }
         }
 
-        for (Road r : roads) {
-            if (r.getMode().equalsIgnoreCase("BUS")) {
-                int fromId = r.getFromStationId();
-                int toId = r.getToStationId();
-                String color = r.getBusColor();
-                String fromKey = fromId + "_" + color;
-                String toKey = toId + "_" + color;
-                if (vertexToIndex.containsKey(fromKey) && vertexToIndex.containsKey(toKey)) {
-                    int fromIdx = vertexToIndex.get(fromKey);
-                    int toIdx = vertexToIndex.get(toKey);
-                    double distance = EuclideanDistance.euclideanDistance(
-                            new double[]{stations.get(indexOfStation(fromId)).getXCoord(), stations.get(indexOfStation(fromId)).getYCoord()},
-                            new double[]{stations.get(indexOfStation(toId)).getXCoord(), stations.get(indexOfStation(toId)).getYCoord()}
-                    );
-                    matrix[fromIdx][toIdx] = distance;
-                    if (!r.isOneWay()) {
-                        matrix[toIdx][fromIdx] = distance;
-                    }
-                }
+        EdgeList edges = new EdgeList();
+
+        for (int r = 0; r < busRoads.size; r++) {
+            String color = colorNames.get(busRoads.color[r]);
+            int fromIdx = vertexToIndex.get(stations.get(busRoads.from[r]).getStationId() + "_" + color);
+            int toIdx = vertexToIndex.get(stations.get(busRoads.to[r]).getStationId() + "_" + color);
+            double distance = busRoads.length[r];
+            edges.add(fromIdx, toIdx, distance);
+            if (!busRoads.oneWay[r]) {
+                edges.add(toIdx, fromIdx, distance);
+            }
+            if (visitor != null) {
+                visitor.visit(fromIdx, toIdx, busRoads.oneWay[r]);
             }
         }
 
@@ -168,38 +282,127 @@ public class GraphManager {
             for (String c : stationColors.get(sId)) {
                 String colorKey = sId + "_" + c;
                 int colorIdx = vertexToIndex.get(colorKey);
-                matrix[transferIdx][colorIdx] = 0.0;
-                matrix[colorIdx][transferIdx] = 0.0;
+                edges.add(transferIdx, colorIdx, 0.0);
+                edges.add(colorIdx, transferIdx, 0.0);
             }
         }
 
         BusGraph bg = new BusGraph();
-        bg.setMatrix(matrix);
+        if (dense) {
+            double[][] matrix = new double[n][n];
+            for (double[] row : matrix) {
+                Arrays.fill(row, INF);
+            }
+            for (int i = 0; i < n; i++) {
+                matrix[i][i] = 0.0;
+            }
+            for (int e = 0; e < edges.size; e++) {
+                if (edges.from[e] != edges.to[e]) {
+                    matrix[edges.from[e]][edges.to[e]] = edges.weight[e];
+                }
+            }
+            bg.setMatrix(matrix);
+        }
+        bg.setCsr(edges.toCsr(n));
         bg.setVertices(vertices);
         bg.setVertexToIndex(vertexToIndex);
         bg.setStationToVertices(stationToVertices);
+        bg.setStationIndices(vertexStations);
         return bg;
     }
 
     /**
-     * Finds the index of a station in the stored list by its station ID.
+     * Bus roads as primitive columns: station indices, color id, direction and length.
+     */
+    private static class BusRoads {
+        int[] from = new int[16];
+        int[] to = new int[16];
+        int[] color = new int[16];
+        boolean[] oneWay = new boolean[16];
+        double[] length = new double[16];
+        int size;
+
+        void add(int fromIndex, int toIndex, int colorId, boolean isOneWay, double roadLength) {
+            if (size == from.length) {
+                from = Arrays.copyOf(from, size * 2);
+                to = Arrays.copyOf(to, size * 2);
+                color = Arrays.copyOf(color, size * 2);
+                oneWay = Arrays.copyOf(oneWay, size * 2);
+                length = Arrays.copyOf(length, size * 2);
+            }
+            from[size] = fromIndex;
+            to[size] = toIndex;
+            color[size] = colorId;
+            oneWay[size] = isOneWay;
+            length[size] = roadLength;
+            size++;
+        }
+    }
+
+    /**
+     * Fetches the latest stations from the source and indexes them, without loading any roads.
+     * The builders call this first, so they resolve both ends of an edge in constant time.
+     *
+     * @return The index of the fetched stations.
+     */
+    public StationRegistry loadStations() {
+        stations = source.getStations();
+        registry = StationRegistry.of(stations);
+        return registry;
+    }
+
+    /**
+     * Euclidean length of an edge row, the same value {@link #distanceBetween(int, int)} gives for its stations.
+     */
+    private static double length(EdgeRow edge) {
+        return EuclideanDistance.euclideanDistance(
+                new double[]{edge.getFromX(), edge.getFromY()},
+                new double[]{edge.getToX(), edge.getToY()}
+        );
+    }
+
+    /**
+     * Finds the index of a station in the stored list by its station ID, in constant time.
      *
      * @param stationId The ID of the station to find.
      * @return The index of the station in the list, or -1 if not found.
      */
     public int indexOfStation(int stationId) {
-        for (int i = 0; i < stations.size(); i++) {
-            if (stations.get(i).getStationId() == stationId) {
-                return i;
-            }
-        }
-        return -1; // Not found
+        return registry.indexOf(stationId);
+    }
+
+    /**
+     * Calculates the Euclidean distance between two stations of the stored list.
+     *
+     * @param fromIndex The index of the first station.
+     * @param toIndex   The index of the second station.
+     * @return The straight-line distance between the two stations.
+     */
+    public double distanceBetween(int fromIndex, int toIndex) {
+        return EuclideanDistance.euclideanDistance(
+                new double[]{registry.x(fromIndex), registry.y(fromIndex)},
+                new double[]{registry.x(toIndex), registry.y(toIndex)}
+        );
     }
 
     public List<Station> getStations() {
         return stations;
     }
 
+    /**
+     * @return The index of the stored stations, following the same order as {@link #getStations()}.
+     */
+    public StationRegistry getStationRegistry() {
+        return registry;
+    }
+
+    /**
+     * @return The roads loaded by {@link #fetchDataFromDatabase()}; the build methods leave this list empty.
+     */
+    public List<Road> getRoads() {
+        return roads;
+    }
+
 
     /**
      * Prints the calculated distance between two stations.
@@ -0,0 +1,34 @@
+package com.solvd.utils;
+
+import com.solvd.models.EdgeRow;
+import com.solvd.models.Road;
+import com.solvd.models.Station;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Where {@link GraphManager} loads the network from: the database by default,
+ * or a binary graph file exported from it.
+ */
+public interface GraphSource {
+
+    /**
+     * @return All stations; their order defines the station indices of the built graphs.
+     */
+    List<Station> getStations();
+
+    /**
+     * @return All roads of every mode.
+     */
+    List<Road> getRoads();
+
+    /**
+     * Streams the roads of one mode with the coordinates of both stations, skipping roads whose stations do not exist.
+     * The row may be reused for the next road, so the action must not keep it.
+     *
+     * @param mode   The transport mode ("CAR" or "BUS").
+     * @param action Called once per road of the mode.
+     */
+    void forEachEdge(String mode, Consumer<EdgeRow> action);
+}
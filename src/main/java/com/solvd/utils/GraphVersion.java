@@ -0,0 +1,31 @@
+package com.solvd.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Global version counter of the station/road network.
+ * Every change read from the {@code graph_changes} log bumps the version, so anything derived
+ * from the network (matrices, solved shortest paths) can tell whether it is stale.
+ */
+public final class GraphVersion {
+    private static final AtomicLong VERSION = new AtomicLong();
+
+    private GraphVersion() {
+    }
+
+    /**
+     * @return The current version of the network.
+     */
+    public static long current() {
+        return VERSION.get();
+    }
+
+    /**
+     * Marks the network as changed.
+     *
+     * @return The new version of the network.
+     */
+    public static long bump() {
+        return VERSION.incrementAndGet();
+    }
+}
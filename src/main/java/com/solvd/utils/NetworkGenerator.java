@@ -0,0 +1,260 @@
+package com.solvd.utils;
+
+import com.solvd.models.Road;
+import com.solvd.models.Station;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates synthetic station/road networks for scale and load tests.
+ * <p>
+ * Three shapes are available: grid cities, random geometric graphs and hub-and-spoke bus networks.
+ * Stations are placed with about {@value #SPACING} units between neighbours. The share of one-way CAR roads
+ * and the number of bus colors are configurable; a fixed seed always produces the same network.
+ */
+public class NetworkGenerator {
+    static final double SPACING = 100.0;
+    private static final String[] COLOR_NAMES = {"Red", "Blue", "Green", "Yellow", "Orange", "Purple", "Brown", "Pink"};
+
+    private final Random random;
+    private double oneWayRatio = 0.0;
+    private int busColors = 4;
+
+    private List<Station> stations;
+    private List<Road> roads;
+
+    /**
+     * @param seed Seed of the random choices (coordinates, one-way roads, directions).
+     */
+    public NetworkGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * @param oneWayRatio Share of CAR roads generated as one-way, in a random direction.
+     */
+    public void setOneWayRatio(double oneWayRatio) {
+        if (oneWayRatio < 0 || oneWayRatio > 1) {
+            throw new IllegalArgumentException("One-way ratio must be between 0 and 1: " + oneWayRatio);
+        }
+        this.oneWayRatio = oneWayRatio;
+    }
+
+    /**
+     * @param busColors Number of distinct bus colors the bus lines cycle through.
+     */
+    public void setBusColors(int busColors) {
+        if (busColors <= 0) {
+            throw new IllegalArgumentException("At least one bus color is needed: " + busColors);
+        }
+        this.busColors = busColors;
+    }
+
+    /**
+     * A grid city: CAR streets between neighbouring crossings, and bus lines along every
+     * {@code busLineEvery}-th row and column.
+     *
+     * @param rows         Number of rows of crossings.
+     * @param columns      Number of columns of crossings.
+     * @param busLineEvery Distance in rows/columns between bus lines, 0 for no buses.
+     * @return The network, with {@code rows * columns} stations.
+     */
+    public GeneratedNetwork grid(int rows, int columns, int busLineEvery) {
+        start();
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                addStation("Grid " + r + "-" + c, c * SPACING, r * SPACING);
+            }
+        }
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                int id = gridId(r, c, columns);
+                if (c + 1 < columns) addCarRoad(id, gridId(r, c + 1, columns));
+                if (r + 1 < rows) addCarRoad(id, gridId(r + 1, c, columns));
+            }
+        }
+        if (busLineEvery > 0) {
+            int line = 0;
+            for (int r = 0; r < rows; r += busLineEvery, line++) {
+                for (int c = 0; c + 1 < columns; c++) {
+                    addBusRoad(gridId(r, c, columns), gridId(r, c + 1, columns), line);
+                }
+            }
+            for (int c = 0; c < columns; c += busLineEvery, line++) {
+                for (int r = 0; r + 1 < rows; r++) {
+                    addBusRoad(gridId(r, c, columns), gridId(r + 1, c, columns), line);
+                }
+            }
+        }
+        return finish();
+    }
+
+    /**
+     * A random geometric graph: stations scattered uniformly, with a CAR road between every pair closer
+     * than the radius that gives the requested average degree. Pairs are found through a bucket grid,
+     * so the work grows with the number of roads rather than with the square of the stations.
+     *
+     * @param stationCount  Number of stations.
+     * @param averageDegree Expected number of roads per station.
+     * @return The network.
+     */
+    public GeneratedNetwork randomGeometric(int stationCount, double averageDegree) {
+        start();
+        double side = SPACING * Math.sqrt(stationCount);
+        for (int i = 0; i < stationCount; i++) {
+            addStation("Geo " + i, random.nextDouble() * side, random.nextDouble() * side);
+        }
+        double radius = Math.sqrt(averageDegree * side * side / (Math.PI * Math.max(stationCount - 1, 1)));
+
+        // Bucket the stations into cells of the radius, so each only looks at the 3 x 3 cells around it
+        int cells = Math.max(1, (int) (side / radius));
+        double cellSize = side / cells;
+        int[] cellStart = new int[cells * cells + 1];
+        int[] cellOf = new int[stationCount];
+        for (int i = 0; i < stationCount; i++) {
+            cellOf[i] = cell(stations.get(i), cellSize, cells);
+            cellStart[cellOf[i] + 1]++;
+        }
+        for (int c = 0; c < cells * cells; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        int[] members = new int[stationCount];
+        int[] fill = Arrays.copyOf(cellStart, cells * cells);
+        for (int i = 0; i < stationCount; i++) {
+            members[fill[cellOf[i]]++] = i;
+        }
+
+        for (int i = 0; i < stationCount; i++) {
+            Station a = stations.get(i);
+            int cx = cellOf[i] % cells;
+            int cy = cellOf[i] / cells;
+            for (int y = Math.max(0, cy - 1); y <= Math.min(cells - 1, cy + 1); y++) {
+                for (int x = Math.max(0, cx - 1); x <= Math.min(cells - 1, cx + 1); x++) {
+                    int c = y * cells + x;
+                    for (int m = cellStart[c]; m < cellStart[c + 1]; m++) {
+                        int j = members[m];
+                        if (j > i && distance(a, stations.get(j)) <= radius) {
+                            addCarRoad(i + 1, j + 1);
+                        }
+                    }
+                }
+            }
+        }
+        return finish();
+    }
+
+    /**
+     * A hub-and-spoke bus network: hubs on a ring joined by a trunk line, each with bus lines running
+     * straight out of it. Every line has one color, cycling through the configured colors, and the trunk
+     * has its own. CAR roads follow the same streets, so both modes can be routed.
+     *
+     * @param hubs            Number of hubs.
+     * @param spokesPerHub    Bus lines leaving every hub.
+     * @param stationsPerSpoke Stations along every line, not counting the hub.
+     * @return The network, with {@code hubs * (1 + spokesPerHub * stationsPerSpoke)} stations.
+     */
+    public GeneratedNetwork hubAndSpoke(int hubs, int spokesPerHub, int stationsPerSpoke) {
+        start();
+        double ringRadius = Math.max(1, hubs) * stationsPerSpoke * SPACING;
+        int[] hubIds = new int[hubs];
+        for (int h = 0; h < hubs; h++) {
+            double angle = 2 * Math.PI * h / hubs;
+            hubIds[h] = addStation("Hub " + h, ringRadius * Math.cos(angle), ringRadius * Math.sin(angle));
+        }
+        // A closed ring needs three hubs; two are joined once
+        int trunkRoads = hubs > 2 ? hubs : hubs - 1;
+        for (int h = 0; h < trunkRoads; h++) {
+            int next = hubIds[(h + 1) % hubs];
+            addCarRoad(hubIds[h], next);
+            addRoad(hubIds[h], next, "BUS", false, "Trunk");
+        }
+
+        int line = 0;
+        for (int h = 0; h < hubs; h++) {
+            Station hub = stations.get(hubIds[h] - 1);
+            for (int s = 0; s < spokesPerHub; s++, line++) {
+                double angle = 2 * Math.PI * (s + random.nextDouble() * 0.5) / spokesPerHub;
+                int previous = hubIds[h];
+                for (int k = 1; k <= stationsPerSpoke; k++) {
+                    int id = addStation("Spoke " + h + "-" + s + "-" + k,
+                            hub.getXCoord() + k * SPACING * Math.cos(angle),
+                            hub.getYCoord() + k * SPACING * Math.sin(angle));
+                    addCarRoad(previous, id);
+                    addBusRoad(previous, id, line);
+                    previous = id;
+                }
+            }
+        }
+        return finish();
+    }
+
+    private void start() {
+        stations = new ArrayList<>();
+        roads = new ArrayList<>();
+    }
+
+    private GeneratedNetwork finish() {
+        GeneratedNetwork network = new GeneratedNetwork(stations, roads);
+        stations = null;
+        roads = null;
+        return network;
+    }
+
+    private int addStation(String name, double x, double y) {
+        Station station = new Station();
+        station.setStationId(stations.size() + 1);
+        station.setName(name);
+        station.setXCoord(x);
+        station.setYCoord(y);
+        stations.add(station);
+        return station.getStationId();
+    }
+
+    private void addCarRoad(int from, int to) {
+        if (random.nextDouble() < oneWayRatio) {
+            if (random.nextBoolean()) {
+                addRoad(from, to, "CAR", true, null);
+            } else {
+                addRoad(to, from, "CAR", true, null);
+            }
+        } else {
+            addRoad(from, to, "CAR", false, null);
+        }
+    }
+
+    private void addBusRoad(int from, int to, int line) {
+        addRoad(from, to, "BUS", false, colorName(line % busColors));
+    }
+
+    private void addRoad(int from, int to, String mode, boolean oneWay, String busColor) {
+        Road road = new Road();
+        road.setRoadId(roads.size() + 1);
+        road.setFromStationId(from);
+        road.setToStationId(to);
+        road.setMode(mode);
+        road.setOneWay(oneWay);
+        road.setBusColor(busColor);
+        roads.add(road);
+    }
+
+    private static String colorName(int color) {
+        return color < COLOR_NAMES.length ? COLOR_NAMES[color] : "Color" + color;
+    }
+
+    private static int gridId(int row, int column, int columns) {
+        return row * columns + column + 1;
+    }
+
+    private static int cell(Station station, double cellSize, int cells) {
+        int x = Math.min(cells - 1, (int) (station.getXCoord() / cellSize));
+        int y = Math.min(cells - 1, (int) (station.getYCoord() / cellSize));
+        return y * cells + x;
+    }
+
+    private static double distance(Station a, Station b) {
+        return Math.hypot(a.getXCoord() - b.getXCoord(), a.getYCoord() - b.getYCoord());
+    }
+}
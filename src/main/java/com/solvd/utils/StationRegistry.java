@@ -0,0 +1,121 @@
+package com.solvd.utils;
+
+import com.solvd.models.Station;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable index of a list of stations.
+ * Every station gets a dense index, its position in the list, and is found by ID through a primitive
+ * open-addressing hash map or by name ignoring case, both in constant time. Coordinates and names are kept
+ * in parallel arrays by index. A station ID or name listed twice resolves to its first occurrence.
+ */
+public final class StationRegistry {
+    private final int[] ids;
+    private final String[] names;
+    private final double[] x;
+    private final double[] y;
+
+    // Open addressing with linear probing: a slot holds a station ID and its index + 1, 0 marking a free slot
+    private final int[] slotIds;
+    private final int[] slotIndices;
+    private final int mask;
+
+    // Lower-cased name -> index
+    private final Map<String, Integer> nameIndices;
+
+    private StationRegistry(List<Station> stations) {
+        int n = stations.size();
+        ids = new int[n];
+        names = new String[n];
+        x = new double[n];
+        y = new double[n];
+        int capacity = Integer.highestOneBit(Math.max(2 * n, 2) - 1) << 1;
+        slotIds = new int[capacity];
+        slotIndices = new int[capacity];
+        mask = capacity - 1;
+        nameIndices = new HashMap<>(n * 2);
+
+        for (int i = 0; i < n; i++) {
+            Station station = stations.get(i);
+            ids[i] = station.getStationId();
+            names[i] = station.getName();
+            x[i] = station.getXCoord();
+            y[i] = station.getYCoord();
+            put(ids[i], i);
+            if (names[i] != null) {
+                nameIndices.putIfAbsent(names[i].toLowerCase(Locale.ROOT), i);
+            }
+        }
+    }
+
+    /**
+     * @param stations The stations, in the order their indices should follow.
+     * @return The registry.
+     */
+    public static StationRegistry of(List<Station> stations) {
+        return new StationRegistry(stations);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * @return The index of the station with the given ID, or -1 if there is none.
+     */
+    public int indexOf(int stationId) {
+        for (int slot = hash(stationId) & mask; ; slot = (slot + 1) & mask) {
+            if (slotIndices[slot] == 0) {
+                return -1;
+            }
+            if (slotIds[slot] == stationId) {
+                return slotIndices[slot] - 1;
+            }
+        }
+    }
+
+    /**
+     * @return The index of the station with the given name, ignoring case, or -1 if there is none.
+     */
+    public int indexOfName(String name) {
+        Integer index = nameIndices.get(name.toLowerCase(Locale.ROOT));
+        return index != null ? index : -1;
+    }
+
+    public int id(int index) {
+        return ids[index];
+    }
+
+    public String name(int index) {
+        return names[index];
+    }
+
+    public double x(int index) {
+        return x[index];
+    }
+
+    public double y(int index) {
+        return y[index];
+    }
+
+    private void put(int stationId, int index) {
+        int slot = hash(stationId) & mask;
+        while (slotIndices[slot] != 0) {
+            if (slotIds[slot] == stationId) {
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        slotIds[slot] = stationId;
+        slotIndices[slot] = index + 1;
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
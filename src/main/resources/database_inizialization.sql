@@ -5,6 +5,7 @@ CREATE DATABASE IF NOT EXISTS my_navigation_db;
 USE my_navigation_db;
 
 -- Clean up old tables if they exist (optional)
+DROP TABLE IF EXISTS graph_changes;
 DROP TABLE IF EXISTS roads;
 DROP TABLE IF EXISTS stations;
 
@@ -28,6 +29,21 @@ CREATE TABLE IF NOT EXISTS roads (
     FOREIGN KEY (to_station_id)   REFERENCES stations(station_id)
 );
 
+-- 5) Change log written with every station/road write, read by the routing layer to update its
+--    cached graphs without reloading the tables. An updated road is logged as a DELETE of the old
+--    road followed by an INSERT of the new one; NETWORK rows mark bulk imports.
+CREATE TABLE IF NOT EXISTS graph_changes (
+    change_id       BIGINT AUTO_INCREMENT PRIMARY KEY,
+    entity          ENUM('STATION','ROAD','NETWORK') NOT NULL,
+    entity_id       INT DEFAULT NULL,
+    operation       ENUM('INSERT','UPDATE','DELETE') NOT NULL,
+    from_station_id INT DEFAULT NULL,
+    to_station_id   INT DEFAULT NULL,
+    mode            ENUM('CAR','BUS') DEFAULT NULL,
+    is_one_way      BOOLEAN DEFAULT NULL,
+    bus_color       VARCHAR(20) DEFAULT NULL
+);
+
 -- Stations
 INSERT INTO stations (name, x_coord, y_coord) VALUES
 ('Station A', -4,  2),  -- (ID=1)
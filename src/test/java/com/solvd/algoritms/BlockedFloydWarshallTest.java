@@ -0,0 +1,42 @@
+package com.solvd.algoritms;
+
+import junit.framework.TestCase;
+
+public class BlockedFloydWarshallTest extends TestCase {
+    private static final int[] SIZES = {0, 1, 2, 5, 63, 64, 65, 130};
+    private static final double[] DENSITIES = {0.02, 0.1, 0.5};
+
+    public void testMatchesClassicKernelOnRandomGraphs() {
+        for (int n : SIZES) {
+            for (double density : DENSITIES) {
+                for (int tileSize : new int[]{1, 3, 16, BlockedFloydWarshall.DEFAULT_TILE_SIZE}) {
+                    double[][] graph = RandomGraphs.random(n, density, n * 31L + tileSize);
+                    double[][] dist = RandomGraphs.copy(graph);
+                    int[][] next = new int[n][n];
+                    BlockedFloydWarshall.floydWarshall(dist, next, tileSize);
+                    RandomGraphs.assertSolved(graph, RandomGraphs.classic(graph), dist, next);
+                }
+            }
+        }
+    }
+
+    public void testZeroWeightEdges() {
+        double[][] graph = RandomGraphs.random(40, 0.1, 7);
+        graph[0][1] = 0.0;
+        graph[1][0] = 0.0;
+        graph[1][2] = 0.0;
+        double[][] dist = RandomGraphs.copy(graph);
+        int[][] next = new int[40][40];
+        BlockedFloydWarshall.floydWarshall(dist, next, 8);
+        RandomGraphs.assertSolved(graph, RandomGraphs.classic(graph), dist, next);
+    }
+
+    public void testRejectsNonPositiveTileSize() {
+        try {
+            BlockedFloydWarshall.floydWarshall(new double[1][1], new int[1][1], 0);
+            fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // The tile size is checked before anything is solved
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.solvd.algoritms;
+
+import com.solvd.utils.BusGraph;
+import com.solvd.utils.NetworkGenerator;
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class BusRouteSearchTest extends TestCase {
+
+    public void testFixtureMatchesBruteForce() {
+        TestNetworks.useFixture();
+        assertBestRoutes(RouteCache.network("BUS"));
+    }
+
+    public void testGeneratedNetworksMatchBruteForce() {
+        NetworkGenerator generator = new NetworkGenerator(5);
+        generator.setBusColors(3);
+        TestNetworks.use(generator.grid(3, 4, 1));
+        assertBestRoutes(RouteCache.network("BUS"));
+
+        TestNetworks.use(new NetworkGenerator(7).hubAndSpoke(2, 2, 2));
+        assertBestRoutes(RouteCache.network("BUS"));
+
+        for (int seed = 0; seed < 6; seed++) {
+            TestNetworks.useRandomBusNetwork(seed, 7, 12, "R", "G", "B");
+            assertBestRoutes(RouteCache.network("BUS"));
+        }
+    }
+
+    public void testSearchToSeveralStationsMatchesSingleSearches() {
+        TestNetworks.useRandomBusNetwork(3, 9, 16, "R", "G", "B");
+        RoadNetwork network = RouteCache.network("BUS");
+        int[] stationIds = network.getBusGraph().getStationToVertices().keySet().stream().mapToInt(Integer::intValue).toArray();
+        int[] endStationIds = Arrays.copyOf(stationIds, stationIds.length + 1);
+        endStationIds[stationIds.length] = stationIds[0];
+        for (int start : stationIds) {
+            PointToPointSearch.Path[] paths = BusRouteSearch.search(network, start, endStationIds);
+            for (int i = 0; i < endStationIds.length; i++) {
+                PointToPointSearch.Path single = BusRouteSearch.search(network, start, endStationIds[i]);
+                assertEquals(start + " -> " + endStationIds[i], single.vertices, paths[i].vertices);
+            }
+        }
+    }
+
+    /**
+     * Checks that the route found between every two bus stations has the best key of all loopless paths.
+     */
+    private static void assertBestRoutes(RoadNetwork network) {
+        BusGraph bg = network.getBusGraph();
+        for (int start : bg.getStationToVertices().keySet()) {
+            for (int end : bg.getStationToVertices().keySet()) {
+                if (start == end) continue;
+                String pair = start + " -> " + end;
+                double[] expected = null;
+                for (double[] key : BusRoutes.bestBySequence(network, start, end).values()) {
+                    if (expected == null || BusRoutes.compare(key, expected) < 0) {
+                        expected = key;
+                    }
+                }
+
+                PointToPointSearch.Path path = BusRouteSearch.search(network, start, end);
+                if (expected == null) {
+                    assertTrue("no route " + pair, path.vertices.isEmpty());
+                    continue;
+                }
+                assertFalse("route " + pair, path.vertices.isEmpty());
+                assertEquals("starts at " + pair, start, bg.getVertices().get(path.vertices.get(0)).getStationId());
+                assertEquals("ends at " + pair, end,
+                        bg.getVertices().get(path.vertices.get(path.vertices.size() - 1)).getStationId());
+                assertValidPath(network, path.vertices, pair);
+                double[] actual = BusRoutes.key(bg, path.vertices, path.distance);
+                assertEquals("key " + pair + ": " + Arrays.toString(actual) + " vs " + Arrays.toString(expected),
+                        0, BusRoutes.compare(actual, expected));
+            }
+        }
+    }
+
+    /**
+     * Every step of the path is an edge of the bus graph, apart from the changes of color at one station.
+     */
+    private static void assertValidPath(RoadNetwork network, List<Integer> vertices, String pair) {
+        BusGraph bg = network.getBusGraph();
+        for (int i = 0; i + 1 < vertices.size(); i++) {
+            int u = vertices.get(i);
+            int v = vertices.get(i + 1);
+            boolean edge = KShortestPaths.edgeWeight(network.getForward(), u, v) != RandomGraphs.INF;
+            boolean sameStation = bg.getVertices().get(u).getStationId() == bg.getVertices().get(v).getStationId();
+            assertTrue("step " + u + " -> " + v + " of " + pair, edge || sameStation);
+        }
+    }
+}
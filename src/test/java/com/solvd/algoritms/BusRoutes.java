@@ -0,0 +1,105 @@
+package com.solvd.algoritms;
+
+import com.solvd.utils.BusGraph;
+import com.solvd.utils.BusVertex;
+import com.solvd.utils.CsrGraph;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Brute force over the bus graph for the bus routing tests: every loopless path between two stations,
+ * each ranked by the (transfers, stations, distance) key the bus engines minimize.
+ */
+final class BusRoutes {
+    private static final String TRANSFER = "TRANSFER";
+
+    private BusRoutes() {
+    }
+
+    /**
+     * The key of a path through the bus graph: color changes along it, stations visited in a row,
+     * and its length. TRANSFER vertices only mark where the color changes.
+     */
+    static double[] key(BusGraph bg, List<Integer> vertices, double distance) {
+        List<BusVertex> all = bg.getVertices();
+        int transfers = 0;
+        String color = null;
+        for (int v : vertices) {
+            String label = all.get(v).getLabel();
+            if (!label.equals(TRANSFER)) {
+                if (color != null && !label.equals(color)) {
+                    transfers++;
+                }
+                color = label;
+            }
+        }
+        return new double[]{transfers, stations(bg, vertices).size(), distance};
+    }
+
+    /**
+     * The stations a path visits, without repeating a station for its color changes.
+     */
+    static List<Integer> stations(BusGraph bg, List<Integer> vertices) {
+        List<Integer> stations = new ArrayList<>();
+        for (int v : vertices) {
+            int station = bg.getVertices().get(v).getStationId();
+            if (stations.isEmpty() || stations.get(stations.size() - 1) != station) {
+                stations.add(station);
+            }
+        }
+        return stations;
+    }
+
+    /**
+     * Compares two keys lexicographically, treating distances within rounding as equal.
+     */
+    static int compare(double[] a, double[] b) {
+        if (a[0] != b[0]) return Double.compare(a[0], b[0]);
+        if (a[1] != b[1]) return Double.compare(a[1], b[1]);
+        return Math.abs(a[2] - b[2]) <= 1e-9 * Math.max(1.0, a[2]) ? 0 : Double.compare(a[2], b[2]);
+    }
+
+    /**
+     * Enumerates every loopless path between the TRANSFER vertices of two stations, which covers every
+     * way of riding between them, and keeps the best key of each sequence of stations.
+     *
+     * @return The best key of every station sequence, empty if the stations are not connected by bus.
+     */
+    static Map<List<Integer>, double[]> bestBySequence(RoadNetwork network, int startStationId, int endStationId) {
+        BusGraph bg = network.getBusGraph();
+        Map<List<Integer>, double[]> best = new HashMap<>();
+        Integer source = bg.getVertexToIndex().get(startStationId + "_" + TRANSFER);
+        Integer target = bg.getVertexToIndex().get(endStationId + "_" + TRANSFER);
+        if (source == null || target == null) {
+            return best;
+        }
+        CsrGraph graph = network.getForward();
+        List<Integer> path = new ArrayList<>(List.of(source));
+        boolean[] onPath = new boolean[graph.size()];
+        onPath[source] = true;
+        enumerate(bg, graph, target, path, 0.0, onPath, best);
+        return best;
+    }
+
+    private static void enumerate(BusGraph bg, CsrGraph graph, int target, List<Integer> path, double distance,
+                                  boolean[] onPath, Map<List<Integer>, double[]> best) {
+        int u = path.get(path.size() - 1);
+        if (u == target) {
+            double[] key = key(bg, path, distance);
+            best.merge(stations(bg, path), key, (a, b) -> compare(a, b) <= 0 ? a : b);
+            return;
+        }
+        for (int e = graph.getOffsets()[u]; e < graph.getOffsets()[u + 1]; e++) {
+            int v = graph.getTargets()[e];
+            if (onPath[v]) continue;
+            onPath[v] = true;
+            path.add(v);
+            enumerate(bg, graph, target, path, distance + graph.getWeights()[e], onPath, best);
+            path.remove(path.size() - 1);
+            onPath[v] = false;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.solvd.algoritms;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class DynamicFloydWarshallTest extends TestCase {
+
+    public void testDecreaseEdgeMatchesFullSolveAfterRandomEdits() {
+        Random random = new Random(5);
+        for (int round = 0; round < 200; round++) {
+            int n = 1 + random.nextInt(60);
+            double[][] graph = RandomGraphs.random(n, random.nextDouble() * 0.2, round);
+            double[][] dist = RandomGraphs.copy(graph);
+            int[][] next = new int[n][n];
+            FloydWarshall.floydWarshall(dist, next);
+
+            for (int edit = 0; edit < 5; edit++) {
+                int u = random.nextInt(n);
+                int v = random.nextInt(n);
+                double weight = round % 4 == 0 && edit == 0 ? 0.0 : random.nextDouble() * 300;
+                if (u != v && weight < graph[u][v]) {
+                    graph[u][v] = weight;
+                }
+                DynamicFloydWarshall.decreaseEdge(dist, next, u, v, weight);
+            }
+            RandomGraphs.assertSolved(graph, RandomGraphs.classic(graph), dist, next);
+        }
+    }
+
+    public void testDecreaseEdgeReportsWhetherAnyPathChanged() {
+        double[][] graph = RandomGraphs.random(30, 0.1, 11);
+        double[][] dist = RandomGraphs.copy(graph);
+        int[][] next = new int[30][30];
+        FloydWarshall.floydWarshall(dist, next);
+
+        assertFalse("self-loop", DynamicFloydWarshall.decreaseEdge(dist, next, 3, 3, 0.0));
+        assertFalse("no shorter than the current path", DynamicFloydWarshall.decreaseEdge(dist, next, 0, 1, dist[0][1]));
+        graph[0][1] = dist[0][1] == RandomGraphs.INF ? 1.0 : dist[0][1] / 2;
+        assertTrue("shorter than the current path", DynamicFloydWarshall.decreaseEdge(dist, next, 0, 1, graph[0][1]));
+        RandomGraphs.assertSolved(graph, RandomGraphs.classic(graph), dist, next);
+    }
+
+    public void testIncreaseEdgeMatchesFullSolveAfterRandomEdits() {
+        Random random = new Random(7);
+        int repaired = 0;
+        int refused = 0;
+        for (int round = 0; round < 300; round++) {
+            int n = 1 + random.nextInt(50);
+            double[][] graph = RandomGraphs.random(n, random.nextDouble() * 0.3, round);
+            if (n > 3 && round % 3 == 0) {
+                graph[0][1] = 0.0;
+                graph[1][0] = 0.0;
+            }
+            double[][] dist = RandomGraphs.copy(graph);
+            int[][] next = new int[n][n];
+            FloydWarshall.floydWarshall(dist, next);
+
+            for (int edit = 0; edit < 6; edit++) {
+                int u = random.nextInt(n);
+                int v = random.nextInt(n);
+                if (u == v) {
+                    continue;
+                }
+                // Removes the edge or doubles its weight
+                graph[u][v] = random.nextBoolean() || graph[u][v] == RandomGraphs.INF ? RandomGraphs.INF : graph[u][v] * 2;
+                long maxAffectedPairs = random.nextBoolean() ? Long.MAX_VALUE : n;
+                if (DynamicFloydWarshall.increaseEdge(graph, dist, next, u, v, maxAffectedPairs)) {
+                    repaired++;
+                } else {
+                    refused++;
+                    dist = RandomGraphs.copy(graph);
+                    FloydWarshall.floydWarshall(dist, next);
+                }
+            }
+            RandomGraphs.assertSolved(graph, RandomGraphs.classic(graph), dist, next);
+        }
+        assertTrue("some edits repaired in place", repaired > 0);
+        assertTrue("some edits over the limit", refused > 0);
+    }
+
+    public void testIncreaseEdgeLeavesMatricesUntouchedWhenRefused() {
+        double[][] graph = RandomGraphs.random(40, 0.15, 3);
+        double[][] dist = RandomGraphs.copy(graph);
+        int[][] next = new int[40][40];
+        FloydWarshall.floydWarshall(dist, next);
+        int u = 0;
+        int v = next[0][39];
+        assertTrue("vertex 39 is reachable", v != -1);
+        double[][] before = RandomGraphs.copy(dist);
+
+        graph[u][v] = RandomGraphs.INF;
+        assertFalse(DynamicFloydWarshall.increaseEdge(graph, dist, next, u, v, 0));
+        for (int i = 0; i < 40; i++) {
+            assertTrue("distances of row " + i, Arrays.equals(before[i], dist[i]));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.solvd.algoritms;
+
+import com.solvd.utils.CsrGraph;
+import junit.framework.TestCase;
+
+import java.util.concurrent.ForkJoinPool;
+
+public class JohnsonAllPairsTest extends TestCase {
+    private ForkJoinPool pool;
+    private JohnsonAllPairs johnson;
+
+    @Override
+    protected void setUp() {
+        pool = new ForkJoinPool(3);
+        johnson = new JohnsonAllPairs(pool);
+    }
+
+    @Override
+    protected void tearDown() {
+        pool.shutdownNow();
+    }
+
+    public void testMatchesClassicKernelOnRandomGraphs() {
+        for (int n : new int[]{0, 1, 2, 10, 80, 200}) {
+            for (double density : new double[]{0.01, 0.05, 0.4}) {
+                double[][] graph = RandomGraphs.random(n, density, n * 13L);
+                if (n > 3) {
+                    graph[0][1] = 0.0;
+                    graph[1][0] = 0.0;
+                    graph[1][2] = 0.0;
+                }
+                double[][] dist = new double[n][n];
+                int[][] next = new int[n][n];
+                johnson.solve(CsrGraph.fromMatrix(graph), dist, next);
+                RandomGraphs.assertSolved(graph, RandomGraphs.classic(graph), dist, next);
+            }
+        }
+    }
+
+    public void testZeroWeightClustersDoNotCycle() {
+        for (int seed = 0; seed < 40; seed++) {
+            int n = 30;
+            double[][] graph = RandomGraphs.random(n, 0.15, seed);
+            // Small integer lengths make many paths equally short
+            for (double[] row : graph) {
+                for (int j = 0; j < n; j++) {
+                    if (row[j] != RandomGraphs.INF) {
+                        row[j] = Math.ceil(row[j] / 400.0);
+                    }
+                }
+            }
+            // Stations at the same place: every pair within a cluster of 6 is joined both ways at no cost
+            for (int i = seed % 20; i < seed % 20 + 6; i++) {
+                for (int j = seed % 20; j < seed % 20 + 6; j++) {
+                    graph[i][j] = 0.0;
+                }
+            }
+            double[][] dist = new double[n][n];
+            int[][] next = new int[n][n];
+            johnson.solve(CsrGraph.fromMatrix(graph), dist, next);
+            RandomGraphs.assertSolved(graph, RandomGraphs.classic(graph), dist, next);
+        }
+    }
+
+    public void testRejectsNegativeWeights() {
+        double[][] graph = RandomGraphs.random(5, 0.5, 1);
+        graph[2][3] = -1.0;
+        try {
+            johnson.solve(CsrGraph.fromMatrix(graph), new double[5][5], new int[5][5]);
+            fail("Expected an IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // Without the reweighting step negative weights cannot be handled
+        }
+    }
+}
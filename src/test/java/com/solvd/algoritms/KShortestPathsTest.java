@@ -0,0 +1,134 @@
+package com.solvd.algoritms;
+
+import com.solvd.utils.BusGraph;
+import com.solvd.utils.CsrGraph;
+import com.solvd.utils.NetworkGenerator;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class KShortestPathsTest extends TestCase {
+    private static final int K = 6;
+
+    public void testYenMatchesBruteForceOnRandomGraphs() {
+        for (int seed = 0; seed < 30; seed++) {
+            int n = 2 + seed % 7;
+            double[][] matrix = RandomGraphs.random(n, 0.2 + (seed % 5) * 0.1, seed);
+            CsrGraph graph = CsrGraph.fromMatrix(matrix);
+            for (int source = 0; source < n; source++) {
+                for (int target = 0; target < n; target++) {
+                    if (source == target) continue;
+                    String pair = "graph " + seed + ", " + source + " -> " + target;
+                    List<Double> expected = new ArrayList<>();
+                    enumerate(matrix, target, new ArrayList<>(List.of(source)), 0.0, expected);
+                    expected.sort(null);
+
+                    List<PointToPointSearch.Path> paths = KShortestPaths.yen(graph, source, target, K);
+                    assertEquals("paths " + pair, Math.min(K, expected.size()), paths.size());
+                    Set<List<Integer>> seen = new HashSet<>();
+                    for (int i = 0; i < paths.size(); i++) {
+                        PointToPointSearch.Path path = paths.get(i);
+                        assertTrue("distinct " + pair, seen.add(path.vertices));
+                        assertEquals("loopless " + pair, path.vertices.size(), new HashSet<>(path.vertices).size());
+                        assertEquals("source " + pair, source, (int) path.vertices.get(0));
+                        assertEquals("target " + pair, target, (int) path.vertices.get(path.vertices.size() - 1));
+                        double length = 0.0;
+                        for (int j = 0; j + 1 < path.vertices.size(); j++) {
+                            double weight = matrix[path.vertices.get(j)][path.vertices.get(j + 1)];
+                            assertTrue("edge of " + pair, weight != RandomGraphs.INF);
+                            length += weight;
+                        }
+                        assertEquals("length of path " + i + " of " + pair, length, path.distance, 1e-9 * Math.max(1, length));
+                        assertEquals("rank of path " + i + " of " + pair, expected.get(i), path.distance,
+                                1e-9 * Math.max(1, path.distance));
+                    }
+                }
+            }
+        }
+    }
+
+    public void testYenEdgeCases() {
+        CsrGraph graph = CsrGraph.fromMatrix(RandomGraphs.random(5, 0.5, 1));
+        assertTrue(KShortestPaths.yen(graph, 0, 1, 0).isEmpty());
+        List<PointToPointSearch.Path> same = KShortestPaths.yen(graph, 2, 2, 3);
+        assertEquals(1, same.size());
+        assertEquals(List.of(2), same.get(0).vertices);
+    }
+
+    public void testBusAlternativesMatchBruteForceOnFixture() {
+        TestNetworks.useFixture();
+        assertBusAlternatives(4);
+    }
+
+    public void testBusAlternativesMatchBruteForceOnGeneratedNetworks() {
+        NetworkGenerator generator = new NetworkGenerator(5);
+        generator.setBusColors(3);
+        TestNetworks.use(generator.grid(3, 4, 1));
+        assertBusAlternatives(5);
+
+        TestNetworks.use(new NetworkGenerator(7).hubAndSpoke(2, 2, 2));
+        assertBusAlternatives(3);
+
+        for (int seed = 0; seed < 6; seed++) {
+            TestNetworks.useRandomBusNetwork(seed, 7, 12, "R", "G", "B");
+            assertBusAlternatives(4);
+        }
+    }
+
+    /**
+     * Every simple path from the last vertex of path to the target, by length.
+     */
+    private static void enumerate(double[][] matrix, int target, List<Integer> path, double length, List<Double> lengths) {
+        int u = path.get(path.size() - 1);
+        if (u == target) {
+            lengths.add(length);
+            return;
+        }
+        for (int v = 0; v < matrix.length; v++) {
+            if (v == u || matrix[u][v] == RandomGraphs.INF || path.contains(v)) continue;
+            path.add(v);
+            enumerate(matrix, target, path, length + matrix[u][v], lengths);
+            path.remove(path.size() - 1);
+        }
+    }
+
+    /**
+     * Checks that the BUS alternatives between every two stations are the k best station sequences,
+     * in the order of their best keys, each with the distance of its best ride.
+     */
+    private static void assertBusAlternatives(int k) {
+        RoadNetwork network = RouteCache.network("BUS");
+        BusGraph bg = network.getBusGraph();
+        for (int start : bg.getStationToVertices().keySet()) {
+            for (int end : bg.getStationToVertices().keySet()) {
+                if (start == end) continue;
+                String pair = start + " -> " + end;
+                Map<List<Integer>, double[]> best = BusRoutes.bestBySequence(network, start, end);
+                List<double[]> keys = new ArrayList<>(best.values());
+                keys.sort(BusRoutes::compare);
+
+                List<FloydWarshall.Route> routes = FloydWarshall.getAlternativePaths(start, end, "BUS", k);
+                assertEquals("routes " + pair, Math.min(k, keys.size()), routes.size());
+                Set<List<Integer>> sequences = new HashSet<>();
+                for (int i = 0; i < routes.size(); i++) {
+                    List<Integer> sequence = new ArrayList<>();
+                    for (int id : routes.get(i).getStationIds()) {
+                        sequence.add(id);
+                    }
+                    assertTrue("one route per station sequence " + pair, sequences.add(sequence));
+                    double[] key = best.get(sequence);
+                    assertNotNull("route " + i + " of " + pair + " rides " + sequence, key);
+                    assertEquals("rank of route " + i + " of " + pair + ": " + Arrays.toString(key)
+                            + " vs " + Arrays.toString(keys.get(i)), 0, BusRoutes.compare(key, keys.get(i)));
+                    assertEquals("distance of route " + i + " of " + pair, key[2], routes.get(i).getTotalDistance(),
+                            1e-9 * Math.max(1, key[2]));
+                }
+            }
+        }
+    }
+}
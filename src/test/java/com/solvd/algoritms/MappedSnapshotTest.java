@@ -0,0 +1,101 @@
+package com.solvd.algoritms;
+
+import com.solvd.models.Road;
+import com.solvd.utils.NetworkGenerator;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+public class MappedSnapshotTest extends TestCase {
+    private Path dir;
+
+    @Override
+    protected void setUp() throws IOException {
+        dir = Files.createTempDirectory("snapshots");
+        NetworkGenerator generator = new NetworkGenerator(11);
+        generator.setOneWayRatio(0.3);
+        TestNetworks.use(generator.randomGeometric(60, 2.5));
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        System.clearProperty("navigation.snapshot.dir");
+        RouteCache.clear();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    public void testReopenedSnapshotGivesTheSameRoutes() {
+        SolvedGraph solved = RouteCache.get("CAR");
+        int n = solved.size();
+        FloydWarshall.Route[][] expected = new FloydWarshall.Route[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                expected[i][j] = FloydWarshall.computeNavigation(i + 1, j + 1, "CAR");
+            }
+        }
+        // Set only now, so the solve above queued no background write of the same file
+        System.setProperty("navigation.snapshot.dir", dir.toString());
+        MappedSnapshot.write(solved);
+
+        MappedSnapshot snapshot = MappedSnapshot.open("CAR", RouteCache.network("CAR"));
+        assertNotNull(snapshot);
+        assertEquals(n, snapshot.size());
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                assertEquals(solved.distance(i, j), snapshot.distance(i, j), 0.0);
+                assertEquals(solved.next(i, j), snapshot.next(i, j));
+            }
+        }
+
+        RouteCache.clear();
+        assertTrue("served from the file", RouteCache.peek("CAR") instanceof MappedSnapshot);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                FloydWarshall.Route route = FloydWarshall.computeNavigation(i + 1, j + 1, "CAR");
+                String pair = (i + 1) + " -> " + (j + 1);
+                assertEquals("found " + pair, expected[i][j].isEmpty(), route.isEmpty());
+                assertTrue("stations " + pair, Arrays.equals(expected[i][j].getStationIds(), route.getStationIds()));
+                assertEquals("distance " + pair, expected[i][j].getTotalDistance(), route.getTotalDistance(), 0.0);
+            }
+        }
+    }
+
+    public void testChangedNetworkRejectsTheSnapshot() {
+        SolvedGraph solved = RouteCache.get("CAR");
+        System.setProperty("navigation.snapshot.dir", dir.toString());
+        MappedSnapshot.write(solved);
+        assertNotNull(MappedSnapshot.open("CAR", RouteCache.network("CAR")));
+
+        Road road = new Road();
+        road.setFromStationId(1);
+        road.setToStationId(60);
+        road.setMode("CAR");
+        road.setOneWay(true);
+        TestNetworks.roads().insert(road);
+        RouteCache.refresh();
+        assertNull("a new road", MappedSnapshot.open("CAR", RouteCache.network("CAR")));
+
+        TestNetworks.roads().delete(road.getRoadId());
+        RouteCache.refresh();
+        assertNotNull("the same roads again", MappedSnapshot.open("CAR", RouteCache.network("CAR")));
+
+        Road bus = new Road();
+        bus.setFromStationId(1);
+        bus.setToStationId(60);
+        bus.setMode("BUS");
+        bus.setOneWay(true);
+        bus.setBusColor("Red");
+        TestNetworks.roads().insert(bus);
+        RouteCache.refresh();
+        assertNotNull("a BUS road leaves CAR routes unchanged", MappedSnapshot.open("CAR", RouteCache.network("CAR")));
+    }
+}
@@ -0,0 +1,73 @@
+package com.solvd.algoritms;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelFloydWarshallTest extends TestCase {
+    private static final int[] SIZES = {0, 1, 2, 5, 63, 64, 65, 130};
+    private static final double[] DENSITIES = {0.02, 0.1, 0.5};
+
+    private ForkJoinPool pool;
+    private ParallelFloydWarshall kernel;
+
+    @Override
+    protected void setUp() {
+        pool = new ForkJoinPool(3);
+        kernel = new ParallelFloydWarshall(pool);
+    }
+
+    @Override
+    protected void tearDown() {
+        pool.shutdownNow();
+    }
+
+    public void testRowKernelIsIdenticalToClassicKernel() {
+        for (int n : SIZES) {
+            for (double density : DENSITIES) {
+                double[][] graph = RandomGraphs.random(n, density, n * 17L);
+                double[][] expected = RandomGraphs.copy(graph);
+                int[][] expectedNext = new int[n][n];
+                FloydWarshall.floydWarshall(expected, expectedNext);
+
+                double[][] dist = RandomGraphs.copy(graph);
+                int[][] next = new int[n][n];
+                kernel.floydWarshall(dist, next);
+                for (int i = 0; i < n; i++) {
+                    assertTrue("distances of row " + i, Arrays.equals(expected[i], dist[i]));
+                    assertTrue("next hops of row " + i, Arrays.equals(expectedNext[i], next[i]));
+                }
+            }
+        }
+    }
+
+    public void testBlockedKernelMatchesClassicKernel() {
+        for (int n : SIZES) {
+            for (double density : DENSITIES) {
+                for (int tileSize : new int[]{1, 3, 16, BlockedFloydWarshall.DEFAULT_TILE_SIZE}) {
+                    double[][] graph = RandomGraphs.random(n, density, n * 17L + tileSize);
+                    double[][] dist = RandomGraphs.copy(graph);
+                    int[][] next = new int[n][n];
+                    kernel.floydWarshall(dist, next, tileSize);
+                    RandomGraphs.assertSolved(graph, RandomGraphs.classic(graph), dist, next);
+                }
+            }
+        }
+    }
+
+    public void testBlockedKernelIsIdenticalToSequentialBlockedKernel() {
+        double[][] graph = RandomGraphs.random(150, 0.05, 3);
+        double[][] expected = RandomGraphs.copy(graph);
+        int[][] expectedNext = new int[150][150];
+        BlockedFloydWarshall.floydWarshall(expected, expectedNext, 16);
+
+        double[][] dist = RandomGraphs.copy(graph);
+        int[][] next = new int[150][150];
+        kernel.floydWarshall(dist, next, 16);
+        for (int i = 0; i < 150; i++) {
+            assertTrue("distances of row " + i, Arrays.equals(expected[i], dist[i]));
+            assertTrue("next hops of row " + i, Arrays.equals(expectedNext[i], next[i]));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.solvd.algoritms;
+
+import com.solvd.utils.NetworkGenerator;
+import junit.framework.TestCase;
+
+import java.util.List;
+
+public class PointToPointSearchTest extends TestCase {
+
+    public void testFixtureMatchesClassicKernel() {
+        TestNetworks.useFixture();
+        assertMatchesClassic(RouteCache.network("CAR"), "fixture");
+    }
+
+    public void testRandomNetworksMatchClassicKernel() {
+        int unreachable = 0;
+        for (int seed = 0; seed < 12; seed++) {
+            NetworkGenerator generator = new NetworkGenerator(seed);
+            generator.setOneWayRatio(0.2 + (seed % 4) * 0.2);
+            // A low average degree leaves the network in several components
+            TestNetworks.use(generator.randomGeometric(10 + seed * 3, 1.5 + (seed % 3)));
+            unreachable += assertMatchesClassic(RouteCache.network("CAR"), "network " + seed);
+        }
+        assertTrue("some pairs should be unreachable", unreachable > 0);
+    }
+
+    public void testStartEqualsEndIsNotARoute() {
+        TestNetworks.useFixture();
+        RoutingSnapshot snapshot = RoutingSnapshot.of("CAR", RouteCache.network("CAR"));
+        assertTrue(FloydWarshall.computeNavigation(snapshot, 3, 3).isEmpty());
+        assertTrue(FloydWarshall.computeNavigation(RouteCache.solvedSnapshot("CAR"), 3, 3).isEmpty());
+    }
+
+    /**
+     * Asserts that both searches find the classic kernel's distance between every pair of stations,
+     * along edges of the network, and nothing for unreachable pairs.
+     *
+     * @return The number of unreachable pairs.
+     */
+    private static int assertMatchesClassic(RoadNetwork network, String name) {
+        double[][] graph = network.getGraphManager().buildAdjacencyMatrix("CAR");
+        double[][] expected = RandomGraphs.classic(graph);
+        int unreachable = 0;
+        for (int source = 0; source < graph.length; source++) {
+            for (int target = 0; target < graph.length; target++) {
+                String pair = name + ", " + source + " -> " + target;
+                if (expected[source][target] == RandomGraphs.INF) unreachable++;
+                assertPath("A* " + pair, graph, source, target, expected[source][target],
+                        PointToPointSearch.aStar(network, source, target));
+                assertPath("bidirectional " + pair, graph, source, target, expected[source][target],
+                        PointToPointSearch.bidirectionalDijkstra(network, source, target));
+            }
+        }
+        return unreachable;
+    }
+
+    private static void assertPath(String pair, double[][] graph, int source, int target, double expected,
+                                   PointToPointSearch.Path path) {
+        if (expected == RandomGraphs.INF) {
+            assertTrue("unreachable " + pair, path.vertices.isEmpty());
+            return;
+        }
+        List<Integer> vertices = path.vertices;
+        assertEquals("source " + pair, source, (int) vertices.get(0));
+        assertEquals("target " + pair, target, (int) vertices.get(vertices.size() - 1));
+        double length = 0.0;
+        for (int i = 0; i + 1 < vertices.size(); i++) {
+            double weight = graph[vertices.get(i)][vertices.get(i + 1)];
+            assertTrue("edge of " + pair, weight != RandomGraphs.INF);
+            length += weight;
+        }
+        double tolerance = 1e-9 * Math.max(1, expected);
+        assertEquals("length of " + pair, length, path.distance, tolerance);
+        assertEquals("distance of " + pair, expected, path.distance, tolerance);
+    }
+}
@@ -0,0 +1,95 @@
+package com.solvd.algoritms;
+
+import junit.framework.Assert;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Random graphs and the checks the all-pairs tests compare every kernel against the classic one with.
+ */
+final class RandomGraphs {
+    static final double INF = Double.MAX_VALUE;
+
+    private RandomGraphs() {
+    }
+
+    /**
+     * An adjacency matrix of n points on a 1000 x 1000 grid, where each directed edge exists with the given
+     * probability and weighs the Euclidean distance between its points, as the roads do.
+     */
+    static double[][] random(int n, double density, long seed) {
+        Random random = new Random(seed);
+        int[][] points = new int[n][2];
+        for (int[] point : points) {
+            point[0] = random.nextInt(1000);
+            point[1] = random.nextInt(1000);
+        }
+        double[][] graph = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            Arrays.fill(graph[i], INF);
+            graph[i][i] = 0.0;
+            for (int j = 0; j < n; j++) {
+                if (i != j && random.nextDouble() < density) {
+                    graph[i][j] = Math.hypot(points[i][0] - points[j][0], points[i][1] - points[j][1]);
+                }
+            }
+        }
+        return graph;
+    }
+
+    static double[][] copy(double[][] graph) {
+        double[][] copy = new double[graph.length][];
+        for (int i = 0; i < graph.length; i++) {
+            copy[i] = graph[i].clone();
+        }
+        return copy;
+    }
+
+    /**
+     * The shortest distances of the graph, solved by the classic kernel.
+     */
+    static double[][] classic(double[][] graph) {
+        double[][] dist = copy(graph);
+        FloydWarshall.floydWarshall(dist, new int[graph.length][graph.length]);
+        return dist;
+    }
+
+    /**
+     * Asserts that dist holds the expected shortest distances, up to rounding, and that following next from
+     * every vertex reaches every reachable target along edges of the graph with exactly that length.
+     * Ties between equally long paths may be broken either way.
+     */
+    static void assertSolved(double[][] graph, double[][] expected, double[][] dist, int[][] next) {
+        int n = graph.length;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                String pair = i + " -> " + j;
+                if (expected[i][j] == INF) {
+                    Assert.assertEquals("unreachable " + pair, INF, dist[i][j], 0.0);
+                    Assert.assertEquals("next hop of unreachable " + pair, -1, next[i][j]);
+                    continue;
+                }
+                Assert.assertTrue("reachable " + pair, dist[i][j] != INF);
+                Assert.assertEquals("distance " + pair, expected[i][j], dist[i][j], tolerance(expected[i][j]));
+                if (i == j) {
+                    continue;
+                }
+                double length = 0.0;
+                int steps = 0;
+                for (int u = i; u != j; ) {
+                    int v = next[u][j];
+                    Assert.assertTrue("next hop " + u + " of " + pair, v >= 0 && graph[u][v] != INF);
+                    Assert.assertTrue("next hops of " + pair + " form a cycle", ++steps <= n);
+                    length += graph[u][v];
+                    u = v;
+                }
+                Assert.assertEquals("path length " + pair, dist[i][j], length, tolerance(dist[i][j]));
+            }
+        }
+    }
+
+    private static double tolerance(double distance) {
+        return 1e-9 * Math.max(1.0, distance);
+    }
+}
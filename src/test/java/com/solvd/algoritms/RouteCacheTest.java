@@ -0,0 +1,173 @@
+package com.solvd.algoritms;
+
+import com.solvd.dao.IGraphChangeDAO;
+import com.solvd.dao.implementation.InMemoryGraphChangeDAO;
+import com.solvd.dao.implementation.InMemoryRoadDAO;
+import com.solvd.models.GraphChange;
+import com.solvd.models.Road;
+import com.solvd.utils.CsrGraph;
+import com.solvd.utils.GraphVersion;
+import com.solvd.utils.NetworkGenerator;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class RouteCacheTest extends TestCase {
+    private static final String[] MODES = {"CAR", "BUS"};
+    private static final String[] COLORS = {"Red", "Blue", "Green"};
+    private static final int STATIONS = 36;
+
+    @Override
+    protected void setUp() {
+        System.setProperty("navigation.changes.pollInterval", "0");
+        NetworkGenerator generator = new NetworkGenerator(3);
+        generator.setBusColors(COLORS.length);
+        generator.setOneWayRatio(0.3);
+        TestNetworks.use(generator.grid(6, 6, 2));
+    }
+
+    @Override
+    protected void tearDown() {
+        System.clearProperty("navigation.changes.pollInterval");
+        System.clearProperty("navigation.changes.gapTimeout");
+    }
+
+    public void testPatchedNetworksMatchFreshBuilds() {
+        InMemoryRoadDAO roads = TestNetworks.roads();
+        for (String mode : MODES) {
+            RouteCache.get(mode);
+        }
+        Random random = new Random(1);
+        for (int i = 0; i < 60; i++) {
+            List<Road> all = roads.getEntities();
+            int operation = random.nextInt(3);
+            if (operation == 0) {
+                boolean bus = random.nextBoolean();
+                roads.insert(road(1 + random.nextInt(STATIONS), 1 + random.nextInt(STATIONS), bus ? "BUS" : "CAR",
+                        random.nextBoolean(), bus ? COLORS[random.nextInt(COLORS.length)] : null));
+            } else if (operation == 1) {
+                roads.delete(all.get(random.nextInt(all.size())).getRoadId());
+            } else {
+                Road road = all.get(random.nextInt(all.size()));
+                road.setOneWay(!road.isOneWay());
+                if (random.nextBoolean()) {
+                    road.setToStationId(1 + random.nextInt(STATIONS));
+                }
+                roads.update(road.getRoadId(), road);
+            }
+            for (String mode : MODES) {
+                assertMatchesFreshBuild(mode, "change " + i);
+            }
+        }
+    }
+
+    public void testLateChangeReloadsTheNetwork() {
+        GappyChangeLog changes = new GappyChangeLog(TestNetworks.changes());
+        RouteCache.setChangeLog(changes);
+        RouteCache.network("CAR");
+        changes.hidden.add(changes.getLatestChangeId() + 1);
+        TestNetworks.roads().insert(road(1, STATIONS, "CAR", false, null));
+        TestNetworks.roads().insert(road(2, STATIONS - 1, "CAR", false, null));
+        RouteCache.refresh();
+        assertEquals("the hidden road is not applied yet", RandomGraphs.INF,
+                RouteCache.network("CAR").getForward().weight(0, STATIONS - 1));
+        assertTrue("the later road is applied", RouteCache.network("CAR").getForward().weight(1, STATIONS - 2) < RandomGraphs.INF);
+
+        long version = GraphVersion.current();
+        changes.hidden.clear();
+        RouteCache.refresh();
+        assertTrue("the late change bumps the version", GraphVersion.current() > version);
+        assertMatchesFreshBuild("CAR", "after the late change");
+    }
+
+    public void testMissingChangeIsDroppedAfterGapTimeout() throws InterruptedException {
+        System.setProperty("navigation.changes.gapTimeout", "50");
+        GappyChangeLog changes = new GappyChangeLog(TestNetworks.changes());
+        RouteCache.setChangeLog(changes);
+        RouteCache.network("CAR");
+        long missing = changes.getLatestChangeId() + 1;
+        changes.hidden.add(missing);
+        TestNetworks.roads().insert(road(3, STATIONS - 2, "CAR", false, null));
+        TestNetworks.roads().insert(road(4, STATIONS - 3, "CAR", false, null));
+        RouteCache.refresh();
+        RouteCache.refresh();
+        assertEquals("the gap is read again", missing - 1, changes.lastSince);
+
+        Thread.sleep(100);
+        RouteCache.refresh();
+        assertEquals("the gap is dropped", missing + 1, changes.lastSince);
+        long version = GraphVersion.current();
+        changes.hidden.clear();
+        RouteCache.refresh();
+        assertEquals("a dropped change is not applied", version, GraphVersion.current());
+    }
+
+    /**
+     * Asserts that the cached network and solution of the mode, patched through the change log,
+     * match a network built and solved from scratch.
+     */
+    private static void assertMatchesFreshBuild(String mode, String name) {
+        RoadNetwork cached = RouteCache.network(mode);
+        RoadNetwork fresh = RoadNetwork.load(mode, cached.getVersion());
+        assertEquals("forward " + mode + " after " + name, rows(fresh.getForward()), rows(cached.getForward()));
+        assertEquals("reverse " + mode + " after " + name, rows(fresh.getReverse()), rows(cached.getReverse()));
+
+        SolvedGraph solved = RouteCache.get(mode);
+        SolvedGraph expected = SolvedGraph.solve(mode, solved.getVersion());
+        RandomGraphs.assertSolved(expected.getAdjacency(), expected.getDistances(), solved.getDistances(), solved.getNext());
+    }
+
+    private static List<String> rows(CsrGraph graph) {
+        List<String> rows = new ArrayList<>();
+        for (int u = 0; u < graph.size(); u++) {
+            List<String> row = new ArrayList<>();
+            for (int e = graph.getOffsets()[u]; e < graph.getOffsets()[u + 1]; e++) {
+                row.add(graph.getTargets()[e] + ":" + graph.getWeights()[e]);
+            }
+            Collections.sort(row);
+            rows.add(u + " " + row);
+        }
+        return rows;
+    }
+
+    private static Road road(int from, int to, String mode, boolean oneWay, String busColor) {
+        Road road = new Road();
+        road.setFromStationId(from);
+        road.setToStationId(to);
+        road.setMode(mode);
+        road.setOneWay(oneWay);
+        road.setBusColor(busColor);
+        return road;
+    }
+
+    /**
+     * A change log that hides some change IDs, as a database does while their transactions are still open.
+     */
+    private static class GappyChangeLog implements IGraphChangeDAO {
+        private final InMemoryGraphChangeDAO changes;
+        private final Set<Long> hidden = new HashSet<>();
+        private long lastSince = -1;
+
+        GappyChangeLog(InMemoryGraphChangeDAO changes) {
+            this.changes = changes;
+        }
+
+        @Override
+        public List<GraphChange> getChangesSince(long changeId) {
+            lastSince = changeId;
+            List<GraphChange> since = changes.getChangesSince(changeId);
+            since.removeIf(change -> hidden.contains(change.getChangeId()));
+            return since;
+        }
+
+        @Override
+        public long getLatestChangeId() {
+            return changes.getLatestChangeId();
+        }
+    }
+}
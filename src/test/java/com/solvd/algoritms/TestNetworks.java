@@ -0,0 +1,126 @@
+package com.solvd.algoritms;
+
+import com.solvd.dao.implementation.InMemoryGraphChangeDAO;
+import com.solvd.dao.implementation.InMemoryRoadDAO;
+import com.solvd.dao.implementation.InMemoryStationDAO;
+import com.solvd.models.Road;
+import com.solvd.models.Station;
+import com.solvd.service.RoadServiceImpl;
+import com.solvd.service.StationServiceImpl;
+import com.solvd.utils.DatabaseGraphSource;
+import com.solvd.utils.GeneratedNetwork;
+import com.solvd.utils.GraphManager;
+import com.solvd.utils.NetworkGenerator;
+
+import java.util.Random;
+
+/**
+ * Networks for the routing tests, held in the in-memory DAOs. Every method points {@link GraphManager} and the
+ * {@link RouteCache} at fresh DAOs, so {@code RouteCache.network(mode)} loads the network without a database.
+ */
+final class TestNetworks {
+    private static InMemoryGraphChangeDAO changeDAO;
+    private static InMemoryStationDAO stationDAO;
+    private static InMemoryRoadDAO roadDAO;
+
+    private TestNetworks() {
+    }
+
+    /**
+     * The stations A to G and their CAR roads and RED, GREEN, YELLOW and BLUE bus lines from
+     * database_inizialization.sql, with the same IDs.
+     */
+    static void useFixture() {
+        install();
+        double[][] coordinates = {{-4, 2}, {-2, 4}, {2, 4}, {0, 2}, {2, -2}, {-2, -6}, {-8, -4}};
+        for (int i = 0; i < coordinates.length; i++) {
+            addStation("Station " + (char) ('A' + i), coordinates[i][0], coordinates[i][1]);
+        }
+        addRoad(1, 2, "CAR", true, null);
+        addRoad(1, 4, "CAR", true, null);
+        addRoad(2, 3, "CAR", true, null);
+        addRoad(3, 4, "CAR", true, null);
+        addRoad(3, 5, "CAR", true, null);
+        addRoad(4, 6, "CAR", true, null);
+        addRoad(4, 7, "CAR", false, null);
+        addRoad(7, 4, "CAR", false, null);
+        addRoad(5, 6, "CAR", false, null);
+        addRoad(6, 5, "CAR", false, null);
+        addRoad(6, 7, "CAR", true, null);
+        addRoad(7, 1, "CAR", true, null);
+        addRoad(1, 2, "BUS", true, "RED");
+        addRoad(2, 3, "BUS", true, "RED");
+        addRoad(3, 5, "BUS", true, "RED");
+        addRoad(1, 4, "BUS", true, "GREEN");
+        addRoad(4, 7, "BUS", false, "GREEN");
+        addRoad(7, 1, "BUS", true, "GREEN");
+        addRoad(5, 6, "BUS", false, "YELLOW");
+        addRoad(6, 7, "BUS", true, "YELLOW");
+        addRoad(7, 4, "BUS", false, "YELLOW");
+        addRoad(3, 4, "BUS", true, "BLUE");
+        addRoad(4, 6, "BUS", true, "BLUE");
+        addRoad(6, 5, "BUS", false, "BLUE");
+    }
+
+    static void use(GeneratedNetwork network) {
+        install();
+        network.writeTo(stationDAO, roadDAO);
+    }
+
+    /**
+     * A random geometric CAR network with random bus roads on top, some of them one-way,
+     * so bus lines cross and branch in ways the generator's regular layouts do not.
+     */
+    static void useRandomBusNetwork(long seed, int stations, int busRoads, String... colors) {
+        use(new NetworkGenerator(seed).randomGeometric(stations, 2));
+        Random random = new Random(seed);
+        for (int i = 0; i < busRoads; i++) {
+            int from = 1 + random.nextInt(stations);
+            int to = 1 + random.nextInt(stations);
+            if (from != to) {
+                addRoad(from, to, "BUS", random.nextBoolean(), colors[random.nextInt(colors.length)]);
+            }
+        }
+    }
+
+    /**
+     * @return The road DAO of the current network; its writes are logged to {@link #changes()}.
+     */
+    static InMemoryRoadDAO roads() {
+        return roadDAO;
+    }
+
+    /**
+     * @return The change log of the current network, which the route cache polls.
+     */
+    static InMemoryGraphChangeDAO changes() {
+        return changeDAO;
+    }
+
+    private static void install() {
+        changeDAO = new InMemoryGraphChangeDAO();
+        stationDAO = new InMemoryStationDAO(changeDAO);
+        roadDAO = new InMemoryRoadDAO(stationDAO, changeDAO);
+        GraphManager.setDefaultSource(new DatabaseGraphSource(
+                new StationServiceImpl(stationDAO), new RoadServiceImpl(roadDAO)));
+        RouteCache.setChangeLog(changeDAO);
+    }
+
+    private static void addStation(String name, double x, double y) {
+        Station station = new Station();
+        station.setName(name);
+        station.setXCoord(x);
+        station.setYCoord(y);
+        stationDAO.insert(station);
+    }
+
+    private static void addRoad(int from, int to, String mode, boolean oneWay, String busColor) {
+        Road road = new Road();
+        road.setFromStationId(from);
+        road.setToStationId(to);
+        road.setMode(mode);
+        road.setOneWay(oneWay);
+        road.setBusColor(busColor);
+        roadDAO.insert(road);
+    }
+}
@@ -0,0 +1,186 @@
+package com.solvd.controller;
+
+import com.solvd.algoritms.FloydWarshall;
+import com.solvd.algoritms.RouteCache;
+import com.solvd.dao.implementation.InMemoryGraphChangeDAO;
+import com.solvd.dao.implementation.InMemoryRoadDAO;
+import com.solvd.dao.implementation.InMemoryStationDAO;
+import com.solvd.service.RoadServiceImpl;
+import com.solvd.service.RoutingServiceImpl;
+import com.solvd.service.StationServiceImpl;
+import com.solvd.utils.DatabaseGraphSource;
+import com.solvd.utils.GraphManager;
+import com.solvd.utils.NetworkGenerator;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+public class RouteApiControllerTest extends TestCase {
+    private static final int STATIONS = 12;
+
+    private InMemoryStationDAO stationDAO;
+    private RouteApiController controller;
+    private HttpClient client;
+    private String base;
+
+    @Override
+    protected void setUp() {
+        InMemoryGraphChangeDAO changes = new InMemoryGraphChangeDAO();
+        stationDAO = new InMemoryStationDAO(changes);
+        InMemoryRoadDAO roadDAO = new InMemoryRoadDAO(stationDAO, changes);
+        NetworkGenerator generator = new NetworkGenerator(8);
+        generator.setBusColors(2);
+        generator.setOneWayRatio(0.4);
+        generator.grid(3, 4, 2).writeTo(stationDAO, roadDAO);
+        GraphManager.setDefaultSource(new DatabaseGraphSource(
+                new StationServiceImpl(stationDAO), new RoadServiceImpl(roadDAO)));
+        RouteCache.setChangeLog(changes);
+
+        controller = new RouteApiController(new RoutingServiceImpl());
+        base = "http://localhost:" + controller.start(0);
+        client = HttpClient.newHttpClient();
+    }
+
+    @Override
+    protected void tearDown() {
+        controller.stop();
+        RouteCache.clear();
+    }
+
+    public void testRoutesMatchTheEngine() {
+        for (String mode : new String[]{"CAR", "BUS"}) {
+            for (int from = 1; from <= STATIONS; from++) {
+                int to = STATIONS + 1 - from;
+                HttpResponse<String> response = get("/routes?from=" + from + "&to=" + to + "&mode=" + mode);
+                assertEquals(200, response.statusCode());
+                assertEquals(json(FloydWarshall.computeNavigation(from, to, mode)), response.body());
+            }
+        }
+    }
+
+    public void testStationsByName() {
+        String from = stationDAO.getEntities().get(0).getName();
+        String to = stationDAO.getEntities().get(STATIONS - 1).getName();
+        HttpResponse<String> response = get("/routes?from=" + encode(from) + "&to=" + encode(to.toUpperCase())
+                + "&mode=car");
+        assertEquals(200, response.statusCode());
+        assertEquals(json(FloydWarshall.computeNavigation(1, STATIONS, "CAR")), response.body());
+    }
+
+    public void testAlternativesMatchTheEngine() {
+        HttpResponse<String> response = get("/routes/alternatives?from=1&to=" + STATIONS + "&mode=CAR&k=3");
+        assertEquals(200, response.statusCode());
+        List<FloydWarshall.Route> expected = FloydWarshall.getAlternativePaths(1, STATIONS, "CAR", 3);
+        StringBuilder json = new StringBuilder("[");
+        for (FloydWarshall.Route route : expected) {
+            json.append(json.length() > 1 ? "," : "").append(json(route));
+        }
+        assertEquals(json.append(']').toString(), response.body());
+    }
+
+    public void testBadRequests() {
+        assertError(get("/routes?from=1&to=99&mode=CAR"), 400, "Station 99 does not exist");
+        assertError(get("/routes?from=1&to=2&mode=TRAIN"), 400, "mode must be CAR or BUS");
+        assertError(get("/routes/alternatives?from=1&to=2&mode=CAR&k=x"), 400, "Invalid k: x");
+        assertError(get("/routes/alternatives?from=1&to=2&mode=CAR&k=0"), 400, "k must be between 1 and 20");
+        assertError(get("/routes/nope"), 404, "Unknown path /routes/nope");
+        assertError(get("/routes/batch"), 405, "Use POST for /routes/batch");
+        assertError(post("/routes/batch", "1,2\n"), 400, "Expected from,to,mode but got: 1,2");
+    }
+
+    public void testRouteToTheStartIsNotFound() {
+        assertEquals("{\"found\":false}", get("/routes?from=3&to=3&mode=CAR").body());
+    }
+
+    public void testBatchAnswersEveryLine() {
+        StringBuilder body = new StringBuilder();
+        String[] expected = new String[2 * STATIONS];
+        for (int i = 0; i < expected.length; i++) {
+            int from = 1 + i % STATIONS;
+            int to = STATIONS - i % STATIONS;
+            String mode = i < STATIONS ? "CAR" : "BUS";
+            body.append(from).append(", ").append(to).append(',').append(mode).append("\n\n");
+            String route = json(FloydWarshall.computeNavigation(from, to, mode));
+            expected[i] = "{\"index\":" + i + "," + route.substring(1);
+        }
+        HttpResponse<String> response = post("/routes/batch", body.toString());
+        assertEquals(200, response.statusCode());
+        assertEquals("application/x-ndjson; charset=utf-8",
+                response.headers().firstValue("Content-Type").orElse(null));
+
+        // The lines arrive as their routes complete, in any order
+        String[] lines = response.body().split("\n");
+        assertEquals(expected.length, lines.length);
+        String[] actual = new String[lines.length];
+        for (String line : lines) {
+            int index = Integer.parseInt(line.substring("{\"index\":".length(), line.indexOf(',')));
+            assertNull("index " + index + " answered twice", actual[index]);
+            actual[index] = line;
+        }
+        assertTrue(Arrays.equals(expected, actual));
+    }
+
+    private HttpResponse<String> get(String path) {
+        return send(HttpRequest.newBuilder(URI.create(base + path)).GET().build());
+    }
+
+    private HttpResponse<String> post(String path, String body) {
+        return send(HttpRequest.newBuilder(URI.create(base + path))
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build());
+    }
+
+    private HttpResponse<String> send(HttpRequest request) {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            throw new RuntimeException("Error requesting " + request.uri(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted requesting " + request.uri(), e);
+        }
+    }
+
+    private static void assertError(HttpResponse<String> response, int status, String message) {
+        assertEquals(response.body(), status, response.statusCode());
+        assertEquals("{\"error\":\"" + message + "\"}", response.body());
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The JSON the API answers a route with, written out field by field here so a change to the format shows.
+     */
+    private static String json(FloydWarshall.Route route) {
+        if (route.isEmpty()) {
+            return "{\"found\":false}";
+        }
+        StringBuilder json = new StringBuilder("{\"found\":true,\"start\":\"").append(route.getStartName())
+                .append("\",\"end\":\"").append(route.getEndName())
+                .append("\",\"totalDistance\":").append(route.getTotalDistance()).append(",\"stationIds\":[");
+        int[] stationIds = route.getStationIds();
+        for (int i = 0; i < stationIds.length; i++) {
+            json.append(i > 0 ? "," : "").append(stationIds[i]);
+        }
+        json.append("],\"segmentDistances\":[");
+        double[] segments = route.getSegmentDistances();
+        for (int i = 0; i < segments.length; i++) {
+            json.append(i > 0 ? "," : "").append(segments[i]);
+        }
+        json.append("],\"steps\":[");
+        List<String> steps = route.getDetails();
+        for (int i = 0; i < steps.size(); i++) {
+            json.append(i > 0 ? "," : "").append('"').append(steps.get(i)).append('"');
+        }
+        return json.append("]}").toString();
+    }
+}
@@ -0,0 +1,67 @@
+package com.solvd.dao.implementation;
+
+import com.solvd.utils.GeneratedNetwork;
+import com.solvd.utils.GraphManager;
+import com.solvd.utils.GraphSource;
+import com.solvd.utils.NetworkGenerator;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class GraphFileDAOImplTest extends TestCase {
+    private Path file;
+
+    @Override
+    protected void setUp() throws IOException {
+        file = Files.createTempFile("graph", ".bin");
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    public void testExportedFileReadsBackTheSameNetwork() {
+        NetworkGenerator generator = new NetworkGenerator(2);
+        generator.setBusColors(3);
+        generator.setOneWayRatio(0.3);
+        assertRoundTrip(generator.grid(5, 7, 2));
+        assertRoundTrip(new NetworkGenerator(4).hubAndSpoke(3, 2, 3));
+        assertRoundTrip(new NetworkGenerator(6).randomGeometric(0, 2));
+    }
+
+    public void testRejectsOtherFiles() throws IOException {
+        Files.write(file, new byte[64]);
+        try {
+            new GraphFileDAOImpl(file).getStations();
+            fail("Expected an IllegalStateException");
+        } catch (IllegalStateException expected) {
+            // Not written by exportGraph
+        }
+    }
+
+    private void assertRoundTrip(GeneratedNetwork network) {
+        GraphFileDAOImpl graphFile = new GraphFileDAOImpl(file);
+        graphFile.exportGraph(network);
+
+        assertEquals(network.getStations(), graphFile.getStations());
+        assertEquals(network.getRoads(), graphFile.getRoads());
+        for (String mode : new String[]{"CAR", "BUS", "car"}) {
+            assertEquals(mode, edges(network, mode), edges(graphFile, mode));
+        }
+        assertTrue(Arrays.deepEquals(new GraphManager(network).buildAdjacencyMatrix("CAR"),
+                new GraphManager(graphFile).buildAdjacencyMatrix("CAR")));
+    }
+
+    private static List<String> edges(GraphSource source, String mode) {
+        List<String> edges = new ArrayList<>();
+        // The row may be reused, so only its text is kept
+        source.forEachEdge(mode, edge -> edges.add(edge.toString()));
+        return edges;
+    }
+}
@@ -0,0 +1,174 @@
+package com.solvd.utils;
+
+import com.solvd.algoritms.RouteCache;
+import com.solvd.dao.IBulkImportDAO;
+import com.solvd.dao.implementation.InMemoryBulkImportDAO;
+import com.solvd.dao.implementation.InMemoryGraphChangeDAO;
+import com.solvd.dao.implementation.InMemoryRoadDAO;
+import com.solvd.dao.implementation.InMemoryStationDAO;
+import com.solvd.models.Road;
+import com.solvd.models.Station;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class CsvNetworkImporterTest extends TestCase {
+    private Path dir;
+    private InMemoryStationDAO stationDAO;
+    private InMemoryRoadDAO roadDAO;
+
+    @Override
+    protected void setUp() throws IOException {
+        dir = Files.createTempDirectory("csv");
+        InMemoryGraphChangeDAO changes = new InMemoryGraphChangeDAO();
+        stationDAO = new InMemoryStationDAO(changes);
+        roadDAO = new InMemoryRoadDAO(stationDAO, changes);
+        // The importer refreshes the route cache after every file
+        RouteCache.setChangeLog(changes);
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        for (String name : new String[]{"stations.csv", "roads.csv"}) {
+            Files.deleteIfExists(dir.resolve(name));
+        }
+        Files.delete(dir);
+    }
+
+    public void testImportsStationsAndRoads() {
+        Station existing = station("Existing", 9, 9);
+        stationDAO.insert(existing);
+        CsvNetworkImporter importer = new CsvNetworkImporter(new InMemoryBulkImportDAO(stationDAO, roadDAO));
+
+        assertEquals(3, importer.importStations(write("stations.csv", "key,name,x_coord,y_coord",
+                "a,\"Main St, North\",1.5,2", "b,\"The \"\"Hub\"\"\",-3,4", "", "c, Depot ,0,0")));
+        assertEquals(3, importer.importRoads(write("roads.csv", "from,to,mode,is_one_way,bus_color",
+                "a,b,car,false,", "b,c,BUS,TRUE,Red", "c," + existing.getStationId() + ",Car,true")));
+
+        List<Station> stations = stationDAO.getEntities();
+        assertEquals(4, stations.size());
+        assertEquals("Main St, North", stations.get(1).getName());
+        assertEquals(1.5, stations.get(1).getXCoord(), 0.0);
+        assertEquals("The \"Hub\"", stations.get(2).getName());
+        assertEquals("Depot", stations.get(3).getName());
+
+        List<Road> roads = roadDAO.getEntities();
+        assertEquals(3, roads.size());
+        assertRoad(roads.get(0), stations.get(1), stations.get(2), "CAR", false, null);
+        assertRoad(roads.get(1), stations.get(2), stations.get(3), "BUS", true, "Red");
+        assertRoad(roads.get(2), stations.get(3), existing, "CAR", true, null);
+    }
+
+    public void testInvalidRowWritesNothing() {
+        CsvNetworkImporter importer = new CsvNetworkImporter(new InMemoryBulkImportDAO(stationDAO, roadDAO));
+        assertRejected(() -> importer.importStations(write("stations.csv", "key,name,x_coord,y_coord",
+                "a,A,1,2", "b,B,north,4")), "row 2");
+        assertRejected(() -> importer.importStations(write("stations.csv", "key,name,x_coord,y_coord",
+                "a,A,1,2", "a,B,3,4")), "duplicate station key a");
+        assertTrue(stationDAO.getEntities().isEmpty());
+
+        importer.importStations(write("stations.csv", "key,name,x_coord,y_coord", "a,A,1,2", "b,B,3,4"));
+        assertRejected(() -> importer.importRoads(write("roads.csv", "from,to,mode,is_one_way,bus_color",
+                "a,b,CAR,false,", "a,b,BUS,false,")), "BUS road without a bus color");
+        assertRejected(() -> importer.importRoads(write("roads.csv", "from,to,mode,is_one_way,bus_color",
+                "a,z,CAR,false,")), "unknown station key z");
+        assertRejected(() -> importer.importRoads(write("roads.csv", "from,to,mode,is_one_way,bus_color",
+                "a,b,TRAIN,false,")), "mode must be CAR or BUS");
+        assertRejected(() -> importer.importRoads(write("roads.csv", "from,to,mode,is_one_way,bus_color",
+                "a,b,CAR,yes,")), "is_one_way must be true or false");
+        assertTrue(roadDAO.getEntities().isEmpty());
+    }
+
+    public void testInterruptedStationImportResumes() {
+        FailingImportDAO failing = new FailingImportDAO(new InMemoryBulkImportDAO(stationDAO, roadDAO), 2);
+        CsvNetworkImporter importer = new CsvNetworkImporter(failing);
+        Path stations = write("stations.csv", "key,name,x_coord,y_coord", "a,A,0,0", "b,B,1,0", "c,C,2,0", "d,D,3,0");
+        try {
+            importer.importStations(stations);
+            fail("Expected the import to fail");
+        } catch (IllegalStateException expected) {
+            // Only the first two stations were kept
+        }
+        assertEquals(2, stationDAO.getEntities().size());
+
+        assertEquals(2, importer.importStations(stations));
+        List<Station> imported = stationDAO.getEntities();
+        assertEquals(4, imported.size());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(String.valueOf((char) ('A' + i)), imported.get(i).getName());
+        }
+
+        // Every key resolves to the one station it created
+        importer.importRoads(write("roads.csv", "from,to,mode,is_one_way,bus_color", "a,d,CAR,false,", "c,b,CAR,true,"));
+        List<Road> roads = roadDAO.getEntities();
+        assertRoad(roads.get(0), imported.get(0), imported.get(3), "CAR", false, null);
+        assertRoad(roads.get(1), imported.get(2), imported.get(1), "CAR", true, null);
+    }
+
+    private Path write(String name, String... lines) {
+        try {
+            return Files.write(dir.resolve(name), List.of(lines), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException("Error writing " + name, e);
+        }
+    }
+
+    private static Station station(String name, double x, double y) {
+        Station station = new Station();
+        station.setName(name);
+        station.setXCoord(x);
+        station.setYCoord(y);
+        return station;
+    }
+
+    private static void assertRoad(Road road, Station from, Station to, String mode, boolean oneWay, String busColor) {
+        assertEquals(from.getStationId(), road.getFromStationId());
+        assertEquals(to.getStationId(), road.getToStationId());
+        assertEquals(mode, road.getMode());
+        assertEquals(oneWay, road.isOneWay());
+        assertEquals(busColor, road.getBusColor());
+    }
+
+    private static void assertRejected(Runnable importFile, String message) {
+        try {
+            importFile.run();
+            fail("Expected an IllegalArgumentException: " + message);
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains(message));
+        }
+    }
+
+    /**
+     * Keeps only the first stations of the first import and then fails, like a database import that committed
+     * some of its transactions.
+     */
+    private static class FailingImportDAO implements IBulkImportDAO {
+        private final IBulkImportDAO importDAO;
+        private int kept;
+
+        FailingImportDAO(IBulkImportDAO importDAO, int kept) {
+            this.importDAO = importDAO;
+            this.kept = kept;
+        }
+
+        @Override
+        public void insertStations(List<Station> stations) {
+            if (kept < 0) {
+                importDAO.insertStations(stations);
+                return;
+            }
+            importDAO.insertStations(stations.subList(0, kept));
+            kept = -1;
+            throw new IllegalStateException("Connection lost");
+        }
+
+        @Override
+        public void insertRoads(List<Road> roads) {
+            importDAO.insertRoads(roads);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.solvd.utils;
+
+import com.solvd.models.Station;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class StationRegistryTest extends TestCase {
+
+    public void testLookupsMatchAMapOnRandomIds() {
+        Random random = new Random(5);
+        for (int n : new int[]{0, 1, 2, 7, 100, 5000}) {
+            List<Station> stations = new ArrayList<>();
+            Map<Integer, Integer> expected = new HashMap<>();
+            for (int i = 0; i < n; i++) {
+                // Multiples of 2^16 would all land in one slot if the hash did not mix the high bits in
+                int id = random.nextBoolean() ? 1 + random.nextInt(10 * n + 1) : (1 + random.nextInt(1000)) << 16;
+                stations.add(station(id, "Station " + i, i, -i));
+                expected.putIfAbsent(id, i);
+            }
+            StationRegistry registry = StationRegistry.of(stations);
+            assertEquals(n, registry.size());
+            for (int i = 0; i < n; i++) {
+                int id = stations.get(i).getStationId();
+                assertEquals("station " + id, (int) expected.get(id), registry.indexOf(id));
+                assertEquals(id, registry.id(i));
+                assertEquals("Station " + i, registry.name(i));
+                assertEquals((double) i, registry.x(i), 0.0);
+                assertEquals((double) -i, registry.y(i), 0.0);
+            }
+            for (int k = 0; k < 1000; k++) {
+                int id = random.nextInt();
+                assertEquals("station " + id, expected.getOrDefault(id, -1).intValue(), registry.indexOf(id));
+            }
+        }
+    }
+
+    public void testNamesIgnoreCaseAndResolveToTheFirstStation() {
+        StationRegistry registry = StationRegistry.of(List.of(
+                station(4, "Central", 0, 0), station(9, "Harbour", 1, 1), station(2, "CENTRAL", 2, 2),
+                station(4, "Duplicate ID", 3, 3), station(7, null, 4, 4)));
+        assertEquals(0, registry.indexOfName("central"));
+        assertEquals(1, registry.indexOfName("HARBOUR"));
+        assertEquals(-1, registry.indexOfName("Airport"));
+        assertEquals(0, registry.indexOf(4));
+        assertEquals(4, registry.indexOf(7));
+        assertEquals(-1, registry.indexOf(0));
+    }
+
+    private static Station station(int id, String name, double x, double y) {
+        Station station = new Station();
+        station.setStationId(id);
+        station.setName(name);
+        station.setXCoord(x);
+        station.setYCoord(y);
+        return station;
+    }
+}